@@ -2,6 +2,9 @@ package com.example.virtualclothingstore.controller;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,13 +12,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.virtualclothingstore.dto.CategoryDTO;
+import com.example.virtualclothingstore.dto.CategoryTreeNodeDTO;
+import com.example.virtualclothingstore.dto.ProductDTO;
 import com.example.virtualclothingstore.entity.Category;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.CatalogVersion;
 import com.example.virtualclothingstore.service.CategoryService;
+import com.example.virtualclothingstore.service.CategoryTree;
+import com.example.virtualclothingstore.service.ProductService;
 
 import jakarta.validation.Valid;
 
@@ -24,21 +34,51 @@ import jakarta.validation.Valid;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ProductService productService,
+                              CatalogVersion catalogVersion) {
         this.categoryService = categoryService;
+        this.productService = productService;
+        this.catalogVersion = catalogVersion;
     }
 
+    // List responses carry the catalog-wide ETag and answer a matching If-None-Match with 304
+
     @GetMapping
-    public List<CategoryDTO> getAllCategories() {
-        return categoryService.getAllCategoryDTOs();
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                categoryService::getAllCategoryDTOs);
+    }
+
+    /** Nested category tree with product counts per category and per subtree, served from memory. */
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeNodeDTO>> getCategoryTree(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                categoryService::getCategoryTree);
+    }
+
+    /** Products in the category and every category below it, in id order. */
+    @GetMapping("/{id}/products")
+    public ResponseEntity<Page<ProductDTO>> getProductsInCategoryTree(@PathVariable Long id,
+                                                                      @RequestParam(defaultValue = "0") int page,
+                                                                      @RequestParam(defaultValue = "10") int size,
+                                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.getProductDTOsInCategoryTree(id, PageRequest.of(page, size)));
     }
 
+    /** The category with a strong ETag and Last-Modified; a matching If-None-Match gets 304. */
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
-        CategoryDTO categoryDTO = categoryService.getCategoryDTOById(id)
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CategoryTree.Node node = categoryService.getCategoryNode(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
-        return ResponseEntity.ok(categoryDTO);
+        return ConditionalRequests.respond(ifNoneMatch, eTag(node), node.updatedAt(),
+                () -> categoryService.toDTO(node));
     }
 
     @PostMapping
@@ -50,11 +90,12 @@ public class CategoryController {
 
     @PutMapping("/{id}")
     public ResponseEntity<CategoryDTO> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryDTO categoryDTO) {
-        if (!categoryService.getCategoryById(id).isPresent()) {
-            throw new ResourceNotFoundException("Category not found with id: " + id);
-        }
+        Category existing = categoryService.getCategoryById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
         Category category = categoryService.fromDTO(categoryDTO);
         category.setId(id);
+        // Replaces the stored version; without one, save would treat the category as new
+        category.setVersion(existing.getVersion());
         Category saved = categoryService.saveCategory(category);
         return ResponseEntity.ok(categoryService.toDTO(saved));
     }
@@ -67,4 +108,8 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    static String eTag(CategoryTree.Node node) {
+        return "\"" + node.version() + "\"";
+    }
+}
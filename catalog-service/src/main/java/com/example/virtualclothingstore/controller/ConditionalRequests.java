@@ -0,0 +1,53 @@
+package com.example.virtualclothingstore.controller;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * If-None-Match handling for the catalog's GET endpoints. The check runs before the response
+ * body is built, so an unchanged resource costs one in-memory lookup and an empty 304.
+ * If-Modified-Since on a 200 response is left to Spring, which compares it with the
+ * response's Last-Modified.
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {}
+
+    /**
+     * 304 when If-None-Match matches the tag, otherwise 200 with the body, the tag and, when
+     * known, Last-Modified.
+     */
+    static <T> ResponseEntity<T> respond(String ifNoneMatch, String eTag, Instant lastModified, Supplier<T> body) {
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(eTag);
+        if (lastModified != null) {
+            ok.lastModified(lastModified);
+        }
+        return ok.body(body.get());
+    }
+
+    /** True when If-None-Match lists the tag or is "*"; weak tags compare by their opaque part. */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
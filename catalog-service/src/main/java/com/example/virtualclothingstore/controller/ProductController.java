@@ -1,39 +1,112 @@
 package com.example.virtualclothingstore.controller;
 
 import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.dto.ProductFilterResultDTO;
+import com.example.virtualclothingstore.dto.SnapshotConsistencyDTO;
 import com.example.virtualclothingstore.entity.Product;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.CatalogVersion;
 import com.example.virtualclothingstore.service.ProductService;
+import com.example.virtualclothingstore.service.ProductSnapshot;
+import com.example.virtualclothingstore.service.ProductSnapshotService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSnapshotService snapshotService;
+    private final CatalogVersion catalogVersion;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSnapshotService snapshotService,
+                             CatalogVersion catalogVersion) {
         this.productService = productService;
+        this.snapshotService = snapshotService;
+        this.catalogVersion = catalogVersion;
     }
 
+    // List responses carry the catalog-wide ETag and answer a matching If-None-Match with 304
+
     @GetMapping({"", "/"})
-    public Page<ProductDTO> getAllProducts(@RequestParam(defaultValue = "0") int page,
-                                           @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<Page<ProductDTO>> getAllProducts(@RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Pageable pageable = PageRequest.of(page, size);
-        return productService.getAllProductDTOs(pageable);
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.getAllProductDTOs(pageable));
     }
 
+    /** Full-text search over product name, description and category name, best match first. */
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductDTO>> searchProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.searchProductDTOs(q, PageRequest.of(page, size)));
+    }
+
+    /** Search-box suggestions: completions of the last word typed, from product names. */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestProducts(@RequestParam(defaultValue = "") String prefix,
+                                                        @RequestParam(defaultValue = "10") int limit,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.suggestProductNames(prefix, limit));
+    }
+
+    /**
+     * Storefront listing filtered by category, price band (0-25, 25-50, 50-100, 100-200, 200+)
+     * and stock, in id order, with the facet counts for the same filter.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResultDTO> filterProducts(@RequestParam(required = false) List<Long> categoryId,
+                                                                 @RequestParam(required = false) List<String> priceBand,
+                                                                 @RequestParam(required = false) Boolean inStock,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "10") int size,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.filterProductDTOs(categoryId, priceBand, inStock, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Multi-get used by order-service to resolve every line of an order in one round trip.
+     * Unknown ids are simply absent from the result; callers decide how to treat them.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductDTO>> getProductsByIds(@RequestParam List<Long> ids,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalRequests.respond(ifNoneMatch, catalogVersion.eTag(), null,
+                () -> productService.getProductDTOsByIds(ids));
+    }
+
+    /**
+     * Compares the in-memory snapshot that serves product reads with the database. Reads
+     * the whole products table, so it is meant for operators, not for regular traffic.
+     */
+    @GetMapping("/snapshot/consistency")
+    public SnapshotConsistencyDTO checkSnapshotConsistency() {
+        return snapshotService.checkConsistency();
+    }
+
+    /** The product with a strong ETag and Last-Modified; a matching If-None-Match gets 304. */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
-        ProductDTO productDTO = productService.getProductDTOById(id)
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProductSnapshot.Item item = productService.getProductItem(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return ResponseEntity.ok(productDTO);
+        return ConditionalRequests.respond(ifNoneMatch, eTag(item), item.lastModified(), item::toDTO);
     }
 
     @PostMapping
@@ -45,11 +118,12 @@ public class ProductController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO) {
-        if (!productService.getProductById(id).isPresent()) {
-            throw new ResourceNotFoundException("Product not found with id: " + id);
-        }
+        Product existing = productService.getProductById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         Product product = productService.fromDTO(productDTO);
         product.setId(id);
+        // Replaces the stored version; without one, save would treat the product as new
+        product.setVersion(existing.getVersion());
         Product saved = productService.saveProduct(product);
         return ResponseEntity.ok(productService.toDTO(saved));
     }
@@ -62,4 +136,9 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    // The body carries the category name, so the category's version is part of the tag
+    static String eTag(ProductSnapshot.Item item) {
+        return "\"" + item.version() + (item.categoryVersion() != null ? "." + item.categoryVersion() : "") + "\"";
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.virtualclothingstore.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.virtualclothingstore.dto.ReservationDTO;
+import com.example.virtualclothingstore.entity.StockReservation;
+import com.example.virtualclothingstore.service.StockReservationService;
+
+import jakarta.validation.Valid;
+
+/**
+ * Checkout stock holds: reserve all items or none (409 when any is short), then commit
+ * once the order is placed or release when it is abandoned. Reservations left alone
+ * expire and their stock is returned.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+public class StockReservationController {
+
+    private final StockReservationService reservationService;
+
+    public StockReservationController(StockReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody ReservationDTO request) {
+        StockReservation reservation = reservationService.reserve(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.toDTO(reservation));
+    }
+
+    @GetMapping("/{id}")
+    public ReservationDTO getReservation(@PathVariable Long id) {
+        return reservationService.toDTO(reservationService.getReservation(id));
+    }
+
+    @PostMapping("/{id}/commit")
+    public ReservationDTO commit(@PathVariable Long id) {
+        return reservationService.toDTO(reservationService.commit(id));
+    }
+
+    @PostMapping("/{id}/release")
+    public ReservationDTO release(@PathVariable Long id) {
+        return reservationService.toDTO(reservationService.release(id));
+    }
+}
@@ -11,6 +11,10 @@ public class CategoryDTO {
 
     private String description;
 
+    private Long parentId;
+
+    private String path; // read-only, maintained by the service
+
     // Constructors
     public CategoryDTO() {}
 
@@ -29,4 +33,10 @@ public class CategoryDTO {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
 }
\ No newline at end of file
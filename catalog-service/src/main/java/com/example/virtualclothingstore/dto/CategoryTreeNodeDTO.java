@@ -0,0 +1,51 @@
+package com.example.virtualclothingstore.dto;
+
+import java.util.List;
+
+/** One category of the tree with its product counts and subcategories. */
+public class CategoryTreeNodeDTO {
+
+    private Long id;
+    private String name;
+    private String description;
+    private String path;
+    private long productCount;        // products directly in this category
+    private long subtreeProductCount; // products in this category and all its subcategories
+    private List<CategoryTreeNodeDTO> children;
+
+    // Constructors
+    public CategoryTreeNodeDTO() {}
+
+    public CategoryTreeNodeDTO(Long id, String name, String description, String path, long productCount,
+                               long subtreeProductCount, List<CategoryTreeNodeDTO> children) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.path = path;
+        this.productCount = productCount;
+        this.subtreeProductCount = subtreeProductCount;
+        this.children = children;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public long getProductCount() { return productCount; }
+    public void setProductCount(long productCount) { this.productCount = productCount; }
+
+    public long getSubtreeProductCount() { return subtreeProductCount; }
+    public void setSubtreeProductCount(long subtreeProductCount) { this.subtreeProductCount = subtreeProductCount; }
+
+    public List<CategoryTreeNodeDTO> getChildren() { return children; }
+    public void setChildren(List<CategoryTreeNodeDTO> children) { this.children = children; }
+}
@@ -0,0 +1,46 @@
+package com.example.virtualclothingstore.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * A page of filtered products with the facet counts for the same filter. Each facet is
+ * counted with the other facets' selections applied but not its own.
+ */
+public class ProductFilterResultDTO {
+
+    private Page<ProductDTO> products;
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> priceBands;
+    private long inStockCount;
+    private long outOfStockCount;
+
+    // Constructors
+    public ProductFilterResultDTO() {}
+
+    public ProductFilterResultDTO(Page<ProductDTO> products, List<FacetCountDTO> categories,
+                                  List<FacetCountDTO> priceBands, long inStockCount, long outOfStockCount) {
+        this.products = products;
+        this.categories = categories;
+        this.priceBands = priceBands;
+        this.inStockCount = inStockCount;
+        this.outOfStockCount = outOfStockCount;
+    }
+
+    // Getters and Setters
+    public Page<ProductDTO> getProducts() { return products; }
+    public void setProducts(Page<ProductDTO> products) { this.products = products; }
+
+    public List<FacetCountDTO> getCategories() { return categories; }
+    public void setCategories(List<FacetCountDTO> categories) { this.categories = categories; }
+
+    public List<FacetCountDTO> getPriceBands() { return priceBands; }
+    public void setPriceBands(List<FacetCountDTO> priceBands) { this.priceBands = priceBands; }
+
+    public long getInStockCount() { return inStockCount; }
+    public void setInStockCount(long inStockCount) { this.inStockCount = inStockCount; }
+
+    public long getOutOfStockCount() { return outOfStockCount; }
+    public void setOutOfStockCount(long outOfStockCount) { this.outOfStockCount = outOfStockCount; }
+}
@@ -0,0 +1,48 @@
+package com.example.virtualclothingstore.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+/** A stock reservation; on create only items is read, everything else is set by the service. */
+public class ReservationDTO {
+
+    private Long id;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    private List<ReservationItemDTO> items;
+
+    // Constructors
+    public ReservationDTO() {}
+
+    public ReservationDTO(Long id, String status, LocalDateTime createdAt, LocalDateTime expiresAt,
+                          List<ReservationItemDTO> items) {
+        this.id = id;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public List<ReservationItemDTO> getItems() { return items; }
+    public void setItems(List<ReservationItemDTO> items) { this.items = items; }
+}
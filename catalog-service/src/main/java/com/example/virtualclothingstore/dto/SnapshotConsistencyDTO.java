@@ -0,0 +1,52 @@
+package com.example.virtualclothingstore.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Result of comparing the in-memory product snapshot with the products table. */
+public class SnapshotConsistencyDTO {
+
+    private boolean consistent;
+    private Instant snapshotBuiltAt;
+    private int snapshotSize;
+    private int databaseSize;
+    private List<Long> missingIds; // in the database, not in the snapshot
+    private List<Long> extraIds;   // in the snapshot, no longer in the database
+    private List<Long> staleIds;   // in both, with different values
+
+    // Constructors
+    public SnapshotConsistencyDTO() {}
+
+    public SnapshotConsistencyDTO(Instant snapshotBuiltAt, int snapshotSize, int databaseSize,
+                                  List<Long> missingIds, List<Long> extraIds, List<Long> staleIds) {
+        this.snapshotBuiltAt = snapshotBuiltAt;
+        this.snapshotSize = snapshotSize;
+        this.databaseSize = databaseSize;
+        this.missingIds = missingIds;
+        this.extraIds = extraIds;
+        this.staleIds = staleIds;
+        this.consistent = missingIds.isEmpty() && extraIds.isEmpty() && staleIds.isEmpty();
+    }
+
+    // Getters and Setters
+    public boolean isConsistent() { return consistent; }
+    public void setConsistent(boolean consistent) { this.consistent = consistent; }
+
+    public Instant getSnapshotBuiltAt() { return snapshotBuiltAt; }
+    public void setSnapshotBuiltAt(Instant snapshotBuiltAt) { this.snapshotBuiltAt = snapshotBuiltAt; }
+
+    public int getSnapshotSize() { return snapshotSize; }
+    public void setSnapshotSize(int snapshotSize) { this.snapshotSize = snapshotSize; }
+
+    public int getDatabaseSize() { return databaseSize; }
+    public void setDatabaseSize(int databaseSize) { this.databaseSize = databaseSize; }
+
+    public List<Long> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<Long> missingIds) { this.missingIds = missingIds; }
+
+    public List<Long> getExtraIds() { return extraIds; }
+    public void setExtraIds(List<Long> extraIds) { this.extraIds = extraIds; }
+
+    public List<Long> getStaleIds() { return staleIds; }
+    public void setStaleIds(List<Long> staleIds) { this.staleIds = staleIds; }
+}
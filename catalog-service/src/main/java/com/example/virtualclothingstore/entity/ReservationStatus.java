@@ -0,0 +1,13 @@
+package com.example.virtualclothingstore.entity;
+
+/**
+ * Stock reservation lifecycle: RESERVED -> COMMITTED when the order goes through, or
+ * RESERVED -> RELEASED / EXPIRED when the stock goes back on the shelf. Only RESERVED
+ * reservations change, so whichever of commit, release and expiry comes first wins.
+ */
+public enum ReservationStatus {
+    RESERVED,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
@@ -1,10 +1,52 @@
 package com.example.virtualclothingstore.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.virtualclothingstore.entity.Category;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-}
\ No newline at end of file
+
+    // Served from the query cache until a write to categories invalidates it
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Category> findAll();
+
+    // Not cacheable: the periodic tree reload must see other instances' writes, which never
+    // invalidate this instance's query cache
+    @Query("SELECT c FROM Category c")
+    List<Category> findAllFromDatabase();
+
+    // Name is unique, so this is a single index lookup
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Category> findByName(String name);
+
+    boolean existsByParentId(Long parentId);
+
+    // Moves a whole subtree in one statement: every path under oldPath is re-rooted at newPath
+    @Transactional
+    @Modifying
+    @Query("UPDATE Category c SET c.path = CONCAT(:newPath, SUBSTRING(c.path, LENGTH(:oldPath) + 1)), "
+            + "c.version = c.version + 1, c.updatedAt = CURRENT_INSTANT "
+            + "WHERE c.path LIKE CONCAT(:oldPath, '%') AND c.path <> :oldPath")
+    int moveSubtreePaths(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    // Categories created before the tree existed are roots
+    @Transactional
+    @Modifying
+    @Query("UPDATE Category c SET c.path = CONCAT('/', CAST(c.id AS String), '/'), c.version = c.version + 1 "
+            + "WHERE c.path IS NULL AND c.parentId IS NULL")
+    int initializeRootPaths();
+}
@@ -1,10 +1,46 @@
 package com.example.virtualclothingstore.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.virtualclothingstore.entity.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+
+    // Single IN-query for batch lookups; category is fetched eagerly so toDTO doesn't trigger N+1 selects
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Whole catalog in one query, for building the in-memory product snapshot
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    List<Product> findAllWithCategory();
+
+    // Product count per category, for the category tree's subtree counts
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id")
+    List<Object[]> countByCategory();
+
+    // Check and decrement in one statement: no read-modify-write, and the row lock lasts
+    // only until the surrounding transaction commits. 0 means unknown product or too little stock.
+    // Stock is part of the product's representation, so its version moves too.
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, "
+            + "p.version = p.version + 1, p.updatedAt = CURRENT_INSTANT "
+            + "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, "
+            + "p.version = p.version + 1, p.updatedAt = CURRENT_INSTANT WHERE p.id = :id")
+    int restoreStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Current stock and version of a few products, for refreshing the snapshot after reservations
+    @Query("SELECT p.id, p.stockQuantity, p.version, p.updatedAt FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
+}
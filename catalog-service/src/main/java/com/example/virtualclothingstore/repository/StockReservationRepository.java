@@ -0,0 +1,37 @@
+package com.example.virtualclothingstore.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.virtualclothingstore.entity.ReservationStatus;
+import com.example.virtualclothingstore.entity.StockReservation;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Query("SELECT r FROM StockReservation r LEFT JOIN FETCH r.items WHERE r.id = :id")
+    Optional<StockReservation> findWithItemsById(@Param("id") Long id);
+
+    // Conditional status change: of concurrent commit, release and expiry only one matches
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to "
+            + "WHERE r.id = :id AND r.status = :from AND r.expiresAt > :now")
+    int updateStatusIfNotExpired(@Param("id") Long id, @Param("from") ReservationStatus from,
+                                 @Param("to") ReservationStatus to, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt <= :now ORDER BY r.expiresAt")
+    List<Long> findExpiredIds(@Param("status") ReservationStatus status, @Param("now") LocalDateTime now,
+                              Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Catalog-wide change counter behind the ETags of list responses. It moves on every swap of
+ * the product snapshot or the category tree, after the new one is visible, so a tag read
+ * before the data it labels can only be older than that data, never newer.
+ *
+ * The counter is per process. Its tags carry a random id picked at startup, so a tag issued
+ * by another instance or before a restart never matches and the list is simply sent again.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String instance = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /** Strong ETag for any list served from the current snapshot and tree. */
+    public String eTag() {
+        return "\"" + instance + "-" + version.get() + "\"";
+    }
+}
@@ -5,18 +5,29 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.example.virtualclothingstore.dto.CategoryDTO;
+import com.example.virtualclothingstore.dto.CategoryTreeNodeDTO;
 import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 import com.example.virtualclothingstore.repository.CategoryRepository;
 
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ProductSnapshotService snapshotService;
+    private final CategoryTreeService treeService;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductSnapshotService snapshotService,
+                           CategoryTreeService treeService) {
         this.categoryRepository = categoryRepository;
+        this.snapshotService = snapshotService;
+        this.treeService = treeService;
     }
 
     public List<Category> getAllCategories() {
@@ -27,12 +38,78 @@ public class CategoryService {
         return categoryRepository.findById(id);
     }
 
+    public Optional<Category> getCategoryByName(String name) {
+        return categoryRepository.findByName(name);
+    }
+
+    // Products carry their category name in the snapshot, so category writes update it too.
+    // Every category write also rebuilds the category tree. Each write is one transaction,
+    // and the snapshot and tree follow only once it has committed.
+
+    @Transactional
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        String parentPath = "/";
+        if (category.getParentId() != null) {
+            Category parent = categoryRepository.findById(category.getParentId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Parent category not found with id: " + category.getParentId()));
+            parentPath = pathOf(parent);
+            if (category.getId() != null && parentPath.contains("/" + category.getId() + "/")) {
+                throw new BadRequestException("A category cannot be moved under itself or one of its subcategories");
+            }
+        }
+        String oldPath = category.getId() == null ? null
+                : categoryRepository.findById(category.getId()).map(Category::getPath).orElse(null);
+
+        // A new category only gets its id, and so its path, from the insert
+        if (category.getId() != null) {
+            category.setPath(parentPath + category.getId() + "/");
+        }
+        Category saved = categoryRepository.save(category);
+        if (saved.getPath() == null) {
+            saved.setPath(parentPath + saved.getId() + "/");
+            saved = categoryRepository.save(saved);
+        }
+        if (oldPath != null && !oldPath.equals(saved.getPath())) {
+            categoryRepository.moveSubtreePaths(oldPath, saved.getPath());
+        }
+
+        Category committed = saved;
+        afterCommit(() -> {
+            snapshotService.categorySaved(committed);
+            treeService.reload();
+        });
+        return saved;
     }
 
+    @Transactional
     public void deleteCategory(Long id) {
+        if (categoryRepository.existsByParentId(id)) {
+            throw new BadRequestException("Category has subcategories; move or delete them first");
+        }
         categoryRepository.deleteById(id);
+        // the delete cascades to the category's products
+        afterCommit(() -> {
+            snapshotService.reload();
+            treeService.reload();
+        });
+    }
+
+    // The snapshot and the tree must not show a write a rollback is about to undo
+    private static void afterCommit(Runnable refresh) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh.run();
+            }
+        });
+    }
+
+    private static String pathOf(Category category) {
+        return category.getPath() != null ? category.getPath() : "/" + category.getId() + "/";
     }
 
     // DTO conversion methods
@@ -41,6 +118,15 @@ public class CategoryService {
         dto.setId(category.getId());
         dto.setName(category.getName());
         dto.setDescription(category.getDescription());
+        dto.setParentId(category.getParentId());
+        dto.setPath(category.getPath());
+        return dto;
+    }
+
+    public CategoryDTO toDTO(CategoryTree.Node node) {
+        CategoryDTO dto = new CategoryDTO(node.id(), node.name(), node.description());
+        dto.setParentId(node.parentId());
+        dto.setPath(node.path());
         return dto;
     }
 
@@ -49,16 +135,38 @@ public class CategoryService {
         category.setId(dto.getId());
         category.setName(dto.getName());
         category.setDescription(dto.getDescription());
+        category.setParentId(dto.getParentId());
         return category;
     }
 
+    // DTO reads are served from the in-memory category tree
+
     public List<CategoryDTO> getAllCategoryDTOs() {
-        return getAllCategories().stream()
+        return treeService.current().getAll().stream()
                 .map(this::toDTO)
                 .toList();
     }
 
     public Optional<CategoryDTO> getCategoryDTOById(Long id) {
-        return getCategoryById(id).map(this::toDTO);
+        return treeService.current().get(id).map(this::toDTO);
+    }
+
+    /** The category as held in the tree, with the version its ETag is made of. */
+    public Optional<CategoryTree.Node> getCategoryNode(Long id) {
+        return treeService.current().get(id);
+    }
+
+    /** The whole tree, roots first, with direct and subtree product counts on every node. */
+    public List<CategoryTreeNodeDTO> getCategoryTree() {
+        CategoryTree tree = treeService.current();
+        return tree.roots().stream().map(root -> toTreeNodeDTO(tree, root)).toList();
+    }
+
+    private CategoryTreeNodeDTO toTreeNodeDTO(CategoryTree tree, CategoryTree.Node node) {
+        List<CategoryTreeNodeDTO> children = tree.children(node.id()).stream()
+                .map(child -> toTreeNodeDTO(tree, child))
+                .toList();
+        return new CategoryTreeNodeDTO(node.id(), node.name(), node.description(), node.path(),
+                tree.productCount(node.id()), tree.subtreeProductCount(node.id()), children);
     }
 }
\ No newline at end of file
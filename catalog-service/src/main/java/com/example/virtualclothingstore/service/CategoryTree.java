@@ -0,0 +1,178 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import com.example.virtualclothingstore.entity.Category;
+
+/**
+ * Immutable copy of the category tree with product counts per category and per subtree.
+ * Like {@link ProductSnapshot}, it is never modified: a category write builds a new tree,
+ * and a product write builds a copy whose counts differ along the two affected root paths.
+ *
+ * Paths are derived from the parent links here rather than read from the path column, so
+ * the tree stays correct for rows written before paths existed. A parent that does not
+ * exist makes a category a root.
+ */
+public final class CategoryTree {
+
+    public record Node(Long id, String name, String description, Long parentId, String path, Long version,
+                       Instant updatedAt, List<Long> childIds) {}
+
+    private static final CategoryTree EMPTY = new CategoryTree(Map.of(), List.of(), Map.of(), Map.of());
+
+    private final Map<Long, Node> nodes;
+    private final List<Long> rootIds;
+    private final Map<Long, Long> productCounts;
+    private final Map<Long, Long> subtreeProductCounts;
+
+    private CategoryTree(Map<Long, Node> nodes, List<Long> rootIds, Map<Long, Long> productCounts,
+                         Map<Long, Long> subtreeProductCounts) {
+        this.nodes = nodes;
+        this.rootIds = rootIds;
+        this.productCounts = productCounts;
+        this.subtreeProductCounts = subtreeProductCounts;
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    /** Builds the tree; productCounts holds the products directly in each category. */
+    public static CategoryTree of(Collection<Category> categories, Map<Long, Long> productCounts) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getId));
+        Map<Long, Category> byId = new HashMap<>(sorted.size() * 4 / 3 + 1);
+        sorted.forEach(category -> byId.put(category.getId(), category));
+
+        Map<Long, Long> parents = new HashMap<>();
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> roots = new ArrayList<>();
+        for (Category category : sorted) {
+            Long parentId = category.getParentId();
+            if (parentId != null && byId.containsKey(parentId) && !createsCycle(category.getId(), parentId, byId)) {
+                parents.put(category.getId(), parentId);
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category.getId());
+            } else {
+                roots.add(category.getId());
+            }
+        }
+
+        Map<Long, Node> nodes = new HashMap<>(byId.size() * 4 / 3 + 1);
+        Map<Long, Long> direct = new HashMap<>();
+        Map<Long, Long> subtree = new HashMap<>();
+        Deque<Long> pending = new ArrayDeque<>(roots);
+        Map<Long, String> paths = new HashMap<>();
+        roots.forEach(id -> paths.put(id, "/" + id + "/"));
+        while (!pending.isEmpty()) {
+            Long id = pending.poll();
+            Category category = byId.get(id);
+            List<Long> childIds = List.copyOf(children.getOrDefault(id, List.of()));
+            nodes.put(id, new Node(id, category.getName(), category.getDescription(), parents.get(id),
+                    paths.get(id), category.getVersion(), category.getUpdatedAt(), childIds));
+            for (Long childId : childIds) {
+                paths.put(childId, paths.get(id) + childId + "/");
+                pending.add(childId);
+            }
+            long count = productCounts.getOrDefault(id, 0L);
+            direct.put(id, count);
+            for (Long ancestor = id; ancestor != null; ancestor = parents.get(ancestor)) {
+                subtree.merge(ancestor, count, Long::sum);
+            }
+        }
+        return new CategoryTree(Map.copyOf(nodes), List.copyOf(roots), direct, subtree);
+    }
+
+    // True when following parents from parentId leads back to id
+    private static boolean createsCycle(Long id, Long parentId, Map<Long, Category> byId) {
+        Set<Long> seen = new HashSet<>();
+        for (Long current = parentId; current != null && byId.containsKey(current); current = byId.get(current).getParentId()) {
+            if (current.equals(id) || !seen.add(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public Optional<Node> get(Long id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    /** Every category, in id order. */
+    public List<Node> getAll() {
+        return nodes.values().stream().sorted(Comparator.comparing(Node::id)).toList();
+    }
+
+    public List<Node> roots() {
+        return rootIds.stream().map(nodes::get).toList();
+    }
+
+    public List<Node> children(Long id) {
+        Node node = nodes.get(id);
+        return node == null ? List.of() : node.childIds().stream().map(nodes::get).toList();
+    }
+
+    /** The category and all categories below it, parents before children; empty when unknown. */
+    public Set<Long> subtreeIds(Long id) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (!nodes.containsKey(id)) {
+            return ids;
+        }
+        Deque<Long> pending = new ArrayDeque<>(List.of(id));
+        while (!pending.isEmpty()) {
+            Long current = pending.poll();
+            ids.add(current);
+            pending.addAll(nodes.get(current).childIds());
+        }
+        return ids;
+    }
+
+    public long productCount(Long id) {
+        return productCounts.getOrDefault(id, 0L);
+    }
+
+    public long subtreeProductCount(Long id) {
+        return subtreeProductCounts.getOrDefault(id, 0L);
+    }
+
+    /**
+     * A new tree in which one product left category from and joined category to; either may
+     * be null for a created or deleted product. Only the ancestors of both change.
+     */
+    public CategoryTree withProductMoved(Long from, Long to) {
+        if (Objects.equals(from, to)) {
+            return this;
+        }
+        Map<Long, Long> direct = new HashMap<>(productCounts);
+        Map<Long, Long> subtree = new HashMap<>(subtreeProductCounts);
+        adjust(from, -1, direct, subtree);
+        adjust(to, 1, direct, subtree);
+        return new CategoryTree(nodes, rootIds, direct, subtree);
+    }
+
+    private void adjust(Long categoryId, long delta, Map<Long, Long> direct, Map<Long, Long> subtree) {
+        if (categoryId == null || !nodes.containsKey(categoryId)) {
+            return;
+        }
+        direct.merge(categoryId, delta, Long::sum);
+        for (Long ancestor = categoryId; ancestor != null; ancestor = nodes.get(ancestor).parentId()) {
+            subtree.merge(ancestor, delta, Long::sum);
+        }
+    }
+}
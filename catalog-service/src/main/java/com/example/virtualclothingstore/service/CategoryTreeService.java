@@ -0,0 +1,77 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.repository.CategoryRepository;
+import com.example.virtualclothingstore.repository.ProductRepository;
+
+/**
+ * Holds the current {@link CategoryTree} that category reads are served from. It is rebuilt
+ * from the database after every category write made by this instance, and its product
+ * counts follow this instance's product writes without a query. Like the product snapshot,
+ * it is reloaded periodically to pick up other instances' writes.
+ */
+@Service
+public class CategoryTreeService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    public CategoryTreeService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                               CatalogVersion catalogVersion) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public CategoryTree current() {
+        return tree;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int initialized = categoryRepository.initializeRootPaths();
+        if (initialized > 0) {
+            logger.info("Initialized paths of {} root categories", initialized);
+        }
+        reload();
+    }
+
+    /** Rebuilds the tree and its counts from the database, bypassing this instance's caches. */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval:PT5M}",
+               initialDelayString = "${catalog.snapshot.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        List<Category> categories = categoryRepository.findAllFromDatabase();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : productRepository.countByCategory()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        swap(CategoryTree.of(categories, counts));
+    }
+
+    /** Moves one product between categories in the counts; null stands for created or deleted. */
+    public synchronized void productMoved(Long fromCategoryId, Long toCategoryId) {
+        swap(tree.withProductMoved(fromCategoryId, toCategoryId));
+    }
+
+    // The catalog version moves only once the new tree is visible
+    private void swap(CategoryTree next) {
+        if (next != tree) {
+            tree = next;
+            catalogVersion.changed();
+        }
+    }
+}
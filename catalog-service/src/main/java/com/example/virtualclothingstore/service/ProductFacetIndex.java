@@ -0,0 +1,260 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable facet index over the products of one {@link ProductSnapshot}: one bitmap per
+ * category, one per price band and one for in-stock products. Bit i stands for the product
+ * at position i of the snapshot's id-sorted array.
+ *
+ * A filter is the intersection of the selected bitmaps (selected values of one facet are
+ * or-ed), so filtering and counting never look at the products themselves. Replacing a
+ * product copies only the bitmaps it moves between; adding or removing one shifts every
+ * later position, so the index is rebuilt, at the same linear cost as the snapshot's own
+ * array copy.
+ */
+final class ProductFacetIndex {
+
+    /** A price range, from inclusive and to exclusive; the last band has no upper bound. */
+    record PriceBand(String key, BigDecimal from, BigDecimal to) {
+
+        boolean contains(BigDecimal price) {
+            return price.compareTo(from) >= 0 && (to == null || price.compareTo(to) < 0);
+        }
+    }
+
+    static final List<PriceBand> PRICE_BANDS = List.of(
+            new PriceBand("0-25", BigDecimal.ZERO, new BigDecimal("25")),
+            new PriceBand("25-50", new BigDecimal("25"), new BigDecimal("50")),
+            new PriceBand("50-100", new BigDecimal("50"), new BigDecimal("100")),
+            new PriceBand("100-200", new BigDecimal("100"), new BigDecimal("200")),
+            new PriceBand("200+", new BigDecimal("200"), null));
+
+    /**
+     * Counts for one filter. Each facet is counted with the other facets' selections applied
+     * but not its own, so a storefront can show how many products every alternative value
+     * would give.
+     */
+    record Result(List<Integer> positions, long total, Map<Long, Long> categoryCounts,
+                  Map<String, Long> priceBandCounts, long inStockCount, long outOfStockCount) {}
+
+    record Matches(List<Integer> positions, long total) {}
+
+    private final int size;
+    private final Map<Long, BitSet> byCategory;
+    private final BitSet[] byPriceBand;
+    private final BitSet inStock;
+
+    private ProductFacetIndex(int size, Map<Long, BitSet> byCategory, BitSet[] byPriceBand, BitSet inStock) {
+        this.size = size;
+        this.byCategory = byCategory;
+        this.byPriceBand = byPriceBand;
+        this.inStock = inStock;
+    }
+
+    static ProductFacetIndex build(ProductSnapshot.Item[] sortedItems) {
+        Map<Long, BitSet> byCategory = new HashMap<>();
+        BitSet[] byPriceBand = new BitSet[PRICE_BANDS.size()];
+        for (int band = 0; band < byPriceBand.length; band++) {
+            byPriceBand[band] = new BitSet(sortedItems.length);
+        }
+        BitSet inStock = new BitSet(sortedItems.length);
+        for (int position = 0; position < sortedItems.length; position++) {
+            ProductSnapshot.Item item = sortedItems[position];
+            if (item.categoryId() != null) {
+                byCategory.computeIfAbsent(item.categoryId(), id -> new BitSet(sortedItems.length)).set(position);
+            }
+            int band = priceBand(item.price());
+            if (band >= 0) {
+                byPriceBand[band].set(position);
+            }
+            if (isInStock(item)) {
+                inStock.set(position);
+            }
+        }
+        return new ProductFacetIndex(sortedItems.length, byCategory, byPriceBand, inStock);
+    }
+
+    /** A new index in which the product at position changed from before to after. */
+    ProductFacetIndex replaced(int position, ProductSnapshot.Item before, ProductSnapshot.Item after) {
+        Map<Long, BitSet> categories = byCategory;
+        if (!Objects.equals(before.categoryId(), after.categoryId())) {
+            categories = new HashMap<>(byCategory);
+            if (before.categoryId() != null) {
+                BitSet old = copy(categories.get(before.categoryId()));
+                old.clear(position);
+                if (old.isEmpty()) {
+                    categories.remove(before.categoryId());
+                } else {
+                    categories.put(before.categoryId(), old);
+                }
+            }
+            if (after.categoryId() != null) {
+                BitSet current = categories.containsKey(after.categoryId())
+                        ? copy(categories.get(after.categoryId()))
+                        : new BitSet(size);
+                current.set(position);
+                categories.put(after.categoryId(), current);
+            }
+        }
+        BitSet[] bands = byPriceBand;
+        int oldBand = priceBand(before.price());
+        int newBand = priceBand(after.price());
+        if (oldBand != newBand) {
+            bands = byPriceBand.clone();
+            if (oldBand >= 0) {
+                bands[oldBand] = copy(bands[oldBand]);
+                bands[oldBand].clear(position);
+            }
+            if (newBand >= 0) {
+                bands[newBand] = copy(bands[newBand]);
+                bands[newBand].set(position);
+            }
+        }
+        BitSet stock = inStock;
+        if (isInStock(before) != isInStock(after)) {
+            stock = copy(inStock);
+            stock.set(position, isInStock(after));
+        }
+        return new ProductFacetIndex(size, categories, bands, stock);
+    }
+
+    /**
+     * Positions of the matching products from offset on, with the facet counts. Null or
+     * empty selections do not filter; unknown category ids and band keys match nothing.
+     */
+    Result filter(Collection<Long> categoryIds, Collection<String> priceBands, Boolean inStockOnly,
+                  long offset, int limit) {
+        BitSet categories = categoryIds == null || categoryIds.isEmpty() ? null : union(categoryIds.stream()
+                .map(byCategory::get).toList());
+        BitSet bands = priceBands == null || priceBands.isEmpty() ? null : union(priceBands.stream()
+                .map(ProductFacetIndex::priceBandIndex)
+                .map(band -> band >= 0 ? byPriceBand[band] : null)
+                .toList());
+
+        // Two working bitmaps per call, however many categories are counted
+        BitSet filtered = narrow(new BitSet(size), categories, bands, inStockOnly);
+        List<Integer> positions = slice(filtered, offset, limit);
+        long total = filtered.cardinality();
+        BitSet scratch = new BitSet(size);
+
+        BitSet withoutCategory = narrow(filtered, null, bands, inStockOnly);
+        Map<Long, Long> categoryCounts = new TreeMap<>();
+        byCategory.forEach((id, bits) -> categoryCounts.put(id, countBoth(bits, withoutCategory, scratch)));
+
+        BitSet withoutBand = narrow(filtered, categories, null, inStockOnly);
+        Map<String, Long> bandCounts = new LinkedHashMap<>();
+        for (int band = 0; band < byPriceBand.length; band++) {
+            bandCounts.put(PRICE_BANDS.get(band).key(), countBoth(byPriceBand[band], withoutBand, scratch));
+        }
+
+        BitSet withoutStock = narrow(filtered, categories, bands, null);
+        long inStockCount = countBoth(inStock, withoutStock, scratch);
+        return new Result(positions, total, categoryCounts, bandCounts,
+                inStockCount, withoutStock.cardinality() - inStockCount);
+    }
+
+    /** Positions of the products in any of the categories, from offset on; no facet counts. */
+    Matches inCategories(Collection<Long> categoryIds, long offset, int limit) {
+        BitSet matches = union(categoryIds.stream().map(byCategory::get).toList());
+        return new Matches(slice(matches, offset, limit), matches.cardinality());
+    }
+
+    private static List<Integer> slice(BitSet matches, long offset, int limit) {
+        List<Integer> positions = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality())));
+        int position = matches.nextSetBit(0);
+        for (long skipped = 0; position >= 0 && skipped < offset; skipped++) {
+            position = matches.nextSetBit(position + 1);
+        }
+        while (position >= 0 && positions.size() < limit) {
+            positions.add(position);
+            position = matches.nextSetBit(position + 1);
+        }
+        return positions;
+    }
+
+    /** Position of the first product in the category, which must have products. */
+    int firstPosition(Long categoryId) {
+        return byCategory.get(categoryId).nextSetBit(0);
+    }
+
+    static boolean isPriceBand(String key) {
+        return priceBandIndex(key) >= 0;
+    }
+
+    private static int priceBandIndex(String key) {
+        for (int band = 0; band < PRICE_BANDS.size(); band++) {
+            if (PRICE_BANDS.get(band).key().equals(key)) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private static int priceBand(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        for (int band = 0; band < PRICE_BANDS.size(); band++) {
+            if (PRICE_BANDS.get(band).contains(price)) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isInStock(ProductSnapshot.Item item) {
+        return item.stockQuantity() != null && item.stockQuantity() > 0;
+    }
+
+    // Overwrites target with the positions passing the selections; null selections do not filter
+    private BitSet narrow(BitSet target, BitSet categories, BitSet bands, Boolean inStockOnly) {
+        target.set(0, size);
+        if (categories != null) {
+            target.and(categories);
+        }
+        if (bands != null) {
+            target.and(bands);
+        }
+        if (inStockOnly != null) {
+            if (inStockOnly) {
+                target.and(inStock);
+            } else {
+                target.andNot(inStock);
+            }
+        }
+        return target;
+    }
+
+    // Size of the overlap, taken in scratch so neither bitmap is copied
+    private static long countBoth(BitSet a, BitSet b, BitSet scratch) {
+        scratch.clear();
+        scratch.or(a);
+        scratch.and(b);
+        return scratch.cardinality();
+    }
+
+    // A missing bitmap (unknown value) contributes nothing
+    private BitSet union(List<BitSet> selected) {
+        BitSet result = new BitSet(size);
+        for (BitSet bits : selected) {
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet copy(BitSet bits) {
+        return (BitSet) bits.clone();
+    }
+}
@@ -0,0 +1,899 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable BM25 full-text index over product name, description and category name, kept
+ * inside each {@link ProductSnapshot}.
+ *
+ * The base segment is built in one pass over the snapshot's products. Each term's posting
+ * list is a byte array of varint pairs (gap to the previous document ordinal, term
+ * frequency). Products changed afterwards are re-indexed into a small delta, and their base
+ * documents are hidden. The delta keeps its own term-to-document map, so a query reads only
+ * the delta documents that contain its terms. Each change copies only the delta, and the next
+ * full build folds the delta back in. Until then, document frequencies still count hidden base
+ * documents, which slightly skews scores but never the set of matches.
+ *
+ * Base documents are scored in windows of consecutive ordinals, with MaxScore pruning. Each
+ * term has an upper bound on what it can add to a score. Once the page's worst kept hit
+ * scores above the sum of the smallest bounds, those terms are non-essential: a document
+ * matching only them cannot make the page. Only essential terms are scored for every
+ * posting; non-essential ones are looked up just for documents that can still make it,
+ * jumping through skip entries every {@value #SKIP_INTERVAL} postings. Scores are
+ * fixed-point integers, so they do not depend on the order terms are added in, and equal
+ * scores stay in id order from one page to the next. A query allocates no array of
+ * catalogue size.
+ *
+ * Terms in at least 1/{@value #DENSE_FRACTION} of the base documents are dense: they keep a
+ * bitmap of those documents and a term frequency byte each, about what varint postings would
+ * take, and find a document's entry directly rather than by decoding up to it. Pruning skips
+ * documents, so matches are counted separately, window by window: dense bitmaps are or-ed a
+ * word at a time and other terms mark their postings.
+ */
+final class ProductSearchIndex {
+
+    // BM25 parameters, the usual defaults
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights: a name match counts twice as much as a description or category match
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int CATEGORY_WEIGHT = 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "in", "is", "of", "on", "or", "the", "to", "with");
+
+    record Hits(List<Long> ids, long total) {}
+
+    /**
+     * One term's base postings; maxTermFreq and minLength bound its score. Most terms keep
+     * (ordinal gap, term frequency) varint pairs in data, with skipOrdinals[k] the ordinal of
+     * posting (k + 1) * SKIP_INTERVAL - 1 and skipOffsets[k] the offset of the posting after
+     * it. Dense terms keep a bitmap of their documents instead, termFreqs in ordinal order and
+     * ranks[w] the number of documents before word w, so a document is looked up without a scan.
+     */
+    private record Postings(int docFreq, int maxTermFreq, int minLength, byte[] data, int[] skipOrdinals,
+                            int[] skipOffsets, long[] documents, int[] ranks, byte[] termFreqs) {
+        boolean dense() {
+            return documents != null;
+        }
+    }
+
+    private record Doc(Map<String, Integer> termFreqs, int length) {}
+
+    private record Hit(long id, int score) {}
+
+    // Base documents scored together; a multiple of 64 so a window's match bits fill whole words
+    private static final int WINDOW_SIZE = 4_096;
+    private static final int SKIP_INTERVAL = 128;
+    private static final int DENSE_FRACTION = 16;
+    // Score units per BM25 point; far finer than any difference that matters to the ranking
+    private static final float SCORE_SCALE = 4_096f;
+    // Term frequencies whose scores a cursor works out once per length; most postings have tf 1 or 2
+    private static final int TABLED_TERM_FREQS = 4;
+
+    // Best first; equal scores in id order so paging is stable
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingInt(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final long[] baseIds;
+    private final int[] baseLengths;
+    private final int maxBaseLength;
+    private final Map<String, Postings> basePostings;
+    private final BitSet hidden;
+    private final int hiddenCount;
+    // Delta documents, and per term the delta documents containing it with their frequency;
+    // both are copied on change and never modified once an index holds them
+    private final Map<Long, Doc> delta;
+    private final Map<String, Map<Long, Integer>> deltaPostings;
+    // Delta documents that have no base document, i.e. products added since the build
+    private final int addedCount;
+    private final long totalLength;
+    // The delta laid out for scoring, built by the first search; two racing builds are equal
+    private volatile DeltaSegment deltaSegment;
+
+    private ProductSearchIndex(ProductSearchIndex base, BitSet hidden, int hiddenCount, Map<Long, Doc> delta,
+                               Map<String, Map<Long, Integer>> deltaPostings, int addedCount, long totalLength) {
+        this(base.baseIds, base.baseLengths, base.maxBaseLength, base.basePostings,
+                hidden, hiddenCount, delta, deltaPostings, addedCount, totalLength);
+    }
+
+    private ProductSearchIndex(long[] baseIds, int[] baseLengths, int maxBaseLength, Map<String, Postings> basePostings,
+                               BitSet hidden, int hiddenCount, Map<Long, Doc> delta,
+                               Map<String, Map<Long, Integer>> deltaPostings, int addedCount, long totalLength) {
+        this.baseIds = baseIds;
+        this.baseLengths = baseLengths;
+        this.maxBaseLength = maxBaseLength;
+        this.basePostings = basePostings;
+        this.hidden = hidden;
+        this.hiddenCount = hiddenCount;
+        this.delta = delta;
+        this.deltaPostings = deltaPostings;
+        this.addedCount = addedCount;
+        this.totalLength = totalLength;
+    }
+
+    /** Indexes the products, which must be sorted by id. */
+    static ProductSearchIndex build(ProductSnapshot.Item[] sortedItems) {
+        long[] ids = new long[sortedItems.length];
+        int[] lengths = new int[sortedItems.length];
+        Map<String, PostingsWriter> writers = new HashMap<>();
+        long totalLength = 0;
+        int maxLength = 0;
+        for (int ordinal = 0; ordinal < sortedItems.length; ordinal++) {
+            Doc doc = analyze(sortedItems[ordinal]);
+            ids[ordinal] = sortedItems[ordinal].id();
+            lengths[ordinal] = doc.length();
+            totalLength += doc.length();
+            maxLength = Math.max(maxLength, doc.length());
+            for (Map.Entry<String, Integer> term : doc.termFreqs().entrySet()) {
+                writers.computeIfAbsent(term.getKey(), key -> new PostingsWriter())
+                        .add(ordinal, term.getValue(), doc.length());
+            }
+        }
+        Map<String, Postings> postings = new HashMap<>(writers.size() * 4 / 3 + 1);
+        writers.forEach((term, writer) -> postings.put(term, writer.toPostings(sortedItems.length)));
+        return new ProductSearchIndex(ids, lengths, maxLength, postings, new BitSet(), 0, Map.of(), Map.of(), 0,
+                totalLength);
+    }
+
+    /**
+     * Products changed since the last full build: updated and deleted base products plus added
+     * ones, each counted once. The owner rebuilds once these pile up.
+     */
+    int pendingChanges() {
+        return hiddenCount + addedCount;
+    }
+
+    /** A new index in which the product is (re-)indexed with its current values. */
+    ProductSearchIndex with(ProductSnapshot.Item item) {
+        return with(List.of(item));
+    }
+
+    /** A new index in which the products are (re-)indexed, copying the delta once for all of them. */
+    ProductSearchIndex with(Collection<ProductSnapshot.Item> items) {
+        if (items.isEmpty()) {
+            return this;
+        }
+        DeltaEditor editor = new DeltaEditor();
+        for (ProductSnapshot.Item item : items) {
+            editor.remove(item.id());
+            editor.add(item.id(), analyze(item));
+        }
+        return editor.toIndex();
+    }
+
+    /** A new index without the product; this one when it is not indexed. */
+    ProductSearchIndex without(Long id) {
+        DeltaEditor editor = new DeltaEditor();
+        return editor.remove(id) ? editor.toIndex() : this;
+    }
+
+    /** Product ids matching any query term, best BM25 score first, with the total match count. */
+    Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+        int docCount = baseIds.length - hiddenCount + delta.size();
+        if (terms.isEmpty() || docCount == 0) {
+            return new Hits(List.of(), 0);
+        }
+        float avgLength = Math.max(1f, (float) totalLength / docCount);
+        // The length part of the BM25 denominator, per base document length
+        float[] lengthNorms = new float[maxBaseLength + 1];
+        for (int length = 0; length < lengthNorms.length; length++) {
+            lengthNorms[length] = K1 * (1 - B + B * length / avgLength);
+        }
+
+        List<PostingsCursor> cursors = new ArrayList<>(terms.size());
+        List<String> matchedTerms = new ArrayList<>(terms.size());
+        float[] weights = new float[terms.size()];
+        for (String term : terms) {
+            Postings postings = basePostings.get(term);
+            int docFreq = (postings != null ? postings.docFreq() : 0)
+                    + deltaPostings.getOrDefault(term, Map.of()).size();
+            if (docFreq == 0) {
+                continue;
+            }
+            // Kept above zero: hidden base documents can push docFreq past docCount
+            float idf = (float) Math.max(1e-6, Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5)));
+            if (postings != null) {
+                cursors.add(new PostingsCursor(postings, idf * (K1 + 1), lengthNorms));
+            }
+            weights[matchedTerms.size()] = idf * (K1 + 1);
+            matchedTerms.add(term);
+        }
+
+        int wanted = (int) Math.min((long) offset + limit, docCount);
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, 1_024)), WORST_FIRST);
+        long total = 0;
+        if (!cursors.isEmpty()) {
+            total += countBase(cursors);
+            if (wanted > 0) {
+                scoreBase(cursors, top, wanted);
+            }
+        }
+        // After the base: its pruning relies on hits arriving in id order, which delta hits do not
+        if (!delta.isEmpty()) {
+            DeltaSegment segment = deltaSegment();
+            int[] deltaScores = new int[segment.ids.length];
+            for (int t = 0; t < matchedTerms.size(); t++) {
+                int[] pairs = segment.postings.get(matchedTerms.get(t));
+                if (pairs == null) {
+                    continue;
+                }
+                for (int i = 0; i < pairs.length; i += 2) {
+                    int slot = pairs[i];
+                    float norm = K1 * (1 - B + B * segment.lengths[slot] / avgLength);
+                    deltaScores[slot] += impact(weights[t], pairs[i + 1], norm);
+                }
+            }
+            for (int slot = 0; slot < deltaScores.length; slot++) {
+                if (deltaScores[slot] != 0) {
+                    total++;
+                    if (wanted > 0) {
+                        offer(top, wanted, segment.ids[slot], deltaScores[slot]);
+                    }
+                }
+            }
+        }
+
+        if (top.size() <= offset) {
+            return new Hits(List.of(), total);
+        }
+        Hit[] ranked = new Hit[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll();
+        }
+        List<Long> page = new ArrayList<>(ranked.length - offset);
+        for (int i = offset; i < ranked.length; i++) {
+            page.add(ranked[i].id());
+        }
+        return new Hits(page, total);
+    }
+
+    /** Base documents, hidden ones aside, matching any of the terms. */
+    private long countBase(List<PostingsCursor> cursors) {
+        List<PostingsCursor> marking = new ArrayList<>();
+        List<long[]> dense = new ArrayList<>();
+        for (PostingsCursor cursor : cursors) {
+            if (cursor.postings.dense()) {
+                dense.add(cursor.postings.documents());
+            } else {
+                // A cursor of its own: the scoring cursor may skip postings
+                marking.add(new PostingsCursor(cursor.postings, 0f, null));
+            }
+        }
+        long[] words = new long[WINDOW_SIZE / 64];
+        long total = 0;
+        for (int from = 0; from < baseIds.length; from += WINDOW_SIZE) {
+            int to = Math.min(from + WINDOW_SIZE, baseIds.length);
+            int firstWord = from / 64;
+            int wordCount = (to - from + 63) / 64;
+            Arrays.fill(words, 0L);
+            for (long[] documents : dense) {
+                for (int w = 0; w < wordCount; w++) {
+                    words[w] |= documents[firstWord + w];
+                }
+            }
+            for (PostingsCursor cursor : marking) {
+                cursor.mark(from, to, words);
+            }
+            for (int ordinal = hidden.nextSetBit(from); ordinal >= 0 && ordinal < to;
+                    ordinal = hidden.nextSetBit(ordinal + 1)) {
+                words[(ordinal - from) >>> 6] &= ~(1L << ordinal);
+            }
+            for (int w = 0; w < wordCount; w++) {
+                total += Long.bitCount(words[w]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Ranks the base documents into top with MaxScore. Terms are ordered by their bound; those
+     * before essential are the non-essential ones, whose bounds together do not beat the
+     * threshold, the score of the worst kept hit once top is full. Hits arrive in id order,
+     * so a document tying with the threshold never wins and can be pruned like a lower one.
+     */
+    private void scoreBase(List<PostingsCursor> cursors, PriorityQueue<Hit> top, int wanted) {
+        PostingsCursor[] terms = cursors.toArray(PostingsCursor[]::new);
+        Arrays.sort(terms, Comparator.comparingInt(cursor -> cursor.bound));
+        // boundSums[k] is the sum of the first k bounds
+        int[] boundSums = new int[terms.length + 1];
+        for (int t = 0; t < terms.length; t++) {
+            boundSums[t + 1] = boundSums[t] + terms[t].bound;
+        }
+        BitSet hiddenOrNull = hiddenCount > 0 ? hidden : null;
+        int[] scores = new int[Math.min(WINDOW_SIZE, baseIds.length)];
+        int[] candidates = new int[scores.length];
+        int[] candidateScores = new int[scores.length];
+        int threshold = 0;
+        int essential = 0;
+        for (int from = 0; from < baseIds.length; from += WINDOW_SIZE) {
+            int to = Math.min(from + WINDOW_SIZE, baseIds.length);
+            boolean any = false;
+            for (int t = essential; t < terms.length; t++) {
+                any |= terms[t].hasPostingBelow(from, to);
+            }
+            // Rare terms leave most windows empty
+            if (!any) {
+                continue;
+            }
+            // Only documents that the non-essential terms could still lift above the threshold
+            int needed = threshold - boundSums[essential];
+            int count;
+            if (essential == terms.length - 1) {
+                // One essential term, usually the rarest, once the page has filled: no sums to gather
+                count = terms[essential].collect(from, to, needed, hiddenOrNull, candidates, candidateScores);
+            } else {
+                for (int t = essential; t < terms.length; t++) {
+                    terms[t].score(from, to, scores, hiddenOrNull);
+                }
+                count = 0;
+                for (int i = 0; i < to - from; i++) {
+                    int score = scores[i];
+                    scores[i] = 0;
+                    // Written either way and kept by the count; few pass, so a branch would mispredict
+                    candidates[count] = i;
+                    candidateScores[count] = score;
+                    count += score > needed ? 1 : 0;
+                }
+            }
+            for (int t = essential - 1; t >= 0 && count > 0; t--) {
+                PostingsCursor cursor = terms[t];
+                int kept = 0;
+                for (int c = 0; c < count; c++) {
+                    int score = candidateScores[c];
+                    if (score + boundSums[t + 1] <= threshold) {
+                        continue;
+                    }
+                    candidates[kept] = candidates[c];
+                    candidateScores[kept++] = score + cursor.impactAt(from + candidates[c]);
+                }
+                count = kept;
+            }
+            for (int c = 0; c < count; c++) {
+                if (candidateScores[c] > threshold) {
+                    threshold = keep(top, wanted, baseIds[from + candidates[c]], candidateScores[c]);
+                }
+            }
+            while (essential < terms.length && boundSums[essential + 1] <= threshold) {
+                essential++;
+            }
+            // Nothing left can beat the page
+            if (essential == terms.length) {
+                return;
+            }
+        }
+    }
+
+    private DeltaSegment deltaSegment() {
+        DeltaSegment segment = deltaSegment;
+        if (segment == null) {
+            segment = new DeltaSegment(delta, deltaPostings);
+            deltaSegment = segment;
+        }
+        return segment;
+    }
+
+    /** Adds a hit that beats the threshold; returns the new threshold, the worst kept score once top is full. */
+    private static int keep(PriorityQueue<Hit> top, int wanted, long id, int score) {
+        top.add(new Hit(id, score));
+        if (top.size() > wanted) {
+            top.poll();
+        }
+        return top.size() == wanted ? top.peek().score() : 0;
+    }
+
+    private static void offer(PriorityQueue<Hit> top, int wanted, long id, int score) {
+        if (top.size() < wanted) {
+            top.add(new Hit(id, score));
+        } else {
+            Hit worst = top.peek();
+            if (score > worst.score() || (score == worst.score() && id < worst.id())) {
+                top.poll();
+                top.add(new Hit(id, score));
+            }
+        }
+    }
+
+    /** One term's BM25 score in score units; weight is idf * (K1 + 1), norm the document's length part. */
+    private static int impact(float weight, int tf, float norm) {
+        // At least one unit, so every match keeps a score above zero
+        return Math.max(1, (int) (weight * tf / (tf + norm) * SCORE_SCALE + 0.5f));
+    }
+
+    private static Doc analyze(ProductSnapshot.Item item) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int length = addTerms(termFreqs, item.name(), NAME_WEIGHT)
+                + addTerms(termFreqs, item.description(), DESCRIPTION_WEIGHT)
+                + addTerms(termFreqs, item.categoryName(), CATEGORY_WEIGHT);
+        return new Doc(termFreqs, length);
+    }
+
+    private static int addTerms(Map<String, Integer> termFreqs, String text, int weight) {
+        List<String> tokens = tokens(text);
+        for (String token : tokens) {
+            termFreqs.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /** Lower-cased, stemmed words of the text without stop words; splits on anything but letters and digits. */
+    static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = lower.substring(start, i);
+                if (!STOP_WORDS.contains(word)) {
+                    tokens.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** Light plural stemmer: dresses, shirts and accessories become dress, shirt and accessory. */
+    static String stem(String word) {
+        int length = word.length();
+        if (length <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (word.endsWith("sses") || word.endsWith("shes") || word.endsWith("ches") || word.endsWith("xes")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    /**
+     * Copy of this index's delta that takes several changes before becoming a new index. Term
+     * entries are copied the first time a change touches them, so a change costs the size of
+     * the delta plus the postings of its own terms.
+     */
+    private final class DeltaEditor {
+        private BitSet newHidden = hidden;
+        private int newHiddenCount = hiddenCount;
+        private final Map<Long, Doc> newDelta = new HashMap<>(delta);
+        private final Map<String, Map<Long, Integer>> newPostings = new HashMap<>(deltaPostings);
+        private final Set<String> copiedTerms = new HashSet<>();
+        private int newAddedCount = addedCount;
+        private long newTotalLength = totalLength;
+
+        /** Hides the product's base document and drops its delta document; false when it has neither. */
+        boolean remove(long id) {
+            boolean removed = false;
+            int ordinal = Arrays.binarySearch(baseIds, id);
+            if (ordinal >= 0 && !newHidden.get(ordinal)) {
+                if (newHidden == hidden) {
+                    newHidden = (BitSet) hidden.clone();
+                }
+                newHidden.set(ordinal);
+                newHiddenCount++;
+                newTotalLength -= baseLengths[ordinal];
+                removed = true;
+            }
+            Doc previous = newDelta.remove(id);
+            if (previous != null) {
+                for (String term : previous.termFreqs().keySet()) {
+                    Map<Long, Integer> docs = postingsToChange(term);
+                    docs.remove(id);
+                    if (docs.isEmpty()) {
+                        newPostings.remove(term);
+                    }
+                }
+                if (ordinal < 0) {
+                    newAddedCount--;
+                }
+                newTotalLength -= previous.length();
+                removed = true;
+            }
+            return removed;
+        }
+
+        void add(long id, Doc doc) {
+            newDelta.put(id, doc);
+            doc.termFreqs().forEach((term, tf) -> postingsToChange(term).put(id, tf));
+            if (Arrays.binarySearch(baseIds, id) < 0) {
+                newAddedCount++;
+            }
+            newTotalLength += doc.length();
+        }
+
+        private Map<Long, Integer> postingsToChange(String term) {
+            Map<Long, Integer> docs = newPostings.get(term);
+            if (docs == null) {
+                docs = new HashMap<>();
+            } else if (!copiedTerms.contains(term)) {
+                docs = new HashMap<>(docs);
+            } else {
+                return docs;
+            }
+            copiedTerms.add(term);
+            newPostings.put(term, docs);
+            return docs;
+        }
+
+        ProductSearchIndex toIndex() {
+            return new ProductSearchIndex(ProductSearchIndex.this, newHidden, newHiddenCount, newDelta, newPostings,
+                    newAddedCount, newTotalLength);
+        }
+    }
+
+    /**
+     * The delta documents numbered by slot, with each term's postings as (slot, term frequency)
+     * pairs, so a query sums delta scores in an array instead of a map keyed by product id.
+     */
+    private static final class DeltaSegment {
+        private final long[] ids;
+        private final int[] lengths;
+        private final Map<String, int[]> postings;
+
+        DeltaSegment(Map<Long, Doc> delta, Map<String, Map<Long, Integer>> deltaPostings) {
+            ids = new long[delta.size()];
+            lengths = new int[delta.size()];
+            Map<Long, Integer> slots = new HashMap<>(delta.size() * 4 / 3 + 1);
+            int slot = 0;
+            for (Map.Entry<Long, Doc> doc : delta.entrySet()) {
+                ids[slot] = doc.getKey();
+                lengths[slot] = doc.getValue().length();
+                slots.put(doc.getKey(), slot++);
+            }
+            postings = new HashMap<>(deltaPostings.size() * 4 / 3 + 1);
+            deltaPostings.forEach((term, docs) -> {
+                int[] pairs = new int[docs.size() * 2];
+                int i = 0;
+                for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                    pairs[i++] = slots.get(doc.getKey());
+                    pairs[i++] = doc.getValue();
+                }
+                postings.put(term, pairs);
+            });
+        }
+    }
+
+    /**
+     * Reads one term's base postings in ordinal order, scoring a window at a time or looking up
+     * single documents. A dense term's cursor keeps no position.
+     */
+    private final class PostingsCursor {
+        private final Postings postings;
+        private final byte[] data;
+        private final float weight;
+        private final float[] lengthNorms;
+        // impacts[(tf - 1) * lengthNorms.length + length] for tf up to TABLED_TERM_FREQS
+        private final int[] impacts;
+        // What the term can add to any base document's score
+        private final int bound;
+        private int position;
+        // Index of the current posting; docFreq once exhausted
+        private int index;
+        // The current posting, not yet scored
+        private int ordinal;
+        private int termFreq;
+
+        PostingsCursor(Postings postings, float weight, float[] lengthNorms) {
+            this.postings = postings;
+            this.data = postings.data();
+            this.weight = weight;
+            this.lengthNorms = lengthNorms;
+            if (lengthNorms == null) {
+                this.impacts = null;
+                this.bound = 0;
+            } else {
+                int tabled = Math.min(postings.maxTermFreq(), TABLED_TERM_FREQS);
+                this.impacts = new int[tabled * lengthNorms.length];
+                for (int tf = 1; tf <= tabled; tf++) {
+                    for (int length = 0; length < lengthNorms.length; length++) {
+                        impacts[(tf - 1) * lengthNorms.length + length] =
+                                ProductSearchIndex.impact(weight, tf, lengthNorms[length]);
+                    }
+                }
+                this.bound = ProductSearchIndex.impact(weight, postings.maxTermFreq(),
+                        lengthNorms[postings.minLength()]);
+            }
+            if (!postings.dense()) {
+                // Positioned on the first posting; every term has at least one
+                this.ordinal = readVarint();
+                this.termFreq = readVarint();
+            }
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        /** The term's score in a base document of the given length. */
+        private int impact(int tf, int length) {
+            return tf <= TABLED_TERM_FREQS
+                    ? impacts[(tf - 1) * lengthNorms.length + length]
+                    : ProductSearchIndex.impact(weight, tf, lengthNorms[length]);
+        }
+
+        private void next() {
+            if (++index == postings.docFreq()) {
+                ordinal = Integer.MAX_VALUE;
+                return;
+            }
+            ordinal += readVarint();
+            termFreq = readVarint();
+        }
+
+        /** Moves to the first posting at or after target, jumping over whole skip intervals. */
+        private void advance(int target) {
+            if (ordinal >= target) {
+                return;
+            }
+            int[] skipOrdinals = postings.skipOrdinals();
+            int skip = index / SKIP_INTERVAL;
+            if (skip < skipOrdinals.length && skipOrdinals[skip] < target) {
+                while (skip + 1 < skipOrdinals.length && skipOrdinals[skip + 1] < target) {
+                    skip++;
+                }
+                // Onto the first posting after the interval: its gap is from the interval's last ordinal
+                position = postings.skipOffsets()[skip];
+                index = (skip + 1) * SKIP_INTERVAL;
+                ordinal = skipOrdinals[skip] + readVarint();
+                termFreq = readVarint();
+            }
+            while (ordinal < target) {
+                next();
+            }
+        }
+
+        /** Whether a posting may lie in [from, to); moves past the ones before from. */
+        boolean hasPostingBelow(int from, int to) {
+            if (postings.dense()) {
+                return true;
+            }
+            advance(from);
+            return ordinal < to;
+        }
+
+        /** The term's score in the base document at ordinal, 0 if it lacks the term; ordinals must not go back. */
+        int impactAt(int ordinal) {
+            if (postings.dense()) {
+                long word = postings.documents()[ordinal >>> 6];
+                if ((word & (1L << ordinal)) == 0) {
+                    return 0;
+                }
+                int rank = postings.ranks()[ordinal >>> 6] + Long.bitCount(word & ((1L << ordinal) - 1));
+                return impact(postings.termFreqs()[rank] & 0xFF, baseLengths[ordinal]);
+            }
+            advance(ordinal);
+            return this.ordinal == ordinal ? impact(termFreq, baseLengths[ordinal]) : 0;
+        }
+
+        /** Sets the bit, counted from from, of every posting below to. */
+        void mark(int from, int to, long[] words) {
+            while (ordinal < to) {
+                words[(ordinal - from) >>> 6] |= 1L << ordinal;
+                next();
+            }
+        }
+
+        /** Adds the term's score of every posting in [from, to) into scores, indexed from from. */
+        void score(int from, int to, int[] scores, BitSet hidden) {
+            if (postings.dense()) {
+                scoreDense(from, to, scores, hidden);
+                return;
+            }
+            // Kept in locals: this is the innermost loop of every query
+            byte[] data = this.data;
+            int position = this.position;
+            int last = postings.docFreq() - 1;
+            int index = this.index;
+            int ordinal = this.ordinal;
+            int tf = this.termFreq;
+            while (ordinal < to) {
+                if (hidden == null || !hidden.get(ordinal)) {
+                    scores[ordinal - from] += impact(tf, baseLengths[ordinal]);
+                }
+                if (index == last) {
+                    index++;
+                    ordinal = Integer.MAX_VALUE;
+                    break;
+                }
+                index++;
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                tf = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[position++];
+                    tf |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                ordinal += gap;
+            }
+            this.position = position;
+            this.index = index;
+            this.ordinal = ordinal;
+            this.termFreq = tf;
+        }
+
+        /**
+         * Writes the postings in [from, to) that score above needed into candidates, indexed
+         * from from, and their scores into candidateScores; returns how many there are.
+         */
+        int collect(int from, int to, int needed, BitSet hidden, int[] candidates, int[] candidateScores) {
+            // Scores grow with tf, so lower term frequencies cannot reach needed at any length
+            int minTermFreq = 1;
+            while (minTermFreq <= postings.maxTermFreq() && impact(minTermFreq, postings.minLength()) <= needed) {
+                minTermFreq++;
+            }
+            // Postings left behind are skipped by the next advance
+            if (minTermFreq > postings.maxTermFreq()) {
+                return 0;
+            }
+            int count = 0;
+            if (postings.dense()) {
+                long[] documents = postings.documents();
+                byte[] termFreqs = postings.termFreqs();
+                int lastWord = (to - 1) >>> 6;
+                int rank = postings.ranks()[from >>> 6];
+                for (int w = from >>> 6; w <= lastWord; w++) {
+                    for (long bits = documents[w]; bits != 0; bits &= bits - 1) {
+                        int tf = termFreqs[rank++] & 0xFF;
+                        if (tf < minTermFreq) {
+                            continue;
+                        }
+                        int ordinal = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        int score = impact(tf, baseLengths[ordinal]);
+                        if (score > needed && (hidden == null || !hidden.get(ordinal))) {
+                            candidates[count] = ordinal - from;
+                            candidateScores[count++] = score;
+                        }
+                    }
+                }
+                return count;
+            }
+            while (ordinal < to) {
+                int score = termFreq < minTermFreq ? 0 : impact(termFreq, baseLengths[ordinal]);
+                if (score > needed && (hidden == null || !hidden.get(ordinal))) {
+                    candidates[count] = ordinal - from;
+                    candidateScores[count++] = score;
+                }
+                next();
+            }
+            return count;
+        }
+
+        // from is a multiple of 64, so the window starts on a word
+        private void scoreDense(int from, int to, int[] scores, BitSet hidden) {
+            long[] documents = postings.documents();
+            byte[] termFreqs = postings.termFreqs();
+            int lastWord = (to - 1) >>> 6;
+            int rank = postings.ranks()[from >>> 6];
+            for (int w = from >>> 6; w <= lastWord; w++) {
+                for (long bits = documents[w]; bits != 0; bits &= bits - 1) {
+                    int ordinal = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int tf = termFreqs[rank++] & 0xFF;
+                    if (hidden == null || !hidden.get(ordinal)) {
+                        scores[ordinal - from] += impact(tf, baseLengths[ordinal]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Appends (ordinal gap, term frequency) varint pairs for one term while the base segment is built. */
+    private static final class PostingsWriter {
+        private byte[] buffer = new byte[8];
+        private int size;
+        private int count;
+        private int lastOrdinal;
+        private int maxTermFreq;
+        private int minLength = Integer.MAX_VALUE;
+        private int[] skipOrdinals = new int[0];
+        private int[] skipOffsets = new int[0];
+
+        void add(int ordinal, int termFreq, int length) {
+            if (count > 0 && count % SKIP_INTERVAL == 0) {
+                int skip = count / SKIP_INTERVAL - 1;
+                if (skip == skipOrdinals.length) {
+                    skipOrdinals = Arrays.copyOf(skipOrdinals, Math.max(4, skip * 2));
+                    skipOffsets = Arrays.copyOf(skipOffsets, skipOrdinals.length);
+                }
+                skipOrdinals[skip] = lastOrdinal;
+                skipOffsets[skip] = size;
+            }
+            writeVarint(ordinal - lastOrdinal);
+            writeVarint(termFreq);
+            lastOrdinal = ordinal;
+            count++;
+            maxTermFreq = Math.max(maxTermFreq, termFreq);
+            minLength = Math.min(minLength, length);
+        }
+
+        private void writeVarint(int value) {
+            if (buffer.length - size < 5) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        Postings toPostings(int baseSize) {
+            if ((long) count * DENSE_FRACTION < baseSize) {
+                int skips = (count - 1) / SKIP_INTERVAL;
+                return new Postings(count, maxTermFreq, minLength, Arrays.copyOf(buffer, size),
+                        Arrays.copyOf(skipOrdinals, skips), Arrays.copyOf(skipOffsets, skips), null, null, null);
+            }
+            long[] documents = new long[(baseSize + 63) / 64];
+            // Capped at a byte; BM25 has long stopped growing with tf by then
+            byte[] termFreqs = new byte[count];
+            int ordinal = 0;
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = buffer[position++];
+                    gap |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                int tf = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = buffer[position++];
+                    tf |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                ordinal += gap;
+                documents[ordinal >>> 6] |= 1L << ordinal;
+                termFreqs[i] = (byte) Math.min(tf, 255);
+            }
+            int[] ranks = new int[documents.length];
+            for (int w = 1; w < ranks.length; w++) {
+                ranks[w] = ranks[w - 1] + Long.bitCount(documents[w - 1]);
+            }
+            return new Postings(count, maxTermFreq, minLength, null, null, null, documents, ranks, termFreqs);
+        }
+    }
+}
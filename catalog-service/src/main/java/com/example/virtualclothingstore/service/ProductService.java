@@ -1,29 +1,42 @@
 package com.example.virtualclothingstore.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.example.virtualclothingstore.dto.FacetCountDTO;
 import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.dto.ProductFilterResultDTO;
 import com.example.virtualclothingstore.entity.Category;
 import com.example.virtualclothingstore.entity.Product;
 import com.example.virtualclothingstore.repository.ProductRepository;
 import com.example.virtualclothingstore.service.CategoryService;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 
 @Service
 public class ProductService {
 
+    // Suggestions feed a dropdown; more than this is never shown
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
+    private final ProductSnapshotService snapshotService;
+    private final CategoryTreeService categoryTreeService;
 
-    public ProductService(ProductRepository productRepository, CategoryService categoryService) {
+    public ProductService(ProductRepository productRepository, CategoryService categoryService,
+                          ProductSnapshotService snapshotService, CategoryTreeService categoryTreeService) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
+        this.snapshotService = snapshotService;
+        this.categoryTreeService = categoryTreeService;
     }
 
     public List<Product> getAllProducts() {
@@ -34,12 +47,27 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    // Writes go to the database first; the snapshot swap follows once the save has committed.
+    // The category tree's product counts move with the product's category.
+
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Long previousCategoryId = product.getId() == null ? null : currentCategoryId(product.getId());
+        Product saved = productRepository.save(product);
+        snapshotService.productSaved(saved);
+        categoryTreeService.productMoved(previousCategoryId,
+                saved.getCategory() != null ? saved.getCategory().getId() : null);
+        return saved;
     }
 
     public void deleteProduct(Long id) {
+        Long previousCategoryId = currentCategoryId(id);
         productRepository.deleteById(id);
+        snapshotService.productDeleted(id);
+        categoryTreeService.productMoved(previousCategoryId, null);
+    }
+
+    private Long currentCategoryId(Long productId) {
+        return snapshotService.current().get(productId).map(ProductSnapshot.Item::categoryId).orElse(null);
     }
 
     // DTO conversion methods
@@ -79,9 +107,7 @@ public class ProductService {
 
     private Category getOrCreateDefaultCategory() {
         // Try to find existing default category
-        Optional<Category> existingDefault = categoryService.getAllCategories().stream()
-                .filter(cat -> "General".equals(cat.getName()))
-                .findFirst();
+        Optional<Category> existingDefault = categoryService.getCategoryByName("General");
 
         if (existingDefault.isPresent()) {
             return existingDefault.get();
@@ -94,18 +120,85 @@ public class ProductService {
         return categoryService.saveCategory(defaultCategory);
     }
 
+    // DTO reads are served from the in-memory snapshot and never touch the database
+
     public List<ProductDTO> getAllProductDTOs() {
-        return getAllProducts().stream()
-                .map(this::toDTO)
+        return snapshotService.current().getAll().stream()
+                .map(ProductSnapshot.Item::toDTO)
                 .toList();
     }
 
     public Page<ProductDTO> getAllProductDTOs(Pageable pageable) {
-        Page<Product> products = productRepository.findAll(pageable);
-        return products.map(this::toDTO);
+        return snapshotService.current().page(pageable).map(ProductSnapshot.Item::toDTO);
     }
 
     public Optional<ProductDTO> getProductDTOById(Long id) {
-        return getProductById(id).map(this::toDTO);
+        return snapshotService.current().get(id).map(ProductSnapshot.Item::toDTO);
+    }
+
+    /** The product as held in the snapshot, with the versions its ETag is made of. */
+    public Optional<ProductSnapshot.Item> getProductItem(Long id) {
+        return snapshotService.current().get(id);
+    }
+
+    /** Full-text search over name, description and category name, best match first. */
+    public Page<ProductDTO> searchProductDTOs(String query, Pageable pageable) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        return snapshotService.current().search(query, pageable).map(ProductSnapshot.Item::toDTO);
+    }
+
+    /** Type-ahead completions of the last word of prefix among product name words, most common first. */
+    public List<String> suggestProductNames(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Suggestion limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return snapshotService.current().suggest(prefix, limit);
+    }
+
+    /**
+     * Products filtered by category, price band and stock, with live facet counts. Values of
+     * one facet are or-ed, facets are and-ed; null or empty parameters do not filter.
+     */
+    public ProductFilterResultDTO filterProductDTOs(List<Long> categoryIds, List<String> priceBands, Boolean inStock,
+                                                    Pageable pageable) {
+        if (priceBands != null) {
+            for (String band : priceBands) {
+                if (!ProductFacetIndex.isPriceBand(band)) {
+                    throw new BadRequestException("Unknown price band: " + band);
+                }
+            }
+        }
+        ProductSnapshot.FacetedPage result = snapshotService.current().filter(categoryIds, priceBands, inStock, pageable);
+        List<FacetCountDTO> categories = result.categoryCounts().entrySet().stream()
+                .map(e -> new FacetCountDTO(e.getKey().toString(), result.categoryNames().get(e.getKey()), e.getValue()))
+                .toList();
+        List<FacetCountDTO> bands = result.priceBandCounts().entrySet().stream()
+                .map(e -> new FacetCountDTO(e.getKey(), e.getKey(), e.getValue()))
+                .toList();
+        return new ProductFilterResultDTO(result.page().map(ProductSnapshot.Item::toDTO), categories, bands,
+                result.inStockCount(), result.outOfStockCount());
+    }
+
+    /** Products in the category and all its subcategories, in id order. */
+    public Page<ProductDTO> getProductDTOsInCategoryTree(Long categoryId, Pageable pageable) {
+        Set<Long> categoryIds = categoryTreeService.current().subtreeIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+        }
+        return snapshotService.current().inCategories(categoryIds, pageable).map(ProductSnapshot.Item::toDTO);
+    }
+
+    public List<ProductDTO> getProductDTOsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return snapshotService.current().getAll(ids).stream()
+                .map(ProductSnapshot.Item::toDTO)
+                .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.entity.Product;
+
+/**
+ * Immutable, read-optimized copy of the whole catalog: products sorted by id in a flat
+ * array plus an id to index map, and full-text, facet and type-ahead indexes over them. A snapshot is never
+ * modified; every change builds a new one (copy-on-write), so readers holding the old
+ * instance are never affected by writers.
+ */
+public final class ProductSnapshot {
+
+    /**
+     * One product as served to readers; immutable, unlike ProductDTO. The versions of the
+     * product and of its category, and the later of their update times, validate
+     * conditional reads without a query.
+     */
+    public record Item(Long id, String name, String description, BigDecimal price, Integer stockQuantity,
+                       Long categoryId, String categoryName, Long version, Long categoryVersion,
+                       Instant lastModified) {
+
+        public static Item of(Product product) {
+            Category category = product.getCategory();
+            return new Item(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getStockQuantity(), category != null ? category.getId() : null,
+                    category != null ? category.getName() : null, product.getVersion(),
+                    category != null ? category.getVersion() : null,
+                    later(product.getUpdatedAt(), category != null ? category.getUpdatedAt() : null));
+        }
+
+        // A fresh DTO per read, so callers cannot change what other readers see
+        public ProductDTO toDTO() {
+            return new ProductDTO(id, name, description, price, stockQuantity, categoryId, categoryName);
+        }
+    }
+
+    /** Stock of one product after a conditional UPDATE, with the version that UPDATE gave it. */
+    public record Stock(Integer quantity, Long version, Instant updatedAt) {}
+
+    /**
+     * One page of filtered products with the facet counts for the same filter; see
+     * {@link ProductFacetIndex.Result} for how the counts are taken.
+     */
+    public record FacetedPage(Page<Item> page, Map<Long, Long> categoryCounts, Map<Long, String> categoryNames,
+                              Map<String, Long> priceBandCounts, long inStockCount, long outOfStockCount) {}
+
+    private static final Comparator<Item> BY_ID = Comparator.comparing(Item::id);
+
+    // Re-index everything once the products changed since the last full build exceed
+    // REBUILD_PERCENT of the catalogue, but never for fewer than MIN_PENDING_BEFORE_REBUILD
+    private static final int REBUILD_PERCENT = 5;
+    private static final int MIN_PENDING_BEFORE_REBUILD = 1_000;
+
+    private final Item[] items;
+    private final Map<Long, Integer> indexById;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final Instant builtAt;
+
+    // indexById must match sortedItems; swaps that keep every product's position pass the old one on
+    private ProductSnapshot(Item[] sortedItems, Map<Long, Integer> indexById, ProductSearchIndex searchIndex,
+                            ProductFacetIndex facetIndex, ProductSuggestIndex suggestIndex, Instant builtAt) {
+        this.items = sortedItems;
+        this.indexById = indexById;
+        this.facetIndex = facetIndex;
+        this.suggestIndex = suggestIndex;
+        this.builtAt = builtAt;
+        this.searchIndex = searchIndex.pendingChanges() > Math.max(MIN_PENDING_BEFORE_REBUILD, sortedItems.length / 100 * REBUILD_PERCENT)
+                ? ProductSearchIndex.build(sortedItems)
+                : searchIndex;
+    }
+
+    private static Map<Long, Integer> positionsById(Item[] sortedItems) {
+        Map<Long, Integer> index = new HashMap<>(sortedItems.length * 4 / 3 + 1);
+        for (int i = 0; i < sortedItems.length; i++) {
+            index.put(sortedItems[i].id(), i);
+        }
+        return index;
+    }
+
+    public static ProductSnapshot of(Collection<Item> items) {
+        Item[] sorted = items.toArray(Item[]::new);
+        Arrays.sort(sorted, BY_ID);
+        return new ProductSnapshot(sorted, positionsById(sorted), ProductSearchIndex.build(sorted),
+                ProductFacetIndex.build(sorted), ProductSuggestIndex.build(sorted), Instant.now());
+    }
+
+    public static ProductSnapshot empty() {
+        Item[] none = new Item[0];
+        return new ProductSnapshot(none, Map.of(), ProductSearchIndex.build(none), ProductFacetIndex.build(none),
+                ProductSuggestIndex.build(none), Instant.now());
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public Optional<Item> get(Long id) {
+        Integer index = indexById.get(id);
+        return index != null ? Optional.of(items[index]) : Optional.empty();
+    }
+
+    /** The known products among ids, in the order asked for; unknown ids are skipped. */
+    public List<Item> getAll(Collection<Long> ids) {
+        List<Item> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            get(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    public List<Item> getAll() {
+        return List.of(items);
+    }
+
+    /** A page in id order; the pageable's sort is not applied. */
+    public Page<Item> page(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(getAll(), pageable, items.length);
+        }
+        int from = (int) Math.min(pageable.getOffset(), items.length);
+        int to = Math.min(from + pageable.getPageSize(), items.length);
+        return new PageImpl<>(List.of(Arrays.copyOfRange(items, from, to)), pageable, items.length);
+    }
+
+    /** Products matching any word of the query, best BM25 match first. */
+    public Page<Item> search(String query, Pageable pageable) {
+        ProductSearchIndex.Hits hits = searchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Item> found = new ArrayList<>(hits.ids().size());
+        for (Long id : hits.ids()) {
+            found.add(items[indexById.get(id)]);
+        }
+        return new PageImpl<>(found, pageable, hits.total());
+    }
+
+    /** Completions of the last word of prefix among product name words, most common first. */
+    public List<String> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit).stream().map(ProductSuggestIndex.Suggestion::text).toList();
+    }
+
+    /**
+     * Products in id order that are in any of the categories, in any of the price bands and,
+     * when inStock is set, in or out of stock; null or empty selections do not filter.
+     */
+    public FacetedPage filter(Collection<Long> categoryIds, Collection<String> priceBands, Boolean inStock,
+                              Pageable pageable) {
+        ProductFacetIndex.Result result = facetIndex.filter(categoryIds, priceBands, inStock,
+                pageable.getOffset(), pageable.getPageSize());
+        List<Item> found = new ArrayList<>(result.positions().size());
+        for (int position : result.positions()) {
+            found.add(items[position]);
+        }
+        // Every product of a category carries its name, so the first one will do
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Long categoryId : result.categoryCounts().keySet()) {
+            categoryNames.put(categoryId, items[facetIndex.firstPosition(categoryId)].categoryName());
+        }
+        return new FacetedPage(new PageImpl<>(found, pageable, result.total()), result.categoryCounts(),
+                categoryNames, result.priceBandCounts(), result.inStockCount(), result.outOfStockCount());
+    }
+
+    /** Products in any of the categories, in id order; a union of the facet bitmaps. */
+    public Page<Item> inCategories(Collection<Long> categoryIds, Pageable pageable) {
+        ProductFacetIndex.Matches matches = facetIndex.inCategories(categoryIds, pageable.getOffset(),
+                pageable.getPageSize());
+        List<Item> found = new ArrayList<>(matches.positions().size());
+        for (int position : matches.positions()) {
+            found.add(items[position]);
+        }
+        return new PageImpl<>(found, pageable, matches.total());
+    }
+
+    /**
+     * A new snapshot with the product added, or replaced when its id is already present. This
+     * one when the held product has a newer version: a save that commits before a later
+     * change but reaches the snapshot after it must not put the older row back.
+     */
+    public ProductSnapshot with(Item item) {
+        int position = Arrays.binarySearch(items, item, BY_ID);
+        if (position >= 0 && isOlder(item.version(), items[position].version())) {
+            return this;
+        }
+        Item[] copy;
+        Map<Long, Integer> index;
+        ProductFacetIndex facets;
+        Item before = position >= 0 ? items[position] : null;
+        if (position >= 0) {
+            copy = items.clone();
+            copy[position] = item;
+            index = indexById;
+            facets = facetIndex.replaced(position, items[position], item);
+        } else {
+            int insertAt = -position - 1;
+            copy = new Item[items.length + 1];
+            System.arraycopy(items, 0, copy, 0, insertAt);
+            copy[insertAt] = item;
+            System.arraycopy(items, insertAt, copy, insertAt + 1, items.length - insertAt);
+            index = positionsById(copy);
+            facets = ProductFacetIndex.build(copy);
+        }
+        return new ProductSnapshot(copy, index, searchIndex.with(item), facets, suggestIndex.replaced(before, item),
+                Instant.now());
+    }
+
+    /** A new snapshot without the product; this one when the id is unknown. */
+    public ProductSnapshot without(Long id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return this;
+        }
+        Item[] copy = new Item[items.length - 1];
+        System.arraycopy(items, 0, copy, 0, index);
+        System.arraycopy(items, index + 1, copy, index, items.length - index - 1);
+        return new ProductSnapshot(copy, positionsById(copy), searchIndex.without(id), ProductFacetIndex.build(copy),
+                suggestIndex.replaced(items[index], null), Instant.now());
+    }
+
+    /** A new snapshot with the given stock levels; unknown ids are skipped. */
+    public ProductSnapshot withStock(Map<Long, Stock> stockById) {
+        Item[] copy = null;
+        ProductFacetIndex facets = facetIndex;
+        for (Map.Entry<Long, Stock> entry : stockById.entrySet()) {
+            Integer index = indexById.get(entry.getKey());
+            Stock stock = entry.getValue();
+            if (index == null || isOlder(stock.version(), items[index].version())
+                    || (Objects.equals(items[index].stockQuantity(), stock.quantity())
+                    && Objects.equals(items[index].version(), stock.version()))) {
+                continue;
+            }
+            if (copy == null) {
+                copy = items.clone();
+            }
+            Item before = copy[index];
+            copy[index] = new Item(before.id(), before.name(), before.description(), before.price(), stock.quantity(),
+                    before.categoryId(), before.categoryName(), stock.version(), before.categoryVersion(),
+                    later(before.lastModified(), stock.updatedAt()));
+            facets = facets.replaced(index, before, copy[index]);
+        }
+        // Stock is not searchable, so the text indexes stay as they are
+        return copy == null ? this
+                : new ProductSnapshot(copy, indexById, searchIndex, facets, suggestIndex, Instant.now());
+    }
+
+    /** A new snapshot in which the category's products carry its new name and version. */
+    public ProductSnapshot withCategory(Category category) {
+        Long categoryId = category.getId();
+        Item[] copy = items.clone();
+        List<Item> reindexed = new ArrayList<>();
+        for (int i = 0; i < copy.length; i++) {
+            Item item = copy[i];
+            boolean renamed = !Objects.equals(category.getName(), item.categoryName());
+            if (categoryId.equals(item.categoryId())
+                    && (renamed || !Objects.equals(category.getVersion(), item.categoryVersion()))) {
+                copy[i] = new Item(item.id(), item.name(), item.description(), item.price(), item.stockQuantity(),
+                        categoryId, category.getName(), item.version(), category.getVersion(),
+                        later(item.lastModified(), category.getUpdatedAt()));
+                if (renamed) {
+                    reindexed.add(copy[i]);
+                }
+            }
+        }
+        // Facets are keyed by category id, so a rename leaves them as they are
+        return new ProductSnapshot(copy, indexById, searchIndex.with(reindexed), facetIndex, suggestIndex,
+                Instant.now());
+    }
+
+    /** True when both versions are known and the first is behind the second. */
+    static boolean isOlder(Long version, Long than) {
+        return version != null && than != null && version < than;
+    }
+
+    // Null when both are unknown
+    private static Instant later(Instant a, Instant b) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.virtualclothingstore.dto.SnapshotConsistencyDTO;
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Holds the current {@link ProductSnapshot} that product reads are served from. The snapshot
+ * is loaded once the context has started and replaced in a single volatile write whenever
+ * this instance changes a product or category, so readers never wait for writers. Changes
+ * are applied after they are saved; a periodic reload picks up writes made by other instances.
+ */
+@Service
+public class ProductSnapshotService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSnapshotService.class);
+
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private final Timer loadTimer;
+    private volatile ProductSnapshot snapshot = ProductSnapshot.empty();
+    // Products whose stock changed through reservations, waiting for the next stock refresh
+    private final Set<Long> stockChanged = ConcurrentHashMap.newKeySet();
+
+    public ProductSnapshotService(ProductRepository productRepository, CatalogVersion catalogVersion,
+                                  MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+        this.loadTimer = Timer.builder("catalog.snapshot.load")
+                .description("Time taken to load the product snapshot from the database")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", this, service -> service.current().size())
+                .description("Products in the current snapshot")
+                .register(meterRegistry);
+    }
+
+    public ProductSnapshot current() {
+        return snapshot;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /** Rebuilds the snapshot from the database. Writers wait for it, readers keep the old one meanwhile. */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.refresh-interval:PT5M}",
+               initialDelayString = "${catalog.snapshot.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        List<ProductSnapshot.Item> items = productRepository.findAllWithCategory().stream()
+                .map(ProductSnapshot.Item::of)
+                .toList();
+        swap(ProductSnapshot.of(items));
+        long elapsed = System.nanoTime() - start;
+        loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Loaded product snapshot with {} products in {} ms", items.size(), elapsed / 1_000_000);
+    }
+
+    /**
+     * Applies a saved product. The save commits outside this lock, so a stock refresh may have
+     * applied a later version first, on top of the fields this save replaced. The snapshot
+     * keeps that later version, and the row is read again so it also carries this save's fields.
+     */
+    public synchronized void productSaved(Product product) {
+        ProductSnapshot.Item saved = ProductSnapshot.Item.of(product);
+        ProductSnapshot.Item held = snapshot.get(saved.id()).orElse(null);
+        if (held != null && ProductSnapshot.isOlder(saved.version(), held.version())) {
+            for (Product current : productRepository.findByIdIn(List.of(saved.id()))) {
+                swap(snapshot.with(ProductSnapshot.Item.of(current)));
+            }
+            return;
+        }
+        swap(snapshot.with(saved));
+    }
+
+    public synchronized void productDeleted(Long id) {
+        swap(snapshot.without(id));
+    }
+
+    /**
+     * Marks products whose stock was changed by a conditional UPDATE. Many reservations on a
+     * hot product fold into one refresh instead of one snapshot copy each.
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        stockChanged.addAll(productIds);
+    }
+
+    /**
+     * Reads the current stock of the marked products and applies it in one snapshot swap.
+     * Runs under the writer lock so a full reload cannot be overtaken by older stock values.
+     */
+    @Scheduled(fixedDelayString = "${catalog.snapshot.stock-refresh-interval:PT1S}")
+    public synchronized void refreshStock() {
+        if (stockChanged.isEmpty()) {
+            return;
+        }
+        // Ids marked again while this runs stay for the next round
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = stockChanged.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        Map<Long, ProductSnapshot.Stock> stock = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (Object[] row : productRepository.findStockByIdIn(ids)) {
+            stock.put((Long) row[0], new ProductSnapshot.Stock((Integer) row[1], (Long) row[2], (Instant) row[3]));
+        }
+        swap(snapshot.withStock(stock));
+    }
+
+    public synchronized void categorySaved(Category category) {
+        swap(snapshot.withCategory(category));
+    }
+
+    // The catalog version moves only once the new snapshot is visible
+    private void swap(ProductSnapshot next) {
+        if (next != snapshot) {
+            snapshot = next;
+            catalogVersion.changed();
+        }
+    }
+
+    /** Compares every product in the database with the snapshot; reads the whole products table. */
+    public SnapshotConsistencyDTO checkConsistency() {
+        ProductSnapshot current = snapshot;
+        Map<Long, ProductSnapshot.Item> database = productRepository.findAllWithCategory().stream()
+                .map(ProductSnapshot.Item::of)
+                .collect(Collectors.toMap(ProductSnapshot.Item::id, Function.identity()));
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        for (ProductSnapshot.Item stored : database.values()) {
+            ProductSnapshot.Item cached = current.get(stored.id()).orElse(null);
+            if (cached == null) {
+                missing.add(stored.id());
+            } else if (!sameValues(cached, stored)) {
+                stale.add(stored.id());
+            }
+        }
+        List<Long> extra = current.getAll().stream()
+                .map(ProductSnapshot.Item::id)
+                .filter(id -> !database.containsKey(id))
+                .toList();
+        missing.sort(null);
+        stale.sort(null);
+        return new SnapshotConsistencyDTO(current.getBuiltAt(), current.size(), database.size(), missing, extra, stale);
+    }
+
+    // Prices compare by value so 19.9 and 19.90 count as equal; a version mismatch means a stale ETag
+    private static boolean sameValues(ProductSnapshot.Item a, ProductSnapshot.Item b) {
+        return Objects.equals(a.version(), b.version())
+                && Objects.equals(a.categoryVersion(), b.categoryVersion())
+                && Objects.equals(a.name(), b.name())
+                && Objects.equals(a.description(), b.description())
+                && (a.price() == null ? b.price() == null : b.price() != null && a.price().compareTo(b.price()) == 0)
+                && Objects.equals(a.stockQuantity(), b.stockQuantity())
+                && Objects.equals(a.categoryId(), b.categoryId())
+                && Objects.equals(a.categoryName(), b.categoryName());
+    }
+}
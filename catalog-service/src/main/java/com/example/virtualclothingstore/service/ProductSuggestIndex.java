@@ -0,0 +1,187 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable type-ahead index over the words of product names, kept inside each
+ * {@link ProductSnapshot}. Two parallel arrays hold every distinct lower-cased name word in
+ * sorted order and the number of products whose name contains it. A prefix is a contiguous
+ * range of the sorted array, found by binary search, and its most common words are returned
+ * first.
+ *
+ * Memory grows with the vocabulary of product names, not with the number of products.
+ * A product change adjusts the counts of the words its name lost or gained. When those words
+ * are all known and none drops to zero, only the counts are copied and the sorted words are
+ * shared with the previous index; a word that appears or disappears rebuilds both arrays.
+ */
+final class ProductSuggestIndex {
+
+    record Suggestion(String text, int count) {}
+
+    private static final ProductSuggestIndex EMPTY = new ProductSuggestIndex(new String[0], new int[0]);
+
+    private final String[] terms;
+    private final int[] counts;
+
+    private ProductSuggestIndex(String[] terms, int[] counts) {
+        this.terms = terms;
+        this.counts = counts;
+    }
+
+    static ProductSuggestIndex build(ProductSnapshot.Item[] items) {
+        Map<String, Integer> vocabulary = new TreeMap<>();
+        for (ProductSnapshot.Item item : items) {
+            for (String term : words(item.name())) {
+                vocabulary.merge(term, 1, Integer::sum);
+            }
+        }
+        if (vocabulary.isEmpty()) {
+            return EMPTY;
+        }
+        String[] terms = vocabulary.keySet().toArray(String[]::new);
+        int[] counts = vocabulary.values().stream().mapToInt(Integer::intValue).toArray();
+        return new ProductSuggestIndex(terms, counts);
+    }
+
+    int size() {
+        return terms.length;
+    }
+
+    /** A new index in which a product's name changed from before to after; either may be null. */
+    ProductSuggestIndex replaced(ProductSnapshot.Item before, ProductSnapshot.Item after) {
+        Set<String> removed = words(before != null ? before.name() : null);
+        Set<String> added = words(after != null ? after.name() : null);
+        Set<String> unchanged = new LinkedHashSet<>(removed);
+        unchanged.retainAll(added);
+        removed.removeAll(unchanged);
+        added.removeAll(unchanged);
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+
+        Map<String, Integer> delta = new TreeMap<>();
+        removed.forEach(term -> delta.merge(term, -1, Integer::sum));
+        added.forEach(term -> delta.merge(term, 1, Integer::sum));
+
+        // Every word is already known and none disappears: only the counts change
+        int[] ordinals = new int[delta.size()];
+        int changed = 0;
+        for (Map.Entry<String, Integer> change : delta.entrySet()) {
+            int ordinal = Arrays.binarySearch(terms, change.getKey());
+            if (ordinal < 0 || counts[ordinal] + change.getValue() <= 0) {
+                break;
+            }
+            ordinals[changed++] = ordinal;
+        }
+        if (changed == ordinals.length) {
+            int[] newCounts = counts.clone();
+            int k = 0;
+            for (int change : delta.values()) {
+                newCounts[ordinals[k++]] += change;
+            }
+            return new ProductSuggestIndex(terms, newCounts);
+        }
+
+        // Merge the sorted changes into the sorted arrays in one pass
+        List<String> newTerms = new ArrayList<>(terms.length + added.size());
+        int[] newCounts = new int[terms.length + added.size()];
+        int n = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> change : delta.entrySet()) {
+            while (i < terms.length && terms[i].compareTo(change.getKey()) < 0) {
+                newTerms.add(terms[i]);
+                newCounts[n++] = counts[i++];
+            }
+            int count = change.getValue();
+            if (i < terms.length && terms[i].equals(change.getKey())) {
+                count += counts[i++];
+            }
+            if (count > 0) {
+                newTerms.add(change.getKey());
+                newCounts[n++] = count;
+            }
+        }
+        while (i < terms.length) {
+            newTerms.add(terms[i]);
+            newCounts[n++] = counts[i++];
+        }
+        return new ProductSuggestIndex(newTerms.toArray(String[]::new), Arrays.copyOf(newCounts, n));
+    }
+
+    /**
+     * Completions of the last word of the prefix, most common first. Earlier words of the
+     * prefix are kept in front of each completion; a prefix ending in a space completes
+     * nothing.
+     */
+    List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT).stripLeading();
+        int lastWord = normalized.length();
+        while (lastWord > 0 && Character.isLetterOrDigit(normalized.charAt(lastWord - 1))) {
+            lastWord--;
+        }
+        String stem = normalized.substring(lastWord);
+        if (stem.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String lead = normalized.substring(0, lastWord);
+
+        int from = lowerBound(stem);
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(stem)) {
+            to++;
+        }
+
+        // Keep the best limit ordinals (most products, then alphabetical); the head is the worst kept
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> counts[a] != counts[b]
+                ? Integer.compare(counts[a], counts[b])
+                : Integer.compare(b, a));
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            best.add(ordinal);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        Suggestion[] ranked = new Suggestion[best.size()];
+        for (int k = ranked.length - 1; k >= 0; k--) {
+            int ordinal = best.poll();
+            ranked[k] = new Suggestion(lead + terms[ordinal], counts[ordinal]);
+        }
+        return List.of(ranked);
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** The distinct lower-cased words of a name; unlike search, no stop words or stemming. */
+    static Set<String> words(String name) {
+        Set<String> words = new LinkedHashSet<>();
+        if (name == null) {
+            return words;
+        }
+        for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
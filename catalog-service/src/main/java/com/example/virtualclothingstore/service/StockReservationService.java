@@ -0,0 +1,157 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.virtualclothingstore.dto.ReservationDTO;
+import com.example.virtualclothingstore.dto.ReservationItemDTO;
+import com.example.virtualclothingstore.entity.ReservationStatus;
+import com.example.virtualclothingstore.entity.StockReservation;
+import com.example.virtualclothingstore.entity.StockReservationItem;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.repository.ProductRepository;
+import com.example.virtualclothingstore.repository.StockReservationRepository;
+
+/**
+ * Holds stock for a checkout until it is committed, released or expires. Stock is taken
+ * with one conditional UPDATE per product, so concurrent checkouts can never oversell, and
+ * all products of a reservation are taken in one transaction, so it gets every item or
+ * none. Products are always decremented in id order, so two reservations sharing products
+ * cannot deadlock.
+ */
+@Service
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final ProductSnapshotService snapshotService;
+    private final Duration ttl;
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   ProductRepository productRepository,
+                                   ProductSnapshotService snapshotService,
+                                   @Value("${catalog.reservations.ttl:PT15M}") Duration ttl) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.snapshotService = snapshotService;
+        this.ttl = ttl;
+    }
+
+    @Transactional
+    public StockReservation reserve(List<ReservationItemDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("At least one item is required");
+        }
+        // Same product twice is one line; the sorted map also fixes the lock order
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ReservationItemDTO item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new BadRequestException("Every item needs a product id and a quantity of at least 1");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        // Insert first, so the product row locks taken below are held only until commit
+        StockReservation reservation = new StockReservation(LocalDateTime.now().plus(ttl));
+        quantities.forEach(reservation::addItem);
+        StockReservation saved = reservationRepository.saveAndFlush(reservation);
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            if (productRepository.reserveStock(line.getKey(), line.getValue()) == 0) {
+                // rolls back the reservation and the lines already taken
+                throw new ConflictException("Product " + line.getKey() + " does not exist or has fewer than "
+                        + line.getValue() + " in stock");
+            }
+        }
+        refreshStockAfterCommit(quantities.keySet());
+        return saved;
+    }
+
+    /** Makes the reservation final; the stock stays taken. */
+    @Transactional
+    public StockReservation commit(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        if (reservationRepository.updateStatusIfNotExpired(id, ReservationStatus.RESERVED,
+                ReservationStatus.COMMITTED, now) == 0) {
+            StockReservation current = getReservation(id);
+            if (current.getStatus() == ReservationStatus.RESERVED) {
+                throw new ConflictException("Reservation " + id + " expired at " + current.getExpiresAt());
+            }
+            throw new ConflictException("Reservation " + id + " is already " + current.getStatus());
+        }
+        StockReservation committed = getReservation(id);
+        committed.setStatus(ReservationStatus.COMMITTED);
+        return committed;
+    }
+
+    /** Puts the reserved stock back. */
+    @Transactional
+    public StockReservation release(Long id) {
+        if (!returnStock(id, ReservationStatus.RELEASED)) {
+            throw new ConflictException("Reservation " + id + " is already " + getReservation(id).getStatus());
+        }
+        StockReservation released = getReservation(id);
+        released.setStatus(ReservationStatus.RELEASED);
+        return released;
+    }
+
+    /** Puts the stock of an abandoned reservation back; false when it was settled meanwhile. */
+    @Transactional
+    public boolean expire(Long id) {
+        return returnStock(id, ReservationStatus.EXPIRED);
+    }
+
+    private boolean returnStock(Long id, ReservationStatus status) {
+        if (reservationRepository.updateStatus(id, ReservationStatus.RESERVED, status) == 0) {
+            return false;
+        }
+        List<StockReservationItem> items = getReservation(id).getItems().stream()
+                .sorted(Comparator.comparing(StockReservationItem::getProductId))
+                .toList();
+        // a product deleted meanwhile simply matches no row
+        items.forEach(item -> productRepository.restoreStock(item.getProductId(), item.getQuantity()));
+        refreshStockAfterCommit(items.stream().map(StockReservationItem::getProductId).toList());
+        return true;
+    }
+
+    public StockReservation getReservation(Long id) {
+        return reservationRepository.findWithItemsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + id));
+    }
+
+    // The snapshot must not pick up stock a rollback is about to undo
+    private void refreshStockAfterCommit(Collection<Long> productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshotService.stockChanged(productIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshotService.stockChanged(productIds);
+            }
+        });
+    }
+
+    // DTO conversion methods
+    public ReservationDTO toDTO(StockReservation reservation) {
+        List<ReservationItemDTO> items = reservation.getItems().stream()
+                .map(item -> new ReservationItemDTO(item.getProductId(), item.getQuantity()))
+                .toList();
+        return new ReservationDTO(reservation.getId(), reservation.getStatus().name(), reservation.getCreatedAt(),
+                reservation.getExpiresAt(), items);
+    }
+}
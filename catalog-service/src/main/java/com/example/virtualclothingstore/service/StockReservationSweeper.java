@@ -0,0 +1,67 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.virtualclothingstore.entity.ReservationStatus;
+import com.example.virtualclothingstore.repository.StockReservationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Returns the stock of reservations nobody committed or released before they expired.
+ * Each reservation is expired in its own transaction, so one failure does not hold back
+ * the rest and no product row stays locked for the whole sweep.
+ */
+@Component
+public class StockReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationSweeper.class);
+
+    private final StockReservationRepository reservationRepository;
+    private final StockReservationService reservationService;
+    private final int batchSize;
+    private final Counter expiredCounter;
+
+    public StockReservationSweeper(StockReservationRepository reservationRepository,
+                                   StockReservationService reservationService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${catalog.reservations.sweep-batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+        this.batchSize = batchSize;
+        this.expiredCounter = Counter.builder("catalog.reservations.expired")
+                .description("Abandoned stock reservations whose stock was returned")
+                .register(meterRegistry);
+    }
+
+    /** Expires up to one batch of overdue reservations; returns how many it expired. */
+    @Scheduled(fixedDelayString = "${catalog.reservations.sweep-interval:PT30S}")
+    public int sweep() {
+        List<Long> overdue = reservationRepository.findExpiredIds(ReservationStatus.RESERVED,
+                LocalDateTime.now(), PageRequest.of(0, batchSize));
+        int expired = 0;
+        for (Long id : overdue) {
+            try {
+                if (reservationService.expire(id)) {
+                    expired++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not expire stock reservation {}", id, e);
+            }
+        }
+        if (expired > 0) {
+            expiredCounter.increment(expired);
+            logger.info("Expired {} abandoned stock reservations", expired);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,13 @@
+-- One-off PostgreSQL migration adding the version and last-modified columns to products and
+-- categories. Run it once, before starting a build with Product.version and Category.version, e.g.:
+--   psql -h localhost -U postgres -d clothingstore -f catalog-version-migration.sql
+--
+-- Existing rows start at version 0. Without the default, Hibernate's schema update would
+-- add a NULL column, and rows with a NULL version cannot be updated optimistically.
+-- updated_at stays NULL until a row is next written; such rows are served without Last-Modified.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) WITH TIME ZONE;
+
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,104 @@
+package com.example.virtualclothingstore.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.repository.CategoryRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Every repository call commits on its own so cache puts and invalidations happen as in production
+@DataJpaTest(properties = {
+        "jpa.second-level-cache.regions.categories.max-entries=100",
+        "jpa.second-level-cache.regions.default-query-results-region.max-entries=10",
+        "jpa.second-level-cache.regions.default-update-timestamps-region.max-entries=10",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("SecondLevelCacheConfig Tests")
+class SecondLevelCacheConfigTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        categoryRepository.deleteAll();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("a category read twice is loaded from the database only once")
+    void findById_hitsCache() {
+        // Arrange
+        Long id = categoryRepository.save(new Category("Shirts", "Tops")).getId();
+
+        // Act
+        categoryRepository.findById(id);
+        categoryRepository.findById(id);
+
+        // Assert: identity inserts are not cached, so the first read loads and caches the row
+        assertEquals(1, statistics.getDomainDataRegionStatistics("categories").getHitCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("findAll is served from the query cache until categories change")
+    void findAll_queryCacheInvalidatedOnWrite() {
+        // Arrange
+        categoryRepository.save(new Category("Shirts", "Tops"));
+        categoryRepository.findAll();
+
+        // Act
+        int cached = categoryRepository.findAll().size();
+        categoryRepository.save(new Category("Shoes", "Footwear"));
+        int afterWrite = categoryRepository.findAll().size();
+
+        // Assert
+        assertEquals(1, cached);
+        assertEquals(2, afterWrite);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getQueryCacheMissCount());
+    }
+
+    @Test
+    @DisplayName("findAllFromDatabase sees a rename the caches do not know about")
+    void findAllFromDatabase_bypassesCaches() {
+        // Arrange: a write by another instance reaches the table but not this instance's caches
+        Long id = categoryRepository.save(new Category("Shirts", "Tops")).getId();
+        categoryRepository.findAll();
+        jdbcTemplate.update("UPDATE categories SET name = 'Tees' WHERE id = ?", id);
+
+        // Act
+        String cached = categoryRepository.findAll().get(0).getName();
+        String stored = categoryRepository.findAllFromDatabase().get(0).getName();
+
+        // Assert
+        assertEquals("Shirts", cached);
+        assertEquals("Tees", stored);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.virtualclothingstore.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -15,13 +18,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 
 import com.example.virtualclothingstore.dto.CategoryDTO;
+import com.example.virtualclothingstore.dto.CategoryTreeNodeDTO;
+import com.example.virtualclothingstore.dto.ProductDTO;
 import com.example.virtualclothingstore.entity.Category;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.CatalogVersion;
 import com.example.virtualclothingstore.service.CategoryService;
+import com.example.virtualclothingstore.service.CategoryTree;
+import com.example.virtualclothingstore.service.ProductService;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("CategoryController Unit Tests")
@@ -30,6 +42,12 @@ class CategoryControllerUnitTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private ProductService productService;
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private CategoryController controller;
 
@@ -51,26 +69,72 @@ class CategoryControllerUnitTest {
     void getAllCategories_returnsList() {
         when(categoryService.getAllCategoryDTOs()).thenReturn(List.of(sampleDto));
 
-        List<CategoryDTO> result = controller.getAllCategories();
-        assertEquals(1, result.size());
-        assertEquals(sampleDto, result.get(0));
+        ResponseEntity<List<CategoryDTO>> resp = controller.getAllCategories(null);
+        assertEquals(1, resp.getBody().size());
+        assertEquals(sampleDto, resp.getBody().get(0));
+        assertEquals(catalogVersion.eTag(), resp.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("getAllCategories answers the current catalog ETag with 304 and no body")
+    void getAllCategories_notModified() {
+        ResponseEntity<List<CategoryDTO>> resp = controller.getAllCategories(catalogVersion.eTag());
+
+        assertEquals(304, resp.getStatusCode().value());
+        assertNull(resp.getBody());
+        verify(categoryService, never()).getAllCategoryDTOs();
+    }
+
+    @Test
+    @DisplayName("getCategoryTree returns the nested tree")
+    void getCategoryTree_delegates() {
+        List<CategoryTreeNodeDTO> tree = List.of(new CategoryTreeNodeDTO(1L, "Foo", null, "/1/", 2, 5, List.of()));
+        when(categoryService.getCategoryTree()).thenReturn(tree);
+
+        assertEquals(tree, controller.getCategoryTree(null).getBody());
     }
 
     @Test
-    @DisplayName("getCategoryById returns found entity")
+    @DisplayName("getProductsInCategoryTree passes category and page to the product service")
+    void getProductsInCategoryTree_delegates() {
+        Page<ProductDTO> page = new PageImpl<>(List.of(new ProductDTO()));
+        when(productService.getProductDTOsInCategoryTree(1L, PageRequest.of(1, 5))).thenReturn(page);
+
+        assertEquals(page, controller.getProductsInCategoryTree(1L, 1, 5, null).getBody());
+    }
+
+    @Test
+    @DisplayName("getCategoryById returns found entity with ETag and Last-Modified")
     void getCategoryById_found() {
-        when(categoryService.getCategoryDTOById(1L)).thenReturn(Optional.of(sampleDto));
+        CategoryTree.Node node = new CategoryTree.Node(1L, "Foo", null, null, "/1/", 4L,
+                Instant.parse("2024-01-01T00:00:00Z"), List.of());
+        when(categoryService.getCategoryNode(1L)).thenReturn(Optional.of(node));
+        when(categoryService.toDTO(node)).thenReturn(sampleDto);
 
-        ResponseEntity<CategoryDTO> resp = controller.getCategoryById(1L);
+        ResponseEntity<CategoryDTO> resp = controller.getCategoryById(1L, null);
         assertEquals(200, resp.getStatusCodeValue());
         assertEquals(sampleDto, resp.getBody());
+        assertEquals("\"4\"", resp.getHeaders().getETag());
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli(), resp.getHeaders().getLastModified());
+    }
+
+    @Test
+    @DisplayName("getCategoryById answers a matching If-None-Match with 304")
+    void getCategoryById_notModified() {
+        CategoryTree.Node node = new CategoryTree.Node(1L, "Foo", null, null, "/1/", 4L, null, List.of());
+        when(categoryService.getCategoryNode(1L)).thenReturn(Optional.of(node));
+
+        ResponseEntity<CategoryDTO> resp = controller.getCategoryById(1L, "\"4\"");
+        assertEquals(304, resp.getStatusCode().value());
+        assertNull(resp.getBody());
+        verify(categoryService, never()).toDTO(node);
     }
 
     @Test
     @DisplayName("getCategoryById throws when missing")
     void getCategoryById_missing() {
-        when(categoryService.getCategoryDTOById(2L)).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> controller.getCategoryById(2L));
+        when(categoryService.getCategoryNode(2L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> controller.getCategoryById(2L, null));
     }
 
     @Test
@@ -89,6 +153,7 @@ class CategoryControllerUnitTest {
     @Test
     @DisplayName("updateCategory when exists updates")
     void updateCategory_whenExists() {
+        sampleEntity.setVersion(2L);
         when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(sampleEntity));
         Category converted = new Category();
         when(categoryService.fromDTO(sampleDto)).thenReturn(converted);
@@ -98,6 +163,7 @@ class CategoryControllerUnitTest {
         ResponseEntity<CategoryDTO> resp = controller.updateCategory(1L, sampleDto);
         assertEquals(200, resp.getStatusCodeValue());
         assertEquals(sampleDto, resp.getBody());
+        assertEquals(2L, converted.getVersion());
     }
 
     @Test
@@ -1,10 +1,16 @@
 package com.example.virtualclothingstore.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 import java.util.Optional;
@@ -15,16 +21,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.dto.ProductFilterResultDTO;
+import com.example.virtualclothingstore.dto.SnapshotConsistencyDTO;
 import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.GlobalExceptionHandler;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.CatalogVersion;
 import com.example.virtualclothingstore.service.ProductService;
+import com.example.virtualclothingstore.service.ProductSnapshot;
+import com.example.virtualclothingstore.service.ProductSnapshotService;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ProductController Unit Tests")
@@ -33,11 +48,18 @@ class ProductControllerUnitTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductSnapshotService snapshotService;
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
     @InjectMocks
     private ProductController controller;
 
     private ProductDTO sampleDto;
     private Product sampleEntity;
+    private ProductSnapshot.Item sampleItem;
 
     @BeforeEach
     void setUp() {
@@ -47,6 +69,8 @@ class ProductControllerUnitTest {
         sampleEntity = new Product();
         sampleEntity.setId(1L);
         sampleEntity.setName("Widget");
+        sampleItem = new ProductSnapshot.Item(1L, "Widget", null, BigDecimal.TEN, 3, 4L, "Tools", 2L, 5L,
+                Instant.parse("2024-01-01T00:00:00Z"));
     }
 
     @Test
@@ -55,27 +79,65 @@ class ProductControllerUnitTest {
         Page<ProductDTO> page = new PageImpl<>(List.of(sampleDto));
         when(productService.getAllProductDTOs(any(Pageable.class))).thenReturn(page);
 
-        Page<ProductDTO> result = controller.getAllProducts(0, 10);
+        ResponseEntity<Page<ProductDTO>> resp = controller.getAllProducts(0, 10, null);
+        Page<ProductDTO> result = resp.getBody();
         assertEquals(1, result.getTotalElements());
         assertEquals(sampleDto, result.getContent().get(0));
+        assertEquals(catalogVersion.eTag(), resp.getHeaders().getETag());
         verify(productService).getAllProductDTOs(any(Pageable.class));
     }
 
     @Test
-    @DisplayName("getProductById found returns DTO")
+    @DisplayName("getAllProducts answers the current catalog ETag with 304 and no body")
+    void getAllProducts_notModified() {
+        ResponseEntity<Page<ProductDTO>> resp = controller.getAllProducts(0, 10, catalogVersion.eTag());
+
+        assertEquals(304, resp.getStatusCode().value());
+        assertNull(resp.getBody());
+        verify(productService, never()).getAllProductDTOs(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("getAllProducts sends the page again once the catalog changed")
+    void getAllProducts_changedCatalog() {
+        String old = catalogVersion.eTag();
+        catalogVersion.changed();
+        when(productService.getAllProductDTOs(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(sampleDto)));
+
+        ResponseEntity<Page<ProductDTO>> resp = controller.getAllProducts(0, 10, old);
+
+        assertEquals(200, resp.getStatusCode().value());
+        assertNotEquals(old, resp.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("getProductById found returns DTO with ETag and Last-Modified")
     void getProductById_found() {
-        when(productService.getProductDTOById(1L)).thenReturn(Optional.of(sampleDto));
+        when(productService.getProductItem(1L)).thenReturn(Optional.of(sampleItem));
 
-        ResponseEntity<ProductDTO> resp = controller.getProductById(1L);
+        ResponseEntity<ProductDTO> resp = controller.getProductById(1L, null);
         assertEquals(200, resp.getStatusCodeValue());
-        assertEquals(sampleDto, resp.getBody());
+        assertEquals("Widget", resp.getBody().getName());
+        assertEquals("\"2.5\"", resp.getHeaders().getETag());
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli(), resp.getHeaders().getLastModified());
+    }
+
+    @Test
+    @DisplayName("getProductById answers a matching If-None-Match with 304")
+    void getProductById_notModified() {
+        when(productService.getProductItem(1L)).thenReturn(Optional.of(sampleItem));
+
+        ResponseEntity<ProductDTO> resp = controller.getProductById(1L, "\"1.5\", W/\"2.5\"");
+        assertEquals(304, resp.getStatusCode().value());
+        assertNull(resp.getBody());
+        assertEquals("\"2.5\"", resp.getHeaders().getETag());
     }
 
     @Test
     @DisplayName("getProductById missing throws")
     void getProductById_missing() {
-        when(productService.getProductDTOById(2L)).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> controller.getProductById(2L));
+        when(productService.getProductItem(2L)).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> controller.getProductById(2L, null));
     }
 
     @Test
@@ -94,8 +156,10 @@ class ProductControllerUnitTest {
     @Test
     @DisplayName("updateProduct when exists updates")
     void updateProduct_whenExists() {
+        sampleEntity.setVersion(3L);
         when(productService.getProductById(1L)).thenReturn(Optional.of(sampleEntity));
-        when(productService.fromDTO(sampleDto)).thenReturn(new Product());
+        Product mapped = new Product();
+        when(productService.fromDTO(sampleDto)).thenReturn(mapped);
         Product updated = new Product();
         updated.setId(1L);
         when(productService.saveProduct(any(Product.class))).thenReturn(updated);
@@ -104,6 +168,22 @@ class ProductControllerUnitTest {
         ResponseEntity<ProductDTO> resp = controller.updateProduct(1L, sampleDto);
         assertEquals(200, resp.getStatusCodeValue());
         assertEquals(sampleDto, resp.getBody());
+        assertEquals(3L, mapped.getVersion());
+    }
+
+    @Test
+    @DisplayName("updateProduct racing a stock reservation answers 409, not 500")
+    void updateProduct_racesReservation_conflict() {
+        sampleEntity.setVersion(3L);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(sampleEntity));
+        when(productService.fromDTO(sampleDto)).thenReturn(new Product());
+        // reserveStock moved the row to version 4 between the read and the save
+        when(productService.saveProduct(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        ObjectOptimisticLockingFailureException ex = assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> controller.updateProduct(1L, sampleDto));
+        assertEquals(409, new GlobalExceptionHandler().handleOptimisticLock(ex).getStatusCodeValue());
     }
 
     @Test
@@ -128,4 +208,57 @@ class ProductControllerUnitTest {
         ResponseEntity<Void> resp = controller.deleteProduct(1L);
         assertEquals(204, resp.getStatusCodeValue());
     }
+
+    @Test
+    @DisplayName("getProductsByIds delegates batch lookup")
+    void getProductsByIds_delegates() {
+        when(productService.getProductDTOsByIds(List.of(1L, 2L))).thenReturn(List.of(sampleDto));
+
+        List<ProductDTO> result = controller.getProductsByIds(List.of(1L, 2L), null).getBody();
+        assertEquals(1, result.size());
+        assertEquals(sampleDto, result.get(0));
+        verify(productService).getProductDTOsByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("searchProducts passes query and page to the service")
+    void searchProducts_delegates() {
+        Page<ProductDTO> page = new PageImpl<>(List.of(sampleDto));
+        when(productService.searchProductDTOs("widget", PageRequest.of(2, 5))).thenReturn(page);
+
+        Page<ProductDTO> result = controller.searchProducts("widget", 2, 5, null).getBody();
+        assertEquals(page, result);
+    }
+
+    @Test
+    @DisplayName("suggestProducts passes prefix and limit to the service")
+    void suggestProducts_delegates() {
+        when(productService.suggestProductNames("sh", 5)).thenReturn(List.of("shirt", "shorts"));
+
+        assertEquals(List.of("shirt", "shorts"), controller.suggestProducts("sh", 5, null).getBody());
+    }
+
+    @Test
+    @DisplayName("filterProducts passes filters and page to the service")
+    void filterProducts_delegates() {
+        ProductFilterResultDTO filtered = new ProductFilterResultDTO(new PageImpl<>(List.of(sampleDto)),
+                List.of(), List.of(), 1, 0);
+        when(productService.filterProductDTOs(List.of(1L), List.of("25-50"), true, PageRequest.of(0, 20)))
+                .thenReturn(filtered);
+
+        ProductFilterResultDTO result = controller.filterProducts(List.of(1L), List.of("25-50"), true, 0, 20, null)
+                .getBody();
+        assertEquals(filtered, result);
+    }
+
+    @Test
+    @DisplayName("checkSnapshotConsistency returns the snapshot report")
+    void checkSnapshotConsistency_delegates() {
+        SnapshotConsistencyDTO report = new SnapshotConsistencyDTO(Instant.now(), 1, 1, List.of(), List.of(), List.of());
+        when(snapshotService.checkConsistency()).thenReturn(report);
+
+        SnapshotConsistencyDTO result = controller.checkSnapshotConsistency();
+        assertTrue(result.isConsistent());
+        assertEquals(report, result);
+    }
 }
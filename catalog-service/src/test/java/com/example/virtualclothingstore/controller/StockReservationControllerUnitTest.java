@@ -0,0 +1,60 @@
+package com.example.virtualclothingstore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.example.virtualclothingstore.dto.ReservationDTO;
+import com.example.virtualclothingstore.dto.ReservationItemDTO;
+import com.example.virtualclothingstore.entity.StockReservation;
+import com.example.virtualclothingstore.service.StockReservationService;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationController Unit Tests")
+class StockReservationControllerUnitTest {
+
+    @Mock
+    private StockReservationService reservationService;
+
+    @InjectMocks
+    private StockReservationController controller;
+
+    private final StockReservation reservation = new StockReservation();
+    private final ReservationDTO dto = new ReservationDTO(1L, "RESERVED", null, null, List.of());
+
+    @Test
+    @DisplayName("reserve returns 201 with the reservation")
+    void reserve_returnsCreated() {
+        List<ReservationItemDTO> items = List.of(new ReservationItemDTO(5L, 2));
+        ReservationDTO request = new ReservationDTO();
+        request.setItems(items);
+        when(reservationService.reserve(items)).thenReturn(reservation);
+        when(reservationService.toDTO(reservation)).thenReturn(dto);
+
+        ResponseEntity<ReservationDTO> response = controller.reserve(request);
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals(dto, response.getBody());
+    }
+
+    @Test
+    @DisplayName("commit, release and get delegate to the service")
+    void lifecycle_delegates() {
+        when(reservationService.commit(1L)).thenReturn(reservation);
+        when(reservationService.release(2L)).thenReturn(reservation);
+        when(reservationService.getReservation(3L)).thenReturn(reservation);
+        when(reservationService.toDTO(reservation)).thenReturn(dto);
+
+        assertEquals(dto, controller.commit(1L));
+        assertEquals(dto, controller.release(2L));
+        assertEquals(dto, controller.getReservation(3L));
+    }
+}
@@ -20,6 +20,12 @@ class CatalogExceptionsTest {
         assertNotNull(ex);
     }
 
+    @Test
+    void conflictException_storesMessage() {
+        ConflictException ex = new ConflictException("already committed");
+        assertEquals("already committed", ex.getMessage());
+    }
+
     @Test
     void badRequestException_withMessage() {
         BadRequestException ex = new BadRequestException("invalid input");
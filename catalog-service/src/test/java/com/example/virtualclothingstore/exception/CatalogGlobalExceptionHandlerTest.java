@@ -3,6 +3,9 @@ package com.example.virtualclothingstore.exception;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.example.virtualclothingstore.entity.Product;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +30,22 @@ class CatalogGlobalExceptionHandlerTest {
         assertEquals("bad input", resp.getBody());
     }
 
+    @Test
+    void handleConflict_returns409() {
+        ConflictException ex = new ConflictException("out of stock");
+        ResponseEntity<String> resp = handler.handleConflict(ex);
+        assertEquals(409, resp.getStatusCodeValue());
+        assertEquals("out of stock", resp.getBody());
+    }
+
+    @Test
+    void handleOptimisticLock_returns409() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(Product.class, 1L);
+        ResponseEntity<String> resp = handler.handleOptimisticLock(ex);
+        assertEquals(409, resp.getStatusCodeValue());
+        assertTrue(resp.getBody().contains("changed by another request"));
+    }
+
     @Test
     void handleGeneric_returns500() {
         Exception ex = new Exception("something broke");
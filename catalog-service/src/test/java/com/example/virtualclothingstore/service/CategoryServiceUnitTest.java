@@ -1,7 +1,9 @@
 package com.example.virtualclothingstore.service;
 
 import com.example.virtualclothingstore.dto.CategoryDTO;
+import com.example.virtualclothingstore.dto.CategoryTreeNodeDTO;
 import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,8 +12,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +29,12 @@ class CategoryServiceUnitTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ProductSnapshotService snapshotService;
+
+    @Mock
+    private CategoryTreeService treeService;
+
     @InjectMocks
     private CategoryService service;
 
@@ -60,12 +71,95 @@ class CategoryServiceUnitTest {
         when(categoryRepository.save(cat)).thenReturn(cat);
         assertEquals(cat, service.saveCategory(cat));
         verify(categoryRepository).save(cat);
+        verify(snapshotService).categorySaved(cat);
+        verify(treeService).reload();
+        assertEquals("/1/", cat.getPath());
+    }
+
+    @Test
+    void saveCategory_inTransaction_refreshesOnlyAfterCommit() {
+        when(categoryRepository.save(cat)).thenReturn(cat);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.saveCategory(cat);
+            verify(snapshotService, never()).categorySaved(any());
+            verify(treeService, never()).reload();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(snapshotService).categorySaved(cat);
+        verify(treeService).reload();
+    }
+
+    @Test
+    void saveCategory_newChildGetsPathAfterInsert() {
+        Category parent = new Category("Clothing", null);
+        parent.setId(1L);
+        parent.setPath("/1/");
+        Category child = new Category("Shirts", null);
+        child.setParentId(1L);
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(parent));
+        when(categoryRepository.save(child)).thenAnswer(invocation -> {
+            child.setId(5L);
+            return child;
+        });
+
+        service.saveCategory(child);
+        assertEquals("/1/5/", child.getPath());
+        verify(categoryRepository, times(2)).save(child);
+        verify(categoryRepository, never()).moveSubtreePaths(any(), any());
+    }
+
+    @Test
+    void saveCategory_movingRewritesSubtreePaths() {
+        Category newParent = new Category("Sale", null);
+        newParent.setId(3L);
+        newParent.setPath("/3/");
+        Category stored = new Category("Tops", null);
+        stored.setPath("/1/");
+        cat.setParentId(3L);
+        when(categoryRepository.findById(3L)).thenReturn(Optional.of(newParent));
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(stored));
+        when(categoryRepository.save(cat)).thenReturn(cat);
+
+        service.saveCategory(cat);
+        verify(categoryRepository).moveSubtreePaths("/1/", "/3/1/");
+    }
+
+    @Test
+    void saveCategory_underOwnSubtreeRejected() {
+        Category grandchild = new Category("Polo", null);
+        grandchild.setId(7L);
+        grandchild.setPath("/1/4/7/");
+        cat.setParentId(7L);
+        when(categoryRepository.findById(7L)).thenReturn(Optional.of(grandchild));
+
+        assertThrows(BadRequestException.class, () -> service.saveCategory(cat));
+        verify(categoryRepository, never()).save(any());
     }
 
     @Test
     void deleteCategory_delegates() {
         service.deleteCategory(1L);
         verify(categoryRepository).deleteById(1L);
+        verify(snapshotService).reload();
+        verify(treeService).reload();
+    }
+
+    @Test
+    void deleteCategory_withSubcategoriesRejected() {
+        when(categoryRepository.existsByParentId(1L)).thenReturn(true);
+        assertThrows(BadRequestException.class, () -> service.deleteCategory(1L));
+        verify(categoryRepository, never()).deleteById(1L);
+    }
+
+    @Test
+    void getCategoryByName_usesIndexedLookup() {
+        when(categoryRepository.findByName("Tops")).thenReturn(Optional.of(cat));
+        assertEquals(cat, service.getCategoryByName("Tops").orElseThrow());
+        verify(categoryRepository, never()).findAll();
     }
 
     @Test
@@ -87,23 +181,39 @@ class CategoryServiceUnitTest {
 
     @Test
     void getAllCategoryDTOs_returnsMappedList() {
-        when(categoryRepository.findAll()).thenReturn(List.of(cat));
+        when(treeService.current()).thenReturn(CategoryTree.of(List.of(cat), Map.of()));
         List<CategoryDTO> dtos = service.getAllCategoryDTOs();
         assertEquals(1, dtos.size());
         assertEquals("Tops", dtos.get(0).getName());
+        verifyNoInteractions(categoryRepository);
     }
 
     @Test
     void getCategoryDTOById_found() {
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(cat));
+        when(treeService.current()).thenReturn(CategoryTree.of(List.of(cat), Map.of()));
         Optional<CategoryDTO> result = service.getCategoryDTOById(1L);
         assertTrue(result.isPresent());
         assertEquals("Tops", result.get().getName());
+        assertEquals("/1/", result.get().getPath());
     }
 
     @Test
     void getCategoryDTOById_notFound() {
-        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(treeService.current()).thenReturn(CategoryTree.empty());
         assertFalse(service.getCategoryDTOById(99L).isPresent());
     }
+
+    @Test
+    void getCategoryTree_nestsChildrenWithCounts() {
+        Category shirts = new Category("Shirts", null);
+        shirts.setId(2L);
+        shirts.setParentId(1L);
+        when(treeService.current()).thenReturn(CategoryTree.of(List.of(cat, shirts), Map.of(1L, 3L, 2L, 4L)));
+
+        List<CategoryTreeNodeDTO> tree = service.getCategoryTree();
+        assertEquals(1, tree.size());
+        assertEquals(3, tree.get(0).getProductCount());
+        assertEquals(7, tree.get(0).getSubtreeProductCount());
+        assertEquals("/1/2/", tree.get(0).getChildren().get(0).getPath());
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.repository.CategoryRepository;
+import com.example.virtualclothingstore.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryTreeService Unit Tests")
+class CategoryTreeServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
+    @InjectMocks
+    private CategoryTreeService service;
+
+    @Test
+    void afterSingletonsInstantiated_initializesPathsAndLoadsTree() {
+        Category tops = new Category("Tops", null);
+        tops.setId(1L);
+        when(categoryRepository.findAllFromDatabase()).thenReturn(List.of(tops));
+        when(productRepository.countByCategory()).thenReturn(List.<Object[]>of(new Object[] {1L, 3L}));
+
+        service.afterSingletonsInstantiated();
+
+        verify(categoryRepository).initializeRootPaths();
+        assertEquals(1, service.current().size());
+        assertEquals(3, service.current().subtreeProductCount(1L));
+    }
+
+    @Test
+    void productMoved_updatesCountsWithoutQuerying() {
+        Category tops = new Category("Tops", null);
+        tops.setId(1L);
+        when(categoryRepository.findAllFromDatabase()).thenReturn(List.of(tops));
+        service.reload();
+
+        service.productMoved(null, 1L);
+
+        assertEquals(1, service.current().productCount(1L));
+        assertEquals(2, catalogVersion.current());
+        verify(productRepository, times(1)).countByCategory();
+    }
+}
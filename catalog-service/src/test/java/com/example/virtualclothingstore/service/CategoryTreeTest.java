@@ -0,0 +1,62 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.entity.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CategoryTree Tests")
+class CategoryTreeTest {
+
+    private static Category category(long id, Long parentId) {
+        Category category = new Category("C" + id, null);
+        category.setId(id);
+        category.setParentId(parentId);
+        return category;
+    }
+
+    // 1 -> (2 -> 4), 3
+    private final CategoryTree tree = CategoryTree.of(
+            List.of(category(4, 2L), category(2, 1L), category(1, null), category(3, null)),
+            Map.of(1L, 1L, 2L, 2L, 4L, 5L, 3L, 7L));
+
+    @Test
+    @DisplayName("of links parents, derives paths and sums subtree counts")
+    void of_buildsTree() {
+        assertEquals(List.of(1L, 3L), tree.roots().stream().map(CategoryTree.Node::id).toList());
+        assertEquals("/1/2/4/", tree.get(4L).orElseThrow().path());
+        assertEquals(List.of(1L, 2L, 4L), List.copyOf(tree.subtreeIds(1L)));
+        assertEquals(1, tree.productCount(1L));
+        assertEquals(8, tree.subtreeProductCount(1L));
+        assertEquals(7, tree.subtreeProductCount(2L));
+        assertTrue(tree.subtreeIds(9L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("a missing parent or a cycle makes a category a root")
+    void of_toleratesBrokenLinks() {
+        CategoryTree broken = CategoryTree.of(List.of(category(1, 9L), category(2, 3L), category(3, 2L)), Map.of());
+
+        assertEquals(List.of(1L, 2L, 3L), broken.roots().stream().map(CategoryTree.Node::id).toList());
+        assertEquals("/1/", broken.get(1L).orElseThrow().path());
+    }
+
+    @Test
+    @DisplayName("withProductMoved adjusts only the ancestors of both categories")
+    void withProductMoved_adjustsAncestors() {
+        CategoryTree moved = tree.withProductMoved(4L, 3L);
+        CategoryTree created = tree.withProductMoved(null, 2L);
+
+        assertEquals(4, moved.productCount(4L));
+        assertEquals(6, moved.subtreeProductCount(2L));
+        assertEquals(7, moved.subtreeProductCount(1L));
+        assertEquals(8, moved.subtreeProductCount(3L));
+        assertEquals(9, created.subtreeProductCount(1L));
+        assertEquals(8, tree.subtreeProductCount(1L));
+        assertSame(tree, tree.withProductMoved(2L, 2L));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.virtualclothingstore.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductFacetIndex Tests")
+class ProductFacetIndexTest {
+
+    private static ProductSnapshot.Item item(long id, String price, int stock, long categoryId) {
+        return new ProductSnapshot.Item(id, "P" + id, null, new BigDecimal(price), stock, categoryId, "C" + categoryId,
+                0L, 0L, null);
+    }
+
+    private static List<Long> ids(ProductSnapshot.FacetedPage result) {
+        return result.page().getContent().stream().map(ProductSnapshot.Item::id).toList();
+    }
+
+    private final ProductSnapshot snapshot = ProductSnapshot.of(List.of(
+            item(1, "10.00", 5, 1),
+            item(2, "30.00", 0, 1),
+            item(3, "75.00", 2, 2),
+            item(4, "24.99", 1, 2),
+            item(5, "250.00", 0, 3)));
+
+    @Test
+    @DisplayName("no selection matches everything and counts every facet value")
+    void filter_noSelection() {
+        ProductSnapshot.FacetedPage result = snapshot.filter(null, null, null, PageRequest.of(0, 10));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(result));
+        assertEquals(Map.of(1L, 2L, 2L, 2L, 3L, 1L), result.categoryCounts());
+        assertEquals("C2", result.categoryNames().get(2L));
+        assertEquals(List.of(2L, 1L, 1L, 0L, 1L), List.copyOf(result.priceBandCounts().values()));
+        assertEquals(3, result.inStockCount());
+        assertEquals(2, result.outOfStockCount());
+    }
+
+    @Test
+    @DisplayName("facets are and-ed, values of one facet or-ed, and each facet ignores its own selection")
+    void filter_intersectsAndCountsDisjunctively() {
+        ProductSnapshot.FacetedPage result = snapshot.filter(List.of(1L, 2L), List.of("0-25", "25-50"), true,
+                PageRequest.of(0, 10));
+
+        assertEquals(List.of(1L, 4L), ids(result));
+        assertEquals(Map.of(1L, 1L, 2L, 1L, 3L, 0L), result.categoryCounts());
+        assertEquals(List.of(2L, 0L, 1L, 0L, 0L), List.copyOf(result.priceBandCounts().values()));
+        assertEquals(2, result.inStockCount());
+        assertEquals(1, result.outOfStockCount());
+    }
+
+    @Test
+    @DisplayName("out-of-stock selection counts the other facets over out-of-stock products only")
+    void filter_outOfStockCounts() {
+        ProductSnapshot.FacetedPage result = snapshot.filter(List.of(1L), null, false, PageRequest.of(0, 10));
+
+        assertEquals(List.of(2L), ids(result));
+        assertEquals(Map.of(1L, 1L, 2L, 0L, 3L, 1L), result.categoryCounts());
+        assertEquals(List.of(0L, 1L, 0L, 0L, 0L), List.copyOf(result.priceBandCounts().values()));
+        assertEquals(1, result.inStockCount());
+        assertEquals(1, result.outOfStockCount());
+    }
+
+    @Test
+    @DisplayName("pages through the matches in id order; unknown values match nothing")
+    void filter_pagesAndUnknownValues() {
+        ProductSnapshot.FacetedPage second = snapshot.filter(null, null, false, PageRequest.of(1, 1));
+
+        assertEquals(List.of(5L), ids(second));
+        assertEquals(2, second.page().getTotalElements());
+        assertTrue(snapshot.filter(List.of(9L), null, null, PageRequest.of(0, 10)).page().isEmpty());
+    }
+
+    @Test
+    @DisplayName("saved and deleted products move between facets")
+    void filter_followsWrites() {
+        ProductSnapshot changed = snapshot
+                .with(item(2, "30.00", 4, 3))
+                .with(item(6, "5.00", 1, 1))
+                .without(1L);
+
+        ProductSnapshot.FacetedPage result = changed.filter(null, null, true, PageRequest.of(0, 10));
+
+        assertEquals(List.of(2L, 3L, 4L, 6L), ids(result));
+        assertEquals(Map.of(1L, 1L, 2L, 2L, 3L, 1L), result.categoryCounts());
+        assertEquals(List.of(1L, 3L, 4L), ids(snapshot.filter(null, null, true, PageRequest.of(0, 10))));
+    }
+}
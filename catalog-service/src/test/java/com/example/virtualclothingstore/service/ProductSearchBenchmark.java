@@ -0,0 +1,104 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Measures {@link ProductSnapshot#search} and {@link ProductSnapshot#suggest} latency over a
+ * synthetic catalogue.
+ * Not part of the test run; start it with
+ * {@code mvn -pl catalog-service test-compile exec:java -Dexec.mainClass=com.example.virtualclothingstore.service.ProductSearchBenchmark -Dexec.classpathScope=test}
+ * and read the p0.99 row of the sample-time output. The runner collects garbage before each
+ * iteration, so the setup's discarded snapshots don't show up as pauses in the tail.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] COLOURS = {"black", "white", "blue", "red", "green", "grey", "navy", "beige"};
+    private static final String[] MATERIALS = {"cotton", "linen", "wool", "denim", "leather", "silk", "fleece"};
+    private static final String[] GARMENTS = {"shirt", "dress", "jeans", "jacket", "scarf", "sweater", "skirt", "coat", "hoodie"};
+    private static final String[] CATEGORIES = {"Tops", "Bottoms", "Dresses", "Outerwear", "Accessories"};
+
+    @Param({"500000"})
+    private int products;
+
+    @Param({"shirt", "blue cotton shirt", "navy wool coat winter"})
+    private String query;
+
+    // Products saved after the snapshot was built, so that queries also read the delta segment
+    @Param({"0", "10000"})
+    private int updated;
+
+    private ProductSnapshot snapshot;
+    private final Pageable firstPage = PageRequest.of(0, 20);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<ProductSnapshot.Item> items = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            String name = pick(random, COLOURS) + " " + pick(random, MATERIALS) + " " + pick(random, GARMENTS);
+            String description = "A " + pick(random, MATERIALS) + " " + pick(random, GARMENTS)
+                    + " for " + (random.nextBoolean() ? "summer" : "winter") + " in " + pick(random, COLOURS);
+            int category = random.nextInt(CATEGORIES.length);
+            items.add(new ProductSnapshot.Item((long) i, name, description,
+                    BigDecimal.valueOf(random.nextInt(20_000), 2), random.nextInt(50), (long) category, CATEGORIES[category],
+                    0L, 0L, null));
+        }
+        snapshot = ProductSnapshot.of(items);
+        for (int i = 0; i < updated; i++) {
+            ProductSnapshot.Item before = items.get(random.nextInt(products));
+            snapshot = snapshot.with(new ProductSnapshot.Item(before.id(), pick(random, COLOURS) + " " + before.name(),
+                    before.description(), before.price(), before.stockQuantity(), before.categoryId(),
+                    before.categoryName(), before.version(), before.categoryVersion(), null));
+        }
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    @Benchmark
+    public Page<ProductSnapshot.Item> search() {
+        return snapshot.search(query, firstPage);
+    }
+
+    // Type-ahead over the same catalogue: the first letter is the widest prefix range
+    @Benchmark
+    public List<String> suggest() {
+        return snapshot.suggest(query.substring(0, 1), 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getSimpleName())
+                .shouldDoGC(true)
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.entity.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    private static ProductSnapshot.Item item(long id, String name, String description, String category) {
+        return new ProductSnapshot.Item(id, name, description, BigDecimal.TEN, 1, 1L, category, 0L, 0L, null);
+    }
+
+    private static List<Long> ids(Page<ProductSnapshot.Item> page) {
+        return page.getContent().stream().map(ProductSnapshot.Item::id).toList();
+    }
+
+    private final ProductSnapshot snapshot = ProductSnapshot.of(List.of(
+            item(1, "Blue Cotton Shirt", "Soft cotton shirt for summer", "Tops"),
+            item(2, "Denim Jeans", "Slim fit jeans in blue denim", "Bottoms"),
+            item(3, "Summer Dress", "Light dress with a floral print", "Dresses"),
+            item(4, "Wool Scarf", "Warm scarf", "Accessories")));
+
+    @Test
+    @DisplayName("tokens lower-cases, splits, drops stop words and stems plurals")
+    void tokens_normalizes() {
+        assertEquals(List.of("blue", "shirt", "dress", "accessory", "jean"),
+                ProductSearchIndex.tokens("Blue SHIRTS, for the Dresses & Accessories; jeans"));
+        assertEquals("dress", ProductSearchIndex.stem("dress"));
+        assertEquals("shoe", ProductSearchIndex.stem("shoes"));
+    }
+
+    @Test
+    @DisplayName("search ranks name matches above description matches")
+    void search_ranksByBm25() {
+        Page<ProductSnapshot.Item> shirts = snapshot.search("shirts", PageRequest.of(0, 10));
+        Page<ProductSnapshot.Item> blue = snapshot.search("blue", PageRequest.of(0, 10));
+
+        assertEquals(List.of(1L), ids(shirts));
+        assertEquals(List.of(1L, 2L), ids(blue));
+        assertEquals(2, blue.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("search matches category names and pages through the ranking")
+    void search_categoryAndPaging() {
+        Page<ProductSnapshot.Item> dresses = snapshot.search("dress", PageRequest.of(0, 10));
+        Page<ProductSnapshot.Item> second = snapshot.search("summer blue", PageRequest.of(1, 2));
+
+        assertEquals(List.of(3L), ids(dresses));
+        assertEquals(3, second.getTotalElements());
+        assertEquals(1, second.getContent().size());
+        assertTrue(snapshot.search("the and", PageRequest.of(0, 10)).isEmpty());
+        assertTrue(snapshot.search("parka", PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("saved and deleted products are reflected without a full rebuild")
+    void search_followsIncrementalChanges() {
+        ProductSnapshot changed = snapshot
+                .with(item(4, "Wool Beanie", "Warm hat", "Accessories"))
+                .with(item(5, "Linen Shirt", "Breathable", "Tops"))
+                .without(1L);
+
+        assertTrue(changed.search("scarf", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of(4L), ids(changed.search("beanie", PageRequest.of(0, 10))));
+        assertEquals(List.of(5L), ids(changed.search("shirt", PageRequest.of(0, 10))));
+        assertEquals(List.of(1L), ids(snapshot.search("shirt", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("the delta forgets the terms of a product saved again and counts each changed product once")
+    void deltaChanges_replaceTermsAndCountProducts() {
+        ProductSearchIndex base = ProductSearchIndex.build(new ProductSnapshot.Item[] {
+                item(1, "Blue Cotton Shirt", "Soft", "Tops"), item(2, "Denim Jeans", "Slim", "Bottoms")});
+
+        ProductSearchIndex changed = base
+                .with(item(3, "Linen Parka", "Light", "Outerwear"))
+                .with(item(3, "Wool Parka", "Warm", "Outerwear"))
+                .with(item(1, "Blue Linen Shirt", "Airy", "Tops"))
+                .without(2L);
+
+        assertEquals(List.of(3L), changed.search("wool", 0, 10).ids());
+        assertEquals(List.of(1L), changed.search("linen", 0, 10).ids());
+        assertEquals(0, changed.search("cotton jeans", 0, 10).total());
+        // Product 3 added, product 1 updated, product 2 deleted
+        assertEquals(3, changed.pendingChanges());
+        assertEquals(2, changed.without(3L).pendingChanges());
+    }
+
+    @Test
+    @DisplayName("ranking spans scoring blocks, keeps equal scores in id order and skips hidden documents")
+    void search_acrossBlocks() {
+        ProductSnapshot.Item[] items = new ProductSnapshot.Item[40_000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = item(i + 1, i % 2 == 0 ? "Plain Shirt" : "Plain Jeans", null, "Tops");
+        }
+        ProductSearchIndex index = ProductSearchIndex.build(items).without(1L);
+
+        ProductSearchIndex.Hits hits = index.search("shirt", 1, 3);
+        assertEquals(19_999, hits.total());
+        assertEquals(List.of(5L, 7L, 9L), hits.ids());
+        assertEquals(List.of(39_999L), index.search("shirt", 19_998, 10).ids());
+        assertTrue(index.search("shirt", 30_000, 10).ids().isEmpty());
+    }
+
+    @Test
+    @DisplayName("pruned pages match the full ranking")
+    void search_prunedPagesMatchFullRanking() {
+        String[] words = {"shirt", "blue", "cotton", "navy", "wool", "coat", "winter", "linen", "slim", "jacket"};
+        Random random = new Random(42);
+        ProductSnapshot.Item[] items = new ProductSnapshot.Item[30_000];
+        for (int i = 0; i < items.length; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int w = 0; w < length; w++) {
+                // Skewed, so the list mixes common terms with rare ones
+                name.append(words[(int) (words.length * Math.pow(random.nextDouble(), 2.5))]).append(' ');
+            }
+            items[i] = item(i + 1, name.toString(), null, "Tops");
+        }
+        ProductSearchIndex index = ProductSearchIndex.build(items).without(7L).without(20_001L);
+
+        for (String query : List.of("shirt", "blue cotton shirt", "navy wool coat winter", "jacket slim")) {
+            ProductSearchIndex.Hits all = index.search(query, 0, items.length);
+            assertEquals(all.ids().size(), all.total(), query);
+            for (int offset : new int[] {0, 10, 95, 1_000}) {
+                ProductSearchIndex.Hits page = index.search(query, offset, 10);
+                assertEquals(all.total(), page.total(), query);
+                assertEquals(all.ids().subList(offset, Math.min(offset + 10, all.ids().size())), page.ids(), query);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("category renames are searchable under the new name")
+    void search_followsCategoryRename() {
+        Category knitwear = new Category("Knitwear", null);
+        knitwear.setId(1L);
+        ProductSnapshot renamed = snapshot.withCategory(knitwear);
+
+        assertEquals(4, renamed.search("knitwear", PageRequest.of(0, 10)).getTotalElements());
+        assertTrue(renamed.search("bottoms", PageRequest.of(0, 10)).isEmpty());
+    }
+}
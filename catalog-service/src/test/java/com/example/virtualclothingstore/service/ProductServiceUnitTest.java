@@ -1,8 +1,10 @@
 package com.example.virtualclothingstore.service;
 
 import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.dto.ProductFilterResultDTO;
 import com.example.virtualclothingstore.entity.Category;
 import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 import com.example.virtualclothingstore.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +15,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +37,12 @@ class ProductServiceUnitTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private ProductSnapshotService snapshotService;
+
+    @Mock
+    private CategoryTreeService categoryTreeService;
+
     @InjectMocks
     private ProductService service;
 
@@ -71,14 +84,32 @@ class ProductServiceUnitTest {
 
     @Test
     void saveProduct_delegates() {
+        when(snapshotService.current()).thenReturn(ProductSnapshot.empty());
         when(productRepository.save(product)).thenReturn(product);
         assertEquals(product, service.saveProduct(product));
+        verify(snapshotService).productSaved(product);
+        verify(categoryTreeService).productMoved(null, 1L);
+    }
+
+    @Test
+    void saveProduct_movesCategoryCount() {
+        snapshotOf(product);
+        Category other = new Category("Bottoms", null);
+        other.setId(2L);
+        product.setCategory(other);
+        when(productRepository.save(product)).thenReturn(product);
+
+        service.saveProduct(product);
+        verify(categoryTreeService).productMoved(1L, 2L);
     }
 
     @Test
     void deleteProduct_delegates() {
+        snapshotOf(product);
         service.deleteProduct(1L);
         verify(productRepository).deleteById(1L);
+        verify(snapshotService).productDeleted(1L);
+        verify(categoryTreeService).productMoved(1L, null);
     }
 
     @Test
@@ -133,30 +164,133 @@ class ProductServiceUnitTest {
 
         Category general = new Category();
         general.setName("General");
-        when(categoryService.getAllCategories()).thenReturn(List.of(general));
+        when(categoryService.getCategoryByName("General")).thenReturn(Optional.of(general));
 
         Product result = service.fromDTO(dto);
         assertEquals("General", result.getCategory().getName());
     }
 
+    private void snapshotOf(Product... products) {
+        when(snapshotService.current()).thenReturn(ProductSnapshot.of(
+                Arrays.stream(products).map(ProductSnapshot.Item::of).toList()));
+    }
+
     @Test
     void getAllProductDTOs_returnsMappedList() {
-        when(productRepository.findAll()).thenReturn(List.of(product));
+        snapshotOf(product);
         List<ProductDTO> dtos = service.getAllProductDTOs();
         assertEquals(1, dtos.size());
         assertEquals("T-Shirt", dtos.get(0).getName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getAllProductDTOs_pageServedFromSnapshot() {
+        Product second = new Product("Jeans", null, new BigDecimal("49.99"), 5, category);
+        second.setId(2L);
+        snapshotOf(second, product);
+
+        Page<ProductDTO> page = service.getAllProductDTOs(PageRequest.of(1, 1));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals("Jeans", page.getContent().get(0).getName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProductDTOs_servedFromSnapshot() {
+        snapshotOf(product);
+        Page<ProductDTO> page = service.searchProductDTOs("cotton", PageRequest.of(0, 10));
+        assertEquals(1, page.getTotalElements());
+        assertEquals("T-Shirt", page.getContent().get(0).getName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProductDTOs_blankQueryRejected() {
+        assertThrows(BadRequestException.class, () -> service.searchProductDTOs(" ", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void filterProductDTOs_returnsPageAndFacetCounts() {
+        snapshotOf(product);
+        ProductFilterResultDTO result = service.filterProductDTOs(List.of(1L), List.of("0-25"), true, PageRequest.of(0, 10));
+        assertEquals(1, result.getProducts().getTotalElements());
+        assertEquals("Tops", result.getCategories().get(0).getLabel());
+        assertEquals(1, result.getCategories().get(0).getCount());
+        assertEquals(5, result.getPriceBands().size());
+        assertEquals(1, result.getInStockCount());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void filterProductDTOs_unknownPriceBandRejected() {
+        assertThrows(BadRequestException.class,
+                () -> service.filterProductDTOs(null, List.of("cheap"), null, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void suggestProductNames_servedFromSnapshot() {
+        snapshotOf(product);
+        assertEquals(List.of("t"), service.suggestProductNames("t", 10));
+        assertEquals(List.of(), service.suggestProductNames(" ", 10));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void suggestProductNames_limitOutOfRangeRejected() {
+        assertThrows(BadRequestException.class, () -> service.suggestProductNames("t", 0));
+        assertThrows(BadRequestException.class, () -> service.suggestProductNames("t", 51));
+    }
+
+    @Test
+    void getProductDTOsInCategoryTree_coversSubcategories() {
+        Category child = new Category("Shirts", null);
+        child.setId(2L);
+        child.setParentId(1L);
+        Product shirt = new Product("Oxford", null, new BigDecimal("39.00"), 4, child);
+        shirt.setId(2L);
+        snapshotOf(product, shirt);
+        when(categoryTreeService.current()).thenReturn(CategoryTree.of(List.of(category, child), Map.of()));
+
+        Page<ProductDTO> page = service.getProductDTOsInCategoryTree(1L, PageRequest.of(0, 10));
+        assertEquals(2, page.getTotalElements());
+        assertEquals(1, service.getProductDTOsInCategoryTree(2L, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void getProductDTOsInCategoryTree_unknownCategoryThrows() {
+        when(categoryTreeService.current()).thenReturn(CategoryTree.empty());
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.getProductDTOsInCategoryTree(9L, PageRequest.of(0, 10)));
     }
 
     @Test
     void getProductDTOById_found() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        snapshotOf(product);
         Optional<ProductDTO> result = service.getProductDTOById(1L);
         assertTrue(result.isPresent());
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void getProductDTOById_notFound() {
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        snapshotOf(product);
         assertFalse(service.getProductDTOById(99L).isPresent());
     }
+
+    @Test
+    void getProductDTOsByIds_servedFromSnapshot() {
+        snapshotOf(product);
+        List<ProductDTO> dtos = service.getProductDTOsByIds(List.of(1L, 2L));
+        assertEquals(1, dtos.size());
+        assertEquals("Tops", dtos.get(0).getCategoryName());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void getProductDTOsByIds_emptyIdsSkipsRepository() {
+        assertTrue(service.getProductDTOsByIds(List.of()).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
 }
@@ -0,0 +1,135 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.dto.SnapshotConsistencyDTO;
+import com.example.virtualclothingstore.entity.Category;
+import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductSnapshotService Unit Tests")
+class ProductSnapshotServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private ProductSnapshotService service;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductSnapshotService(productRepository, catalogVersion, meterRegistry);
+        category = new Category("Tops", null);
+        category.setId(1L);
+    }
+
+    private Product product(long id, String name, String price) {
+        Product product = new Product(name, null, new BigDecimal(price), 3, category);
+        product.setId(id);
+        return product;
+    }
+
+    @Test
+    void reload_buildsSnapshotAndRecordsMetrics() {
+        when(productRepository.findAllWithCategory()).thenReturn(List.of(product(2, "B", "5.00"), product(1, "A", "9.99")));
+
+        service.afterSingletonsInstantiated();
+
+        assertEquals(2, service.current().size());
+        assertEquals("A", service.current().get(1L).orElseThrow().name());
+        assertEquals(1, meterRegistry.timer("catalog.snapshot.load").count());
+        assertEquals(2.0, meterRegistry.get("catalog.snapshot.products").gauge().value());
+    }
+
+    @Test
+    void writes_swapSnapshotWithoutReadingDatabase() {
+        ProductSnapshot before = service.current();
+        Category renamed = new Category("Shirts", null);
+        renamed.setId(1L);
+
+        service.productSaved(product(5, "E", "1.00"));
+        service.categorySaved(renamed);
+        ProductSnapshot afterSave = service.current();
+        service.productDeleted(5L);
+
+        assertEquals(0, before.size());
+        assertEquals("Shirts", afterSave.get(5L).orElseThrow().categoryName());
+        assertEquals(0, service.current().size());
+        assertEquals(3, catalogVersion.current());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void refreshStock_foldsMarkedProductsIntoOneSwap() {
+        when(productRepository.findAllWithCategory()).thenReturn(List.of(product(1, "A", "9.99"), product(2, "B", "5.00")));
+        service.reload();
+        when(productRepository.findStockByIdIn(any())).thenReturn(List.<Object[]>of(new Object[] {1L, 0, 1L, Instant.now()}));
+
+        service.stockChanged(List.of(1L));
+        service.stockChanged(List.of(1L));
+        service.refreshStock();
+        service.refreshStock();
+
+        assertEquals(0, service.current().get(1L).orElseThrow().stockQuantity());
+        assertEquals(3, service.current().get(2L).orElseThrow().stockQuantity());
+        verify(productRepository, times(1)).findStockByIdIn(List.of(1L));
+    }
+
+    @Test
+    void productSaved_afterNewerStockRefresh_readsRowAgain() {
+        Product stored = product(1, "A", "9.99");
+        stored.setVersion(5L);
+        when(productRepository.findAllWithCategory()).thenReturn(List.of(stored));
+        service.reload();
+        // A reservation commits version 7 after the PUT committed version 6; its refresh lands first
+        when(productRepository.findStockByIdIn(any())).thenReturn(List.<Object[]>of(new Object[] {1L, 0, 7L, Instant.now()}));
+        service.stockChanged(List.of(1L));
+        service.refreshStock();
+        Product put = product(1, "A2", "9.99");
+        put.setVersion(6L);
+        Product current = product(1, "A2", "9.99");
+        current.setStockQuantity(0);
+        current.setVersion(7L);
+        when(productRepository.findByIdIn(List.of(1L))).thenReturn(List.of(current));
+
+        service.productSaved(put);
+
+        ProductSnapshot.Item item = service.current().get(1L).orElseThrow();
+        assertEquals(7L, item.version());
+        assertEquals(0, item.stockQuantity());
+        assertEquals("A2", item.name());
+    }
+
+    @Test
+    void checkConsistency_reportsMissingExtraAndStale() {
+        when(productRepository.findAllWithCategory()).thenReturn(List.of(product(1, "A", "9.99"), product(2, "B", "5.00")));
+        service.reload();
+        service.productSaved(product(3, "C", "1.00"));
+        when(productRepository.findAllWithCategory()).thenReturn(List.of(
+                product(1, "A", "9.990"), product(2, "B", "6.00"), product(4, "D", "2.00")));
+
+        SnapshotConsistencyDTO report = service.checkConsistency();
+
+        assertFalse(report.isConsistent());
+        assertEquals(List.of(4L), report.getMissingIds());
+        assertEquals(List.of(3L), report.getExtraIds());
+        assertEquals(List.of(2L), report.getStaleIds());
+        assertEquals(3, report.getSnapshotSize());
+        assertEquals(3, report.getDatabaseSize());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.entity.Category;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductSnapshot Tests")
+class ProductSnapshotTest {
+
+    private static ProductSnapshot.Item item(long id, String name) {
+        return new ProductSnapshot.Item(id, name, null, new BigDecimal("10.00"), 1, 7L, "Tops", 0L, 0L,
+                Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("of sorts by id and looks products up by id")
+    void of_sortsAndIndexes() {
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(3, "C"), item(1, "A"), item(2, "B")));
+
+        assertEquals(List.of(1L, 2L, 3L), snapshot.getAll().stream().map(ProductSnapshot.Item::id).toList());
+        assertEquals("B", snapshot.get(2L).orElseThrow().name());
+        assertTrue(snapshot.get(4L).isEmpty());
+        assertEquals(List.of(3L, 1L), snapshot.getAll(List.of(3L, 9L, 1L)).stream().map(ProductSnapshot.Item::id).toList());
+    }
+
+    @Test
+    @DisplayName("page slices in id order and reports the total")
+    void page_slicesInIdOrder() {
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(1, "A"), item(2, "B"), item(3, "C")));
+
+        Page<ProductSnapshot.Item> second = snapshot.page(PageRequest.of(1, 2));
+        Page<ProductSnapshot.Item> beyond = snapshot.page(PageRequest.of(5, 2));
+
+        assertEquals(List.of(3L), second.getContent().stream().map(ProductSnapshot.Item::id).toList());
+        assertEquals(3, second.getTotalElements());
+        assertTrue(beyond.getContent().isEmpty());
+    }
+
+    @Test
+    @DisplayName("with and without build new snapshots and leave the original untouched")
+    void copyOnWrite_leavesOriginalUntouched() {
+        ProductSnapshot original = ProductSnapshot.of(List.of(item(1, "A"), item(3, "C")));
+
+        ProductSnapshot inserted = original.with(item(2, "B"));
+        ProductSnapshot replaced = inserted.with(item(3, "C2"));
+        ProductSnapshot removed = replaced.without(1L);
+
+        assertEquals(2, original.size());
+        assertTrue(original.get(2L).isEmpty());
+        assertEquals(List.of(1L, 2L, 3L), inserted.getAll().stream().map(ProductSnapshot.Item::id).toList());
+        assertEquals("C", inserted.get(3L).orElseThrow().name());
+        assertEquals("C2", replaced.get(3L).orElseThrow().name());
+        assertEquals(List.of(2L, 3L), removed.getAll().stream().map(ProductSnapshot.Item::id).toList());
+        assertTrue(removed.get(1L).isEmpty());
+        assertSame(removed, removed.without(42L));
+    }
+
+    @Test
+    @DisplayName("withCategory renames the category on its products only and carries its version")
+    void withCategory_renamesMatchingProducts() {
+        ProductSnapshot.Item other = new ProductSnapshot.Item(2L, "B", null, BigDecimal.ONE, 1, 8L, "Hats", 0L, 0L, null);
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(1, "A"), other));
+        Category shirts = new Category("Shirts", null);
+        shirts.setId(7L);
+        shirts.setVersion(1L);
+        shirts.setUpdatedAt(Instant.parse("2024-02-01T00:00:00Z"));
+
+        ProductSnapshot renamed = snapshot.withCategory(shirts);
+
+        ProductSnapshot.Item moved = renamed.get(1L).orElseThrow();
+        assertEquals("Shirts", moved.categoryName());
+        assertEquals(1L, moved.categoryVersion());
+        assertEquals(Instant.parse("2024-02-01T00:00:00Z"), moved.lastModified());
+        assertEquals("Hats", renamed.get(2L).orElseThrow().categoryName());
+        assertEquals("Tops", snapshot.get(1L).orElseThrow().categoryName());
+    }
+
+    @Test
+    @DisplayName("withStock changes stock and the in-stock facet only where it differs")
+    void withStock_updatesStockAndFacets() {
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(1, "A"), item(2, "B")));
+
+        Instant reserved = Instant.parse("2024-03-01T00:00:00Z");
+
+        ProductSnapshot changed = snapshot.withStock(Map.of(
+                1L, new ProductSnapshot.Stock(0, 1L, reserved),
+                9L, new ProductSnapshot.Stock(4, 1L, reserved)));
+
+        assertEquals(0, changed.get(1L).orElseThrow().stockQuantity());
+        assertEquals(1L, changed.get(1L).orElseThrow().version());
+        assertEquals(reserved, changed.get(1L).orElseThrow().lastModified());
+        assertEquals(1, snapshot.get(1L).orElseThrow().stockQuantity());
+        assertEquals(1, changed.filter(null, null, true, PageRequest.of(0, 10)).page().getTotalElements());
+        assertSame(snapshot, snapshot.withStock(Map.of(2L, new ProductSnapshot.Stock(1, 0L, reserved))));
+    }
+
+    @Test
+    @DisplayName("with and withStock keep a held product whose version is newer")
+    void olderVersions_doNotReplaceNewer() {
+        Instant reserved = Instant.parse("2024-03-01T00:00:00Z");
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(1, "A")))
+                .withStock(Map.of(1L, new ProductSnapshot.Stock(0, 7L, reserved)));
+        ProductSnapshot.Item saved = new ProductSnapshot.Item(1L, "A2", null, new BigDecimal("10.00"), 1, 7L, "Tops",
+                6L, 0L, Instant.parse("2024-02-01T00:00:00Z"));
+
+        assertSame(snapshot, snapshot.with(saved));
+        assertSame(snapshot, snapshot.withStock(Map.of(1L, new ProductSnapshot.Stock(1, 6L, reserved))));
+        assertEquals(0, snapshot.get(1L).orElseThrow().stockQuantity());
+        assertEquals(7L, snapshot.get(1L).orElseThrow().version());
+    }
+
+    @Test
+    @DisplayName("toDTO hands out a fresh DTO on every read")
+    void toDTO_returnsFreshCopies() {
+        ProductSnapshot snapshot = ProductSnapshot.of(List.of(item(1, "A")));
+
+        ProductDTO first = snapshot.get(1L).orElseThrow().toDTO();
+        first.setName("changed");
+
+        assertEquals("A", snapshot.get(1L).orElseThrow().toDTO().getName());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.virtualclothingstore.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductSuggestIndex Tests")
+class ProductSuggestIndexTest {
+
+    private static ProductSnapshot.Item item(long id, String name) {
+        return new ProductSnapshot.Item(id, name, null, BigDecimal.TEN, 1, 1L, "Tops", 0L, 0L, null);
+    }
+
+    private final ProductSnapshot snapshot = ProductSnapshot.of(List.of(
+            item(1, "Silk Shirt"),
+            item(2, "Linen Shirt"),
+            item(3, "Shirt Dress"),
+            item(4, "Short Skirt"),
+            item(5, "Shorts")));
+
+    @Test
+    @DisplayName("completes a prefix with the most common name words first")
+    void suggest_ranksByProductCount() {
+        assertEquals(List.of("shirt", "short", "shorts", "silk", "skirt"), snapshot.suggest("S", 10));
+        assertEquals(List.of("shirt", "short"), snapshot.suggest("sh", 2));
+        assertEquals(List.of(), snapshot.suggest("x", 10));
+    }
+
+    @Test
+    @DisplayName("keeps earlier words and completes only the last one")
+    void suggest_completesLastWord() {
+        assertEquals(List.of("linen shirt", "linen short", "linen shorts"), snapshot.suggest("  Linen sh", 10));
+        assertEquals(List.of(), snapshot.suggest("linen ", 10));
+    }
+
+    @Test
+    @DisplayName("follows renamed, added and deleted products")
+    void suggest_followsWrites() {
+        ProductSnapshot changed = snapshot
+                .with(item(1, "Silk Blouse"))
+                .with(item(6, "Shirt Jacket"))
+                .without(5L);
+
+        assertEquals(List.of("shirt", "short"), changed.suggest("sh", 10));
+        assertEquals(List.of("blouse"), changed.suggest("bl", 10));
+        assertEquals(List.of("shirt", "short", "shorts"), snapshot.suggest("sh", 10));
+    }
+
+    @Test
+    @DisplayName("an index updated in place matches a fresh build")
+    void replaced_matchesRebuild() {
+        ProductSnapshot.Item[] items = {item(1, "Blue Shirt"), item(2, "Blue Jeans")};
+        ProductSuggestIndex updated = ProductSuggestIndex.build(items)
+                .replaced(items[0], item(1, "Red Shirt"))
+                .replaced(items[1], null);
+        ProductSuggestIndex rebuilt = ProductSuggestIndex.build(new ProductSnapshot.Item[] {item(1, "Red Shirt")});
+
+        assertEquals(rebuilt.size(), updated.size());
+        assertEquals(rebuilt.suggest("r", 5), updated.suggest("r", 5));
+        assertTrue(updated.suggest("b", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("a rename between known words only changes counts and still matches a fresh build")
+    void replaced_countsOnly_matchesRebuild() {
+        ProductSnapshot.Item[] items = {item(1, "Blue Shirt"), item(2, "Red Shirt"), item(3, "Red Jeans"), item(4, "Blue Jeans")};
+        ProductSuggestIndex updated = ProductSuggestIndex.build(items).replaced(items[0], item(1, "Red Jeans"));
+        ProductSuggestIndex rebuilt = ProductSuggestIndex.build(new ProductSnapshot.Item[] {
+                item(1, "Red Jeans"), items[1], items[2], items[3]});
+
+        assertEquals(rebuilt.size(), updated.size());
+        for (String prefix : List.of("b", "j", "r", "s")) {
+            assertEquals(rebuilt.suggest(prefix, 5), updated.suggest(prefix, 5));
+        }
+    }
+}
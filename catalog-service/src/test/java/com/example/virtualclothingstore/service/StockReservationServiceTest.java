@@ -0,0 +1,156 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.dto.ReservationDTO;
+import com.example.virtualclothingstore.dto.ReservationItemDTO;
+import com.example.virtualclothingstore.entity.ReservationStatus;
+import com.example.virtualclothingstore.entity.StockReservation;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.repository.ProductRepository;
+import com.example.virtualclothingstore.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Unit Tests")
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductSnapshotService snapshotService;
+
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StockReservationService(reservationRepository, productRepository, snapshotService,
+                Duration.ofMinutes(15));
+    }
+
+    private StockReservation stored(long id, ReservationStatus status) {
+        StockReservation reservation = new StockReservation(LocalDateTime.now().plusMinutes(5));
+        reservation.setId(id);
+        reservation.setStatus(status);
+        reservation.addItem(3L, 1);
+        reservation.addItem(1L, 2);
+        return reservation;
+    }
+
+    @Test
+    void reserve_insertsThenDecrementsInProductOrder() {
+        when(reservationRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productRepository.reserveStock(anyLong(), anyInt())).thenReturn(1);
+
+        StockReservation reservation = service.reserve(List.of(
+                new ReservationItemDTO(3L, 1), new ReservationItemDTO(1L, 2), new ReservationItemDTO(3L, 4)));
+
+        InOrder order = inOrder(reservationRepository, productRepository);
+        order.verify(reservationRepository).saveAndFlush(reservation);
+        order.verify(productRepository).reserveStock(1L, 2);
+        order.verify(productRepository).reserveStock(3L, 5);
+        assertEquals(2, reservation.getItems().size());
+        assertEquals(ReservationStatus.RESERVED, reservation.getStatus());
+        assertTrue(reservation.getExpiresAt().isAfter(LocalDateTime.now().plusMinutes(14)));
+        verify(snapshotService).stockChanged(Set.of(1L, 3L));
+    }
+
+    @Test
+    void reserve_shortItemFailsWholeReservation() {
+        when(reservationRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        when(productRepository.reserveStock(2L, 9)).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> service.reserve(List.of(
+                new ReservationItemDTO(1L, 2), new ReservationItemDTO(2L, 9))));
+        verify(snapshotService, never()).stockChanged(any());
+    }
+
+    @Test
+    void reserve_invalidItemsRejected() {
+        assertThrows(BadRequestException.class, () -> service.reserve(List.of()));
+        assertThrows(BadRequestException.class, () -> service.reserve(List.of(new ReservationItemDTO(1L, 0))));
+        verifyNoInteractions(reservationRepository, productRepository);
+    }
+
+    @Test
+    void commit_keepsStockTaken() {
+        when(reservationRepository.updateStatusIfNotExpired(eq(7L), eq(ReservationStatus.RESERVED),
+                eq(ReservationStatus.COMMITTED), any())).thenReturn(1);
+        when(reservationRepository.findWithItemsById(7L)).thenReturn(Optional.of(stored(7, ReservationStatus.COMMITTED)));
+
+        assertEquals(ReservationStatus.COMMITTED, service.commit(7L).getStatus());
+        verify(productRepository, never()).restoreStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void commit_expiredOrSettledReservationConflicts() {
+        when(reservationRepository.updateStatusIfNotExpired(anyLong(), any(), any(), any())).thenReturn(0);
+        when(reservationRepository.findWithItemsById(7L)).thenReturn(Optional.of(stored(7, ReservationStatus.RESERVED)));
+        when(reservationRepository.findWithItemsById(8L)).thenReturn(Optional.of(stored(8, ReservationStatus.RELEASED)));
+        when(reservationRepository.findWithItemsById(9L)).thenReturn(Optional.empty());
+
+        assertTrue(assertThrows(ConflictException.class, () -> service.commit(7L)).getMessage().contains("expired"));
+        assertTrue(assertThrows(ConflictException.class, () -> service.commit(8L)).getMessage().contains("RELEASED"));
+        assertThrows(ResourceNotFoundException.class, () -> service.commit(9L));
+    }
+
+    @Test
+    void release_returnsStockInProductOrder() {
+        when(reservationRepository.updateStatus(7L, ReservationStatus.RESERVED, ReservationStatus.RELEASED)).thenReturn(1);
+        when(reservationRepository.findWithItemsById(7L)).thenReturn(Optional.of(stored(7, ReservationStatus.RELEASED)));
+
+        assertEquals(ReservationStatus.RELEASED, service.release(7L).getStatus());
+
+        InOrder order = inOrder(productRepository);
+        order.verify(productRepository).restoreStock(1L, 2);
+        order.verify(productRepository).restoreStock(3L, 1);
+        verify(snapshotService).stockChanged(List.of(1L, 3L));
+    }
+
+    @Test
+    void release_settledReservationConflicts() {
+        when(reservationRepository.updateStatus(7L, ReservationStatus.RESERVED, ReservationStatus.RELEASED)).thenReturn(0);
+        when(reservationRepository.findWithItemsById(7L)).thenReturn(Optional.of(stored(7, ReservationStatus.COMMITTED)));
+
+        assertThrows(ConflictException.class, () -> service.release(7L));
+        verify(productRepository, never()).restoreStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void expire_returnsFalseWhenAlreadySettled() {
+        when(reservationRepository.updateStatus(7L, ReservationStatus.RESERVED, ReservationStatus.EXPIRED)).thenReturn(0);
+
+        assertFalse(service.expire(7L));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void toDTO_mapsReservation() {
+        ReservationDTO dto = service.toDTO(stored(7, ReservationStatus.RESERVED));
+
+        assertEquals(7L, dto.getId());
+        assertEquals("RESERVED", dto.getStatus());
+        assertEquals(2, dto.getItems().size());
+        assertEquals(3L, dto.getItems().get(0).getProductId());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.virtualclothingstore.service;
+
+import com.example.virtualclothingstore.entity.ReservationStatus;
+import com.example.virtualclothingstore.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationSweeper Unit Tests")
+class StockReservationSweeperTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private StockReservationService reservationService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void sweep_expiresOverdueReservationsOneByOne() {
+        StockReservationSweeper sweeper = new StockReservationSweeper(reservationRepository, reservationService,
+                meterRegistry, 100);
+        when(reservationRepository.findExpiredIds(eq(ReservationStatus.RESERVED), any(), eq(PageRequest.of(0, 100))))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(reservationService.expire(1L)).thenReturn(true);
+        when(reservationService.expire(2L)).thenReturn(false);
+        when(reservationService.expire(3L)).thenThrow(new IllegalStateException("db down"));
+
+        assertEquals(1, sweeper.sweep());
+        assertEquals(1.0, meterRegistry.counter("catalog.reservations.expired").count());
+    }
+}
@@ -0,0 +1,39 @@
+// k6 load test for POST /api/orders.
+//
+// Run it once per threading mode against the same data and compare p95/p99 and throughput:
+//   SPRING_THREADS_VIRTUAL_ENABLED=false java -jar order-service/target/order-service-*.jar
+//   SPRING_THREADS_VIRTUAL_ENABLED=true  java -jar order-service/target/order-service-*.jar
+//   k6 run -e BASE_URL=http://localhost:8081 -e CUSTOMER_ID=1 -e PRODUCT_IDS=1,2,3 order-service/load-test/order-creation.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const CUSTOMER_ID = Number(__ENV.CUSTOMER_ID || 1);
+const PRODUCT_IDS = (__ENV.PRODUCT_IDS || '1,2,3').split(',').map(Number);
+
+export const options = {
+    scenarios: {
+        orders: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 2000) },
+                { duration: '2m', target: Number(__ENV.VUS || 2000) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(95)<500', 'p(99)<1500'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const items = PRODUCT_IDS.map((productId) => ({ productId, quantity: 1 + Math.floor(Math.random() * 3) }));
+    const res = http.post(`${BASE_URL}/api/orders`, JSON.stringify({ customerId: CUSTOMER_ID, items }), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    check(res, { 'order accepted': (r) => r.status === 200 || r.status === 202 });
+}
@@ -2,10 +2,14 @@ package com.example.virtualclothingstore;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Reactive reads never open transactions; JPA keeps the only transaction manager
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
 @EnableFeignClients
+@EnableScheduling
 public class VirtualClothingStoreApplication {
 
     public static void main(String[] args) {
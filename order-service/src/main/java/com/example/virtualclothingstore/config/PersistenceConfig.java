@@ -0,0 +1,26 @@
+package com.example.virtualclothingstore.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * JPA and R2DBC run side by side: writes and most reads go through JPA, order history
+ * reads under /api/v2/orders through R2DBC. Spring Boot stops auto-configuring the JDBC
+ * DataSource as soon as an R2DBC ConnectionFactory exists, so it is declared here from
+ * the usual spring.datasource.* properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class PersistenceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.virtualclothingstore.config;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes Hibernate's per-region second-level cache statistics (requests by result,
+ * puts and cached entries) under the {@code hibernate.second.level.cache.*} names, and
+ * the query cache totals under {@code hibernate.cache.query.*}.
+ * Statistics are only collected with {@code hibernate.generate_statistics=true}.
+ */
+class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final SessionFactory sessionFactory;
+    private final Collection<String> regions;
+
+    SecondLevelCacheMetrics(SessionFactory sessionFactory, Collection<String> regions) {
+        this.sessionFactory = sessionFactory;
+        this.regions = regions;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = sessionFactory.getStatistics();
+        for (String region : regions) {
+            counter(registry, statistics, region, "hibernate.second.level.cache.requests", "hit", CacheRegionStatistics::getHitCount);
+            counter(registry, statistics, region, "hibernate.second.level.cache.requests", "miss", CacheRegionStatistics::getMissCount);
+            counter(registry, statistics, region, "hibernate.second.level.cache.puts", null, CacheRegionStatistics::getPutCount);
+            Gauge.builder("hibernate.second.level.cache.size", statistics, s -> regionValue(s, region, CacheRegionStatistics::getElementCountInMemory))
+                    .tag("region", region)
+                    .register(registry);
+        }
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.query.requests", statistics, Statistics::getQueryCacheMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.query.puts", statistics, Statistics::getQueryCachePutCount)
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String region, String name, String result,
+                                ToLongFunction<CacheRegionStatistics> value) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, s -> regionValue(s, region, value))
+                .tag("region", region);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+
+    // Regions that no entity uses have no statistics
+    private static double regionValue(Statistics statistics, String region, ToLongFunction<CacheRegionStatistics> value) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics != null ? value.applyAsLong(regionStatistics) : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.virtualclothingstore.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Size and time-to-live per Hibernate second-level cache region, bound from
+ * {@code jpa.second-level-cache.regions.<region>.*}.
+ */
+@ConfigurationProperties("jpa.second-level-cache")
+public class SecondLevelCacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    // Getters and Setters
+    public Map<String, Region> getRegions() { return regions; }
+    public void setRegions(Map<String, Region> regions) { this.regions = regions; }
+
+    public static class Region {
+
+        private long maxEntries = 1000;
+        private Duration ttl = Duration.ofMinutes(10);
+
+        // Getters and Setters
+        public long getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(long maxEntries) { this.maxEntries = maxEntries; }
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+    }
+}
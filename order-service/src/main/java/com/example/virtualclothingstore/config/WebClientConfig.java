@@ -0,0 +1,20 @@
+package com.example.virtualclothingstore.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Load-balanced WebClient for non-blocking calls to other services; service names such as
+ * http://catalog-service are resolved through Eureka like the Feign clients.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WebClientConfig {
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+}
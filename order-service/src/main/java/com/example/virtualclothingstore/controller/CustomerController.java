@@ -2,6 +2,10 @@ package com.example.virtualclothingstore.controller;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,10 +14,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.virtualclothingstore.dto.CustomerCursorPage;
 import com.example.virtualclothingstore.dto.CustomerDTO;
 import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 import com.example.virtualclothingstore.service.CustomerService;
 
@@ -23,15 +30,43 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/customers")
 public class CustomerController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CustomerService customerService;
 
     public CustomerController(CustomerService customerService) {
         this.customerService = customerService;
     }
 
+    /**
+     * @deprecated returns every customer in one response; use GET /api/customers/page,
+     * or GET /api/customers/search to find customers by email, name or phone.
+     */
+    @Deprecated
     @GetMapping
-    public List<CustomerDTO> getAllCustomers() {
-        return customerService.getAllCustomerDTOs();
+    public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/customers/page>; rel=\"successor-version\"")
+                .body(customerService.getAllCustomerDTOs());
+    }
+
+    @GetMapping("/page")
+    public Page<CustomerDTO> getCustomerPage(@RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "20") int size) {
+        validateSize(size);
+        return customerService.getCustomerDTOPage(PageRequest.of(page, size, Sort.by("id")));
+    }
+
+    @GetMapping("/search")
+    public CustomerCursorPage searchCustomers(@RequestParam(required = false) String email,
+                                              @RequestParam(required = false) String emailPrefix,
+                                              @RequestParam(required = false) String name,
+                                              @RequestParam(required = false) String phone,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int size) {
+        validateSize(size);
+        return customerService.searchCustomers(email, emailPrefix, name, phone, cursor, size);
     }
 
     @GetMapping("/{id}")
@@ -67,4 +102,10 @@ public class CustomerController {
         customerService.deleteCustomer(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private void validateSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -1,37 +1,68 @@
 package com.example.virtualclothingstore.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.time.LocalDateTime;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.virtualclothingstore.dto.OrderCursorPage;
 import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderIntakeStatus;
 import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
 import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.PreconditionFailedException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.OrderExportService;
+import com.example.virtualclothingstore.service.OrderIdempotencyService;
+import com.example.virtualclothingstore.service.OrderImportService;
+import com.example.virtualclothingstore.service.OrderIntakeService;
 import com.example.virtualclothingstore.service.OrderService;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final OrderService orderService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderExportService orderExportService;
+    private final OrderImportService orderImportService;
 
     // Constructor injection for better testability
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           OrderIdempotencyService orderIdempotencyService,
+                           OrderIntakeService orderIntakeService,
+                           OrderExportService orderExportService,
+                           OrderImportService orderImportService) {
         this.orderService = orderService;
+        this.orderIdempotencyService = orderIdempotencyService;
+        this.orderIntakeService = orderIntakeService;
+        this.orderExportService = orderExportService;
+        this.orderImportService = orderImportService;
     }
 
     @GetMapping
@@ -46,11 +77,72 @@ public class OrderController {
         return orderService.getAllOrderDTOs(pageable);
     }
 
+    /**
+     * Cursor-based listing ordered by (orderDate, id). Unlike the page endpoint it never runs
+     * OFFSET scans or a count query; pass the returned nextCursor to fetch the following slice.
+     */
+    @GetMapping("/scroll")
+    public OrderCursorPage scrollOrders(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "10") int size) {
+        validateScrollSize(size);
+        if ((startDate == null) != (endDate == null)) {
+            throw new BadRequestException("startDate and endDate must be given together");
+        }
+        if (startDate != null) {
+            return orderService.getOrderDTOsByDateRangeAfter(startDate, endDate, cursor, size);
+        }
+        return orderService.getOrderDTOsAfter(cursor, size);
+    }
+
+    /**
+     * Streams all orders in the date range as NDJSON (one OrderDTO per line) or CSV (one row
+     * per order item). Rows are written as they are read, so the range size is not bounded by heap.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+                                                              @RequestParam(defaultValue = "ndjson") String format) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("format must be ndjson or csv");
+        }
+        StreamingResponseBody body = out -> orderExportService.exportOrders(startDate, endDate, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders." + exportFormat.getExtension())
+                .body(body);
+    }
+
+    /**
+     * Bulk import for migrations: NDJSON (one OrderDTO per line) or CSV (one row per item; rows
+     * sharing an orderRef form one order). The body is parsed as it arrives and committed in
+     * chunks, and the response streams one OrderImportResult per order as NDJSON. A CSV header
+     * without the item columns, or a first NDJSON line that is not JSON, is a 400.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<StreamingResponseBody> importOrders(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body) throws IOException {
+        OrderExportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? OrderExportService.Format.CSV
+                : OrderExportService.Format.NDJSON;
+        // Checked here, while an error can still become the status code
+        OrderImportService.RecordReader records = orderImportService.open(body, format);
+        StreamingResponseBody report = out -> orderImportService.importOrders(records, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(report);
+    }
+
+    /** Returns the order with its version as a strong ETag, to be sent back in If-Match on PUT. */
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
-        OrderDTO orderDTO = orderService.getOrderDTOById(id)
+        Order order = orderService.getOrderById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
-        return ResponseEntity.ok(orderDTO);
+        return ResponseEntity.ok().eTag(eTag(order)).body(orderService.toDTO(order));
     }
 
     @GetMapping("/customer/{customerId}")
@@ -61,11 +153,41 @@ public class OrderController {
         return orderService.getOrderDTOsByCustomerId(customerId, pageable);
     }
 
+    @GetMapping("/customer/{customerId}/scroll")
+    public OrderCursorPage scrollOrdersByCustomer(@PathVariable Long customerId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "10") int size) {
+        validateScrollSize(size);
+        return orderService.getOrderDTOsByCustomerIdAfter(customerId, cursor, size);
+    }
+
+    /**
+     * Creates an order. With an Idempotency-Key header, a retried request returns the
+     * OrderDTO stored for the first one instead of creating another order. In async intake
+     * mode requests without a key are queued and answered with 202 and a status URL.
+     */
     @PostMapping
-    public OrderDTO createOrder(@RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<?> createOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @RequestBody OrderDTO orderDTO) {
+        if (idempotencyKey != null) {
+            return ResponseEntity.ok(orderIdempotencyService.createOrder(idempotencyKey, orderDTO));
+        }
+        if (orderIntakeService.isAsync()) {
+            OrderIntakeStatus status = orderIntakeService.submit(orderDTO);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/intake/" + status.getTicketId()))
+                    .body(status);
+        }
         Order order = orderService.fromDTO(orderDTO);
         Order saved = orderService.saveOrder(order);
-        return orderService.toDTO(saved);
+        return ResponseEntity.ok(orderService.toDTO(saved));
+    }
+
+    @GetMapping("/intake/{ticketId}")
+    public ResponseEntity<OrderIntakeStatus> getIntakeStatus(@PathVariable String ticketId) {
+        OrderIntakeStatus status = orderIntakeService.getStatus(ticketId)
+                .orElseThrow(() -> new ResourceNotFoundException("Intake ticket not found: " + ticketId));
+        return ResponseEntity.ok(status);
     }
 
     @PostMapping("/{orderId}/products")
@@ -80,6 +202,15 @@ public class OrderController {
         }
     }
 
+    /** Sets the quantity of a product on the order (0 removes it); only that line and the total are written. */
+    @PutMapping("/{orderId}/products/{productId}")
+    public ResponseEntity<Void> changeProductQuantity(@PathVariable Long orderId,
+                                                      @PathVariable Long productId,
+                                                      @RequestParam Integer quantity) {
+        orderService.changeProductQuantity(orderId, productId, quantity);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{orderId}/products/{productId}")
     public ResponseEntity<Void> removeProductFromOrder(@PathVariable Long orderId, @PathVariable Long productId) {
         try {
@@ -90,15 +221,31 @@ public class OrderController {
         }
     }
 
+    /**
+     * Replaces the order. With If-Match the update only applies to the version the client last
+     * read (412 otherwise); without it, a concurrent update still fails this one with 409.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id, @RequestBody OrderDTO orderDTO) {
-        if (!orderService.getOrderById(id).isPresent()) {
-            throw new ResourceNotFoundException("Order not found with id: " + id);
-        }
+    public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody OrderDTO orderDTO) {
+        Long expectedVersion = parseIfMatch(ifMatch);
         Order order = orderService.fromDTO(orderDTO);
-        order.setId(id);
-        Order saved = orderService.saveOrder(order);
-        return ResponseEntity.ok(orderService.toDTO(saved));
+        Order saved = orderService.updateOrder(id, order, expectedVersion);
+        return ResponseEntity.ok().eTag(eTag(saved)).body(orderService.toDTO(saved));
+    }
+
+    /** Moves the order along the status lifecycle; 409 when the current status does not allow it. */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Void> changeStatus(@PathVariable Long id, @RequestParam String status) {
+        OrderStatus target;
+        try {
+            target = OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown order status: " + status);
+        }
+        orderService.changeStatus(id, target);
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{id}")
@@ -109,4 +256,30 @@ public class OrderController {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    static String eTag(Order order) {
+        return "\"" + order.getVersion() + "\"";
+    }
+
+    // If-Match carries the ETag of a previous read; "*" (or no header) accepts any version
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match requires a strong ETag");
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current ETag");
+        }
+    }
+
+    private void validateScrollSize(int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.virtualclothingstore.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.virtualclothingstore.service.ProductCache;
+
+/**
+ * Invalidation hook for the product near-cache, called per order-service instance by an
+ * operator or deploy script when a product's name or price changes. catalog-service does
+ * not call it, so anything not invalidated explicitly is only refreshed after the TTL.
+ */
+@RestController
+@RequestMapping("/api/product-cache")
+public class ProductCacheController {
+
+    private final ProductCache productCache;
+
+    public ProductCacheController(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @DeleteMapping("/products/{productId}")
+    public ResponseEntity<Void> invalidateProduct(@PathVariable Long productId) {
+        productCache.invalidate(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/products")
+    public ResponseEntity<Void> invalidateAll() {
+        productCache.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+}
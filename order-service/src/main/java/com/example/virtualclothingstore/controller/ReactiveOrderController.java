@@ -0,0 +1,57 @@
+package com.example.virtualclothingstore.controller;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.ReactiveOrderQueryService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only order history backed by R2DBC. Request threads are released while the
+ * database and catalog calls are in flight. JSON (the default) collects the orders into a
+ * single array; asking for application/x-ndjson streams them one per line as they are
+ * read, with backpressure.
+ */
+@RestController
+@RequestMapping("/api/v2/orders")
+public class ReactiveOrderController {
+
+    private final ReactiveOrderQueryService queryService;
+
+    // Constructor injection for better testability
+    public ReactiveOrderController(ReactiveOrderQueryService queryService) {
+        this.queryService = queryService;
+    }
+
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<OrderDTO> getOrders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        return queryService.streamOrders(startDate, endDate);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<OrderDTO> getOrderById(@PathVariable Long id) {
+        return queryService.getOrder(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Order not found with id: " + id)));
+    }
+
+    @GetMapping(value = "/customer/{customerId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<OrderDTO> getOrdersByCustomer(@PathVariable Long customerId) {
+        return queryService.streamOrdersByCustomer(customerId);
+    }
+}
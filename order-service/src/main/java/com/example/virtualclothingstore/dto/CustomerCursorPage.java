@@ -0,0 +1,26 @@
+package com.example.virtualclothingstore.dto;
+
+import java.util.List;
+
+public class CustomerCursorPage {
+
+    private List<CustomerDTO> content;
+    private String nextCursor;
+
+    // Constructors
+    public CustomerCursorPage() {}
+
+    public CustomerCursorPage(List<CustomerDTO> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<CustomerDTO> getContent() { return content; }
+    public void setContent(List<CustomerDTO> content) { this.content = content; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,30 @@
+package com.example.virtualclothingstore.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated order listing. There is deliberately no total
+ * count; {@code nextCursor} is null on the last slice.
+ */
+public class OrderCursorPage {
+
+    private List<OrderDTO> content;
+    private String nextCursor;
+
+    // Constructors
+    public OrderCursorPage() {}
+
+    public OrderCursorPage(List<OrderDTO> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<OrderDTO> getContent() { return content; }
+    public void setContent(List<OrderDTO> content) { this.content = content; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasNext() { return nextCursor != null; }
+}
@@ -0,0 +1,45 @@
+package com.example.virtualclothingstore.dto;
+
+/**
+ * One line of the bulk import report. {@code record} is the 1-based position of the order in
+ * the uploaded file and {@code ref} the CSV orderRef, if any; {@code orderId} is set for
+ * created orders and {@code message} explains a failure.
+ */
+public class OrderImportResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private long record;
+    private String ref;
+    private String status;
+    private Long orderId;
+    private String message;
+
+    // Constructors
+    public OrderImportResult() {}
+
+    public OrderImportResult(long record, String ref, String status, Long orderId, String message) {
+        this.record = record;
+        this.ref = ref;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public long getRecord() { return record; }
+    public void setRecord(long record) { this.record = record; }
+
+    public String getRef() { return ref; }
+    public void setRef(String ref) { this.ref = ref; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,47 @@
+package com.example.virtualclothingstore.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an order accepted by the asynchronous intake. {@code orderId} is set
+ * once the writer has committed the order; {@code message} explains a failure.
+ */
+public class OrderIntakeStatus {
+
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String ticketId;
+    private String status;
+    private Long orderId;
+    private String message;
+    private LocalDateTime acceptedAt;
+
+    // Constructors
+    public OrderIntakeStatus() {}
+
+    public OrderIntakeStatus(String ticketId, String status, Long orderId, String message, LocalDateTime acceptedAt) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+        this.acceptedAt = acceptedAt;
+    }
+
+    // Getters and Setters
+    public String getTicketId() { return ticketId; }
+    public void setTicketId(String ticketId) { this.ticketId = ticketId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public LocalDateTime getAcceptedAt() { return acceptedAt; }
+    public void setAcceptedAt(LocalDateTime acceptedAt) { this.acceptedAt = acceptedAt; }
+}
@@ -0,0 +1,19 @@
+package com.example.virtualclothingstore.dto;
+
+import java.math.BigDecimal;
+
+import com.example.virtualclothingstore.entity.Money;
+
+/**
+ * Read-only order line row carrying its order id, so a page of items can be
+ * loaded with one flat query and grouped in memory.
+ */
+public record OrderItemView(Long orderId, Long id, Long productId, String productName,
+                            Integer quantity, BigDecimal price) {
+
+    // Used by the JPQL constructor expression, which selects the converted Money attribute
+    public OrderItemView(Long orderId, Long id, Long productId, String productName,
+                         Integer quantity, Money price) {
+        this(orderId, id, productId, productName, quantity, price != null ? price.toBigDecimal() : null);
+    }
+}
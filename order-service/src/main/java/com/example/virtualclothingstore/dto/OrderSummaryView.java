@@ -0,0 +1,21 @@
+package com.example.virtualclothingstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.virtualclothingstore.entity.Money;
+import com.example.virtualclothingstore.entity.OrderStatus;
+
+/**
+ * Read-only row for order list views, filled by a JPQL constructor expression
+ * so no managed Order/Customer entities are created.
+ */
+public record OrderSummaryView(Long id, Long customerId, String customerName,
+                               LocalDateTime orderDate, BigDecimal totalAmount, OrderStatus status) {
+
+    // Used by the JPQL constructor expressions, which select the converted Money attribute
+    public OrderSummaryView(Long id, Long customerId, String customerName,
+                            LocalDateTime orderDate, Money totalAmount, OrderStatus status) {
+        this(id, customerId, customerName, orderDate, totalAmount != null ? totalAmount.toBigDecimal() : null, status);
+    }
+}
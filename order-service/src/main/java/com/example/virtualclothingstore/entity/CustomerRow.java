@@ -0,0 +1,12 @@
+package com.example.virtualclothingstore.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read-only R2DBC mapping of the {@code customers} table, limited to what order reads need;
+ * see {@link Customer}.
+ */
+@Table("customers")
+public record CustomerRow(@Id Long id, String firstName, String lastName) {
+}
@@ -7,6 +7,7 @@ import java.util.List;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -14,20 +15,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // support the (orderDate, id) keyset ordering used by the cursor endpoints
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_customer_order_date_id", columnList = "customer_id, order_date, id")
+})
 public class Order {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; existing databases need db/pooled-sequences-migration.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    // Initialising the lazy proxy reads the customers second-level cache region first
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
@@ -35,13 +46,18 @@ public class Order {
     @Column(nullable = false)
     private LocalDateTime orderDate;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OrderStatus status;
 
+    // Optimistic lock; existing databases need db/order-version-migration.sql
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -61,7 +77,7 @@ public class Order {
     public Order(Customer customer, LocalDateTime orderDate, BigDecimal totalAmount, OrderStatus status) {
         this.customer = customer;
         this.orderDate = orderDate;
-        this.totalAmount = totalAmount;
+        setTotalAmount(totalAmount);
         this.status = status;
     }
 
@@ -75,12 +91,18 @@ public class Order {
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
 
-    public BigDecimal getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public BigDecimal getTotalAmount() { return totalAmount != null ? totalAmount.toBigDecimal() : null; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount != null ? Money.of(totalAmount) : null; }
+
+    public Money getTotal() { return totalAmount; }
+    public void setTotal(Money total) { this.totalAmount = total; }
 
     public OrderStatus getStatus() { return status; }
     public void setStatus(OrderStatus status) { this.status = status; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { this.orderItems = orderItems; }
 }
\ No newline at end of file
@@ -2,19 +2,29 @@ package com.example.virtualclothingstore.entity;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        // item lookups by order; order_date lets partitioned storage skip other months
+        @Index(name = "idx_order_items_order_id", columnList = "order_id, order_date")
+})
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    // On PostgreSQL the foreign key is (order_id, order_date), created by db/orders-partitioning.sql
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
 
+    // Copy of the order's date: the partition key that keeps the items in their order's monthly partition
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
     @Column(name = "product_id", nullable = false)
     private Long productId;
 
@@ -24,8 +34,16 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price; // Price at the time of order
+    private Money price; // Price at the time of order
+
+    @PrePersist
+    protected void onCreate() {
+        if (orderDate == null && order != null) {
+            orderDate = order.getOrderDate();
+        }
+    }
 
     // Constructors
     public OrderItem() {}
@@ -35,7 +53,7 @@ public class OrderItem {
         this.productId = productId;
         this.productName = productName;
         this.quantity = quantity;
-        this.price = price;
+        setPrice(price);
     }
 
     // Getters and Setters
@@ -45,6 +63,9 @@ public class OrderItem {
     public Order getOrder() { return order; }
     public void setOrder(Order order) { this.order = order; }
 
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
     public Long getProductId() { return productId; }
     public void setProductId(Long productId) { this.productId = productId; }
 
@@ -54,6 +75,9 @@ public class OrderItem {
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
 
-    public BigDecimal getPrice() { return price; }
-    public void setPrice(BigDecimal price) { this.price = price; }
+    public BigDecimal getPrice() { return price != null ? price.toBigDecimal() : null; }
+    public void setPrice(BigDecimal price) { this.price = price != null ? Money.of(price) : null; }
+
+    public Money getUnitPrice() { return price; }
+    public void setUnitPrice(Money unitPrice) { this.price = unitPrice; }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.virtualclothingstore.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read-only R2DBC mapping of the {@code order_items} table; see {@link OrderItem}.
+ */
+@Table("order_items")
+public record OrderItemRow(@Id Long id, Long orderId, LocalDateTime orderDate, Long productId, String productName,
+                           Integer quantity, BigDecimal price) {
+}
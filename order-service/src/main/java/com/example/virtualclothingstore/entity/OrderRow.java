@@ -0,0 +1,15 @@
+package com.example.virtualclothingstore.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read-only R2DBC mapping of the {@code orders} table used by the reactive read path.
+ * The schema itself is owned by the JPA {@link Order} entity.
+ */
+@Table("orders")
+public record OrderRow(@Id Long id, Long customerId, LocalDateTime orderDate, BigDecimal totalAmount, String status) {
+}
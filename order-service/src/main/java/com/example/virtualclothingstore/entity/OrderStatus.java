@@ -1,9 +1,40 @@
 package com.example.virtualclothingstore.entity;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle: PENDING -> CONFIRMED -> SHIPPED -> DELIVERED, with CANCELLED reachable
+ * until the order ships. DELIVERED and CANCELLED are final.
+ */
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
     SHIPPED,
     DELIVERED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    public Set<OrderStatus> nextStatuses() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(CONFIRMED, CANCELLED);
+            case CONFIRMED -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return nextStatuses().contains(target);
+    }
+
+    /** Statuses this one may be reached from; the WHERE clause of the conditional status UPDATE. */
+    public Set<OrderStatus> previousStatuses() {
+        Set<OrderStatus> previous = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previous.add(status);
+            }
+        }
+        return previous;
+    }
+}
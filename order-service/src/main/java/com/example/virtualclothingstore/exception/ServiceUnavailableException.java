@@ -0,0 +1,7 @@
+package com.example.virtualclothingstore.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
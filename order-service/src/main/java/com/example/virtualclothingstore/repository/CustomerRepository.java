@@ -1,10 +1,30 @@
 package com.example.virtualclothingstore.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.virtualclothingstore.entity.Customer;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-}
\ No newline at end of file
+
+    // Search queries seek past the last id of the previous slice; the limit comes from the Pageable
+
+    List<Customer> findByEmailAndIdGreaterThanOrderByIdAsc(String email, Long afterId, Pageable limit);
+
+    List<Customer> findByPhoneAndIdGreaterThanOrderByIdAsc(String phone, Long afterId, Pageable limit);
+
+    // Prefix must already be lower-cased and LIKE-escaped; served by idx_customers_email_lower
+    @Query("SELECT c FROM Customer c WHERE LOWER(c.email) LIKE :prefix ESCAPE '\\' AND c.id > :afterId ORDER BY c.id")
+    List<Customer> findByEmailPrefixAfter(@Param("prefix") String prefix, @Param("afterId") Long afterId, Pageable limit);
+
+    // Matches the start of the first or the last name; served by the two lower-case name indexes
+    @Query("SELECT c FROM Customer c WHERE (LOWER(c.firstName) LIKE :prefix ESCAPE '\\' OR LOWER(c.lastName) LIKE :prefix ESCAPE '\\') "
+            + "AND c.id > :afterId ORDER BY c.id")
+    List<Customer> findByNamePrefixAfter(@Param("prefix") String prefix, @Param("afterId") Long afterId, Pageable limit);
+}
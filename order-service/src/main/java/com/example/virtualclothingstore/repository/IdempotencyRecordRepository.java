@@ -0,0 +1,34 @@
+package com.example.virtualclothingstore.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.virtualclothingstore.entity.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Both only match while the caller still owns the claim; 0 means it was taken over
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.orderId = :orderId, r.responseBody = :responseBody "
+            + "WHERE r.key = :key AND r.claimToken = :token AND r.responseBody IS NULL")
+    int completeClaim(@Param("key") String key, @Param("token") String token,
+                      @Param("orderId") Long orderId, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.claimToken = :token AND r.responseBody IS NULL")
+    int deleteClaim(@Param("key") String key, @Param("token") String token);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.responseBody IS NULL AND r.createdAt < :cutoff")
+    int deleteStaleInProgress(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+}
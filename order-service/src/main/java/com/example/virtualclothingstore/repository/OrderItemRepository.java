@@ -1,5 +1,7 @@
 package com.example.virtualclothingstore.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -7,4 +9,7 @@ import com.example.virtualclothingstore.entity.OrderItem;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    // The lines of one product on one order; normally a single row
+    List<OrderItem> findByOrderIdAndProductIdOrderByIdAsc(Long orderId, Long productId);
+}
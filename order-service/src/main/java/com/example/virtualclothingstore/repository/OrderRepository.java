@@ -1,16 +1,28 @@
 package com.example.virtualclothingstore.repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.virtualclothingstore.dto.OrderItemView;
+import com.example.virtualclothingstore.dto.OrderSummaryView;
 import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -27,4 +39,99 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByOrderDateAfter(LocalDateTime date);
 
     List<Order> findByOrderDateBefore(LocalDateTime date);
-}
\ No newline at end of file
+
+    // Status changes are one conditional UPDATE: the row only moves when its current status is an
+    // allowed predecessor, and the version bump invalidates ETags and concurrent optimistic writers.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.version = o.version + 1 WHERE o.id = :id AND o.status IN :from")
+    int updateStatus(@Param("id") Long id, @Param("from") Collection<OrderStatus> from, @Param("target") OrderStatus target);
+
+    // Items carry their order's date as partition key, so re-dating an order moves its items with it
+    @Modifying
+    @Query("UPDATE OrderItem i SET i.orderDate = :orderDate WHERE i.order.id = :orderId")
+    int updateItemOrderDates(@Param("orderId") Long orderId, @Param("orderDate") LocalDateTime orderDate);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Long id);
+
+    // Line changes start here: the version bump locks the order row for the rest of the transaction
+    @Modifying
+    @Query("UPDATE Order o SET o.version = o.version + 1 WHERE o.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    // Native because totalAmount is a converted Money attribute; the query space keeps
+    // Hibernate from evicting unrelated second-level cache regions
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Query(value = "UPDATE orders SET total_amount = total_amount + :delta WHERE id = :id", nativeQuery = true)
+    int adjustTotal(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Two-phase paging for list endpoints: page over ids only, then load that page's rows
+    // with findSummariesByIdIn / findItemViewsByOrderIdIn.
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT count(o) FROM Order o")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.customer.id = :customerId",
+           countQuery = "SELECT count(o) FROM Order o WHERE o.customer.id = :customerId")
+    Page<Long> findPageIdsByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate",
+           countQuery = "SELECT count(o) FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate")
+    Page<Long> findPageIdsByOrderDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+
+    // Read-only projections for list views: only the columns OrderDTO needs, no managed entities
+    @Query("SELECT new com.example.virtualclothingstore.dto.OrderSummaryView(o.id, c.id, CONCAT(c.firstName, ' ', c.lastName), "
+            + "o.orderDate, o.totalAmount, o.status) FROM Order o JOIN o.customer c WHERE o.id IN :ids")
+    List<OrderSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // The date bounds cover the orders' dates; on partitioned storage they limit the scan to those months' item partitions
+    @Query("SELECT new com.example.virtualclothingstore.dto.OrderItemView(i.order.id, i.id, i.productId, i.productName, "
+            + "i.quantity, i.price) FROM OrderItem i WHERE i.order.id IN :orderIds "
+            + "AND i.orderDate >= :fromDate AND i.orderDate <= :toDate ORDER BY i.id")
+    List<OrderItemView> findItemViewsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds,
+                                                 @Param("fromDate") LocalDateTime fromDate,
+                                                 @Param("toDate") LocalDateTime toDate);
+
+    // Keyset (seek) queries ordered by (orderDate, id): no OFFSET and no count(*), so the cost of a
+    // slice does not grow with how deep the client has scrolled. Limit comes from the Pageable.
+    String SUMMARY_SELECT = "SELECT new com.example.virtualclothingstore.dto.OrderSummaryView(o.id, c.id, "
+            + "CONCAT(c.firstName, ' ', c.lastName), o.orderDate, o.totalAmount, o.status) FROM Order o JOIN o.customer c ";
+    String AFTER_CURSOR = "(o.orderDate > :afterDate OR (o.orderDate = :afterDate AND o.id > :afterId))";
+    String SEEK_ORDER = " ORDER BY o.orderDate, o.id";
+
+    @Query(SUMMARY_SELECT + SEEK_ORDER)
+    List<OrderSummaryView> findFirstSummaries(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + SEEK_ORDER)
+    List<OrderSummaryView> findSummariesAfter(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId,
+                                              Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE c.id = :customerId" + SEEK_ORDER)
+    List<OrderSummaryView> findFirstSummariesByCustomerId(@Param("customerId") Long customerId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE c.id = :customerId AND " + AFTER_CURSOR + SEEK_ORDER)
+    List<OrderSummaryView> findSummariesByCustomerIdAfter(@Param("customerId") Long customerId,
+                                                          @Param("afterDate") LocalDateTime afterDate,
+                                                          @Param("afterId") Long afterId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate" + SEEK_ORDER)
+    List<OrderSummaryView> findFirstSummariesByOrderDateBetween(@Param("startDate") LocalDateTime startDate,
+                                                                @Param("endDate") LocalDateTime endDate, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate AND " + AFTER_CURSOR + SEEK_ORDER)
+    List<OrderSummaryView> findSummariesByOrderDateBetweenAfter(@Param("startDate") LocalDateTime startDate,
+                                                                @Param("endDate") LocalDateTime endDate,
+                                                                @Param("afterDate") LocalDateTime afterDate,
+                                                                @Param("afterId") Long afterId, Pageable limit);
+
+    // Forward-only cursor for exports: rows are fetched from the driver in chunks and the
+    // entities are read-only, so the caller can clear the persistence context as it goes.
+    // Must be consumed inside a transaction and closed (try-with-resources).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.customer "
+            + "WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate ORDER BY o.orderDate, o.id")
+    Stream<Order> streamByOrderDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+}
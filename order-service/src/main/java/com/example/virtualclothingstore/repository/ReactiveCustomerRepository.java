@@ -0,0 +1,10 @@
+package com.example.virtualclothingstore.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.virtualclothingstore.entity.CustomerRow;
+
+@Repository
+public interface ReactiveCustomerRepository extends ReactiveCrudRepository<CustomerRow, Long> {
+}
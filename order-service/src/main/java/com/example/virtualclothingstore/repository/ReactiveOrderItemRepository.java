@@ -0,0 +1,19 @@
+package com.example.virtualclothingstore.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.virtualclothingstore.entity.OrderItemRow;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveOrderItemRepository extends ReactiveCrudRepository<OrderItemRow, Long> {
+
+    // The date bounds cover the orders' dates; on partitioned storage they limit the scan to those months' item partitions
+    Flux<OrderItemRow> findByOrderIdInAndOrderDateBetweenOrderByIdAsc(Collection<Long> orderIds,
+                                                                    LocalDateTime fromDate, LocalDateTime toDate);
+}
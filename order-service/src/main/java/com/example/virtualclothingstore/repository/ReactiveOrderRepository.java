@@ -0,0 +1,19 @@
+package com.example.virtualclothingstore.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.virtualclothingstore.entity.OrderRow;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveOrderRepository extends ReactiveCrudRepository<OrderRow, Long> {
+
+    // Newest first; served by idx_orders_customer_order_date_id
+    Flux<OrderRow> findByCustomerIdOrderByOrderDateDescIdDesc(Long customerId);
+
+    Flux<OrderRow> findByOrderDateBetweenOrderByOrderDateAscIdAsc(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -4,7 +4,9 @@ import com.example.virtualclothingstore.dto.ProductDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
 import java.util.List;
 
 @FeignClient(name = "catalog-service", fallback = CatalogClientFallback.class)
@@ -14,4 +16,7 @@ public interface CatalogClient {
 
     @GetMapping("/api/products/{id}")
     ProductDTO getProductById(@PathVariable("id") Long id);
+
+    @GetMapping("/api/products/batch")
+    List<ProductDTO> getProductsByIds(@RequestParam("ids") Collection<Long> ids);
 }
@@ -3,12 +3,20 @@ package com.example.virtualclothingstore.service;
 import com.example.virtualclothingstore.dto.ProductDTO;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class CatalogClientFallback implements CatalogClient {
 
+    private final ProductCache productCache;
+
+    public CatalogClientFallback(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
     @Override
     public List<ProductDTO> getAllProducts() {
         // return empty list when catalog service is unavailable
@@ -17,7 +25,16 @@ public class CatalogClientFallback implements CatalogClient {
 
     @Override
     public ProductDTO getProductById(Long id) {
-        // indicate failure by returning null; callers should handle absence
-        return null;
+        // serve the last known product if we have one; otherwise null, callers should handle absence
+        return productCache.getLastKnown(id).orElse(null);
+    }
+
+    @Override
+    public List<ProductDTO> getProductsByIds(Collection<Long> ids) {
+        // only the last known products are returned; callers treat missing ids as not found
+        return ids.stream()
+                .map(productCache::getLastKnown)
+                .flatMap(Optional::stream)
+                .toList();
     }
 }
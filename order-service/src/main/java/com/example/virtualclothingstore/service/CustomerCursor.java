@@ -0,0 +1,26 @@
+package com.example.virtualclothingstore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.virtualclothingstore.exception.BadRequestException;
+
+/**
+ * Seek position (last customer id) for the customer search. Clients only ever see the
+ * opaque URL-safe Base64 form.
+ */
+public record CustomerCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return new CustomerCursor(Long.valueOf(raw));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
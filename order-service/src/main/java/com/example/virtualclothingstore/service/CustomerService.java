@@ -1,12 +1,20 @@
 package com.example.virtualclothingstore.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.example.virtualclothingstore.dto.CustomerCursorPage;
 import com.example.virtualclothingstore.dto.CustomerDTO;
 import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.repository.CustomerRepository;
 
 @Service
@@ -27,10 +35,20 @@ public class CustomerService {
         return customerRepository.findById(id);
     }
 
+    /** Loads several customers with one IN query; ids that do not exist are simply absent. */
+    public List<Customer> getCustomersByIds(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : customerRepository.findAllById(ids);
+    }
+
     public Customer saveCustomer(Customer customer) {
         return customerRepository.save(customer);
     }
 
+    /**
+     * @deprecated loads every customer; use {@link #getCustomerDTOPage(Pageable)} or
+     * {@link #searchCustomers} instead.
+     */
+    @Deprecated
     public List<CustomerDTO> getAllCustomerDTOs() {
         return getAllCustomers().stream().map(this::toDTO).toList();
     }
@@ -39,6 +57,48 @@ public class CustomerService {
         return getCustomerById(id).map(this::toDTO);
     }
 
+    public Page<CustomerDTO> getCustomerDTOPage(Pageable pageable) {
+        return customerRepository.findAll(pageable).map(this::toDTO);
+    }
+
+    /**
+     * Cursor-paginated lookup by exactly one criterion: exact email, exact phone, or a
+     * case-insensitive prefix of the email or of the first or last name. Results are
+     * ordered by id; pass the previous page's nextCursor to continue.
+     */
+    public CustomerCursorPage searchCustomers(String email, String emailPrefix, String namePrefix, String phone,
+                                              String cursor, int size) {
+        long criteria = Stream.of(email, emailPrefix, namePrefix, phone).filter(value -> value != null && !value.isBlank()).count();
+        if (criteria != 1) {
+            throw new BadRequestException("Exactly one of email, emailPrefix, name or phone is required");
+        }
+        long afterId = cursor != null ? CustomerCursor.decode(cursor).id() : 0L;
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Customer> rows;
+        if (email != null && !email.isBlank()) {
+            rows = customerRepository.findByEmailAndIdGreaterThanOrderByIdAsc(email.trim(), afterId, limit);
+        } else if (phone != null && !phone.isBlank()) {
+            rows = customerRepository.findByPhoneAndIdGreaterThanOrderByIdAsc(phone.trim(), afterId, limit);
+        } else if (emailPrefix != null && !emailPrefix.isBlank()) {
+            rows = customerRepository.findByEmailPrefixAfter(likePrefix(emailPrefix), afterId, limit);
+        } else {
+            rows = customerRepository.findByNamePrefixAfter(likePrefix(namePrefix), afterId, limit);
+        }
+        boolean hasNext = rows.size() > size;
+        List<Customer> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? new CustomerCursor(slice.get(slice.size() - 1).getId()).encode() : null;
+        return new CustomerCursorPage(slice.stream().map(this::toDTO).toList(), nextCursor);
+    }
+
+    // Lower-cased to match the functional indexes; LIKE wildcards in user input are matched literally
+    static String likePrefix(String prefix) {
+        String escaped = prefix.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+
     public CustomerDTO toDTO(Customer customer) {
         return new CustomerDTO(customer.getId(), customer.getFirstName(), customer.getLastName(),
                 customer.getEmail(), customer.getPhone(), customer.getCreatedAt());
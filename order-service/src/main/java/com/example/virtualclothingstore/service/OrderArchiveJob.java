@@ -0,0 +1,75 @@
+package com.example.virtualclothingstore.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Housekeeping for the monthly partitions of orders and order_items (PostgreSQL, set up by
+ * db/orders-partitioning.sql). Each run creates the partitions for the coming months, so
+ * new orders never land in the default partition, and moves months that have left the hot
+ * window to the archive tablespace. Archived partitions stay attached to the same tables,
+ * so customer history and date-range queries read them without any routing in the code.
+ */
+@Component
+public class OrderArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int hotMonths;
+    private final int monthsAhead;
+    private final String archiveTablespace;
+    private final Counter archivedPartitions;
+
+    // Constructor injection for better testability
+    public OrderArchiveJob(JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${orders.archive.enabled:false}") boolean enabled,
+                           @Value("${orders.archive.hot-months:12}") int hotMonths,
+                           @Value("${orders.archive.months-ahead:3}") int monthsAhead,
+                           @Value("${orders.archive.tablespace:orders_archive}") String archiveTablespace) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.hotMonths = hotMonths;
+        this.monthsAhead = monthsAhead;
+        this.archiveTablespace = archiveTablespace;
+        this.archivedPartitions = Counter.builder("orders.archive.partitions")
+                .description("Monthly order partitions moved to the archive tablespace")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 2 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        int created = createUpcomingPartitions();
+        int archived = archiveOldPartitions();
+        logger.info("Order partitions: {} created, {} archived", created, archived);
+    }
+
+    /** Creates any missing partitions from the current month up to monthsAhead months ahead. */
+    public int createUpcomingPartitions() {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_order_partitions(CURRENT_DATE, (CURRENT_DATE + make_interval(months => ?))::date)",
+                Integer.class, monthsAhead);
+        return created != null ? created : 0;
+    }
+
+    /** Moves the partitions of months that ended more than hotMonths ago to the archive tablespace. */
+    public int archiveOldPartitions() {
+        Integer archived = jdbcTemplate.queryForObject("SELECT archive_order_partitions(?, ?)",
+                Integer.class, hotMonths, archiveTablespace);
+        int count = archived != null ? archived : 0;
+        archivedPartitions.increment(count);
+        return count;
+    }
+}
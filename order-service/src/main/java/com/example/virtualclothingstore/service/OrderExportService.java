@@ -0,0 +1,163 @@
+package com.example.virtualclothingstore.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.dto.OrderItemView;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams orders in a date range straight to an output stream. Orders are read through a
+ * forward-only cursor and handled in chunks: each chunk's items are loaded with one
+ * projection query, written out, and then the persistence context is cleared, so memory
+ * use does not depend on how many orders the range contains.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+    }
+
+    static final String CSV_HEADER = "orderId,orderDate,customerId,customerName,status,totalAmount,"
+            + "itemId,productId,productName,quantity,price";
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    // Constructor injection for better testability
+    public OrderExportService(OrderRepository orderRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              @Value("${orders.export.chunk-size:500}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Writes every order with orderDate in [startDate, endDate], ordered by date then id. Returns the order count. */
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime startDate, LocalDateTime endDate, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long exported = 0;
+        try (Stream<Order> orders = orderRepository.streamByOrderDateBetween(startDate, endDate)) {
+            Iterator<Order> iterator = orders.iterator();
+            List<Order> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    exported += flushChunk(chunk, format, writer);
+                }
+            }
+            exported += flushChunk(chunk, format, writer);
+        }
+        return exported;
+    }
+
+    private int flushChunk(List<Order> chunk, Format format, Writer writer) throws IOException {
+        int written = chunk.size();
+        if (written > 0) {
+            writeChunk(chunk, format, writer);
+            chunk.clear();
+            // Detach what this chunk loaded; the cursor keeps going
+            entityManager.clear();
+        }
+        writer.flush();
+        return written;
+    }
+
+    private void writeChunk(List<Order> chunk, Format format, Writer writer) throws IOException {
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        // The cursor runs in date order, so the chunk's first and last orders bound its items' partitions
+        List<Long> orderIds = chunk.stream().map(Order::getId).toList();
+        LocalDateTime fromDate = chunk.get(0).getOrderDate();
+        LocalDateTime toDate = chunk.get(chunk.size() - 1).getOrderDate();
+        for (OrderItemView item : orderRepository.findItemViewsByOrderIdIn(orderIds, fromDate, toDate)) {
+            itemsByOrder.computeIfAbsent(item.orderId(), k -> new ArrayList<>())
+                    .add(new OrderItemDTO(item.id(), item.productId(), item.productName(), item.quantity(), item.price()));
+        }
+        for (Order order : chunk) {
+            OrderDTO dto = new OrderDTO(order.getId(),
+                    order.getCustomer() != null ? order.getCustomer().getId() : null,
+                    order.getCustomer() != null ? order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName() : null,
+                    order.getOrderDate(), order.getTotalAmount(),
+                    order.getStatus() != null ? order.getStatus().name() : null,
+                    itemsByOrder.getOrDefault(order.getId(), List.of()));
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            } else {
+                writeCsvRows(dto, writer);
+            }
+        }
+    }
+
+    // One row per item; an order without items still gets a row with empty item columns
+    private void writeCsvRows(OrderDTO order, Writer writer) throws IOException {
+        String orderColumns = String.join(",", csv(order.getId()), csv(order.getOrderDate()), csv(order.getCustomerId()),
+                csv(order.getCustomerName()), csv(order.getStatus()), csv(order.getTotalAmount()));
+        if (order.getItems().isEmpty()) {
+            writer.write(orderColumns);
+            writer.write(",,,,,\n");
+            return;
+        }
+        for (OrderItemDTO item : order.getItems()) {
+            writer.write(orderColumns);
+            writer.write(',');
+            writer.write(String.join(",", csv(item.getId()), csv(item.getProductId()), csv(item.getProductName()),
+                    csv(item.getQuantity()), csv(item.getPrice())));
+            writer.write('\n');
+        }
+    }
+
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.virtualclothingstore.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.entity.IdempotencyRecord;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Makes POST /api/orders safe to retry. The first request with a given Idempotency-Key
+ * claims it by inserting an in-progress row, then creates the order and stores the
+ * response in the same transaction. Retries get the stored OrderDTO back; duplicates
+ * arriving while the first request is still running on this instance wait for its result
+ * instead of touching the database.
+ *
+ * An in-progress claim is only taken over once it is older than the stale-claim timeout,
+ * which must be well above the slowest order creation. Even then the original request can
+ * no longer complete it: completing and releasing are conditional on the claim's token, and
+ * a request that lost its claim rolls its order back.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Duration staleClaimTimeout;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter created;
+    private final Counter replayed;
+    private final Counter joined;
+
+    // Constructor injection for better testability
+    public OrderIdempotencyService(OrderService orderService,
+                                   IdempotencyRecordRepository repository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${orders.idempotency.ttl:PT24H}") Duration ttl,
+                                   @Value("${orders.idempotency.in-progress-timeout:PT30S}") Duration inProgressTimeout,
+                                   @Value("${orders.idempotency.stale-claim-timeout:PT10M}") Duration staleClaimTimeout) {
+        this.orderService = orderService;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.inProgressTimeout = inProgressTimeout;
+        this.staleClaimTimeout = staleClaimTimeout;
+        this.created = Counter.builder("orders.idempotency.requests").tag("outcome", "created").register(meterRegistry);
+        this.replayed = Counter.builder("orders.idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+        this.joined = Counter.builder("orders.idempotency.requests").tag("outcome", "in_flight").register(meterRegistry);
+    }
+
+    public OrderDTO createOrder(String key, OrderDTO request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+
+        InFlight pending = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash, requestHash);
+            joined.increment();
+            return await(existing.result);
+        }
+        try {
+            OrderDTO result = claimAndCreate(key, requestHash, request);
+            pending.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:PT1H}",
+               initialDelayString = "${orders.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        Integer purged = transactionTemplate.execute(status -> repository.deleteByCreatedAtBefore(cutoff));
+        if (purged != null && purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private OrderDTO claimAndCreate(String key, String requestHash, OrderDTO request) {
+        Optional<IdempotencyRecord> stored = repository.findById(key);
+        if (stored.isPresent()) {
+            IdempotencyRecord record = stored.get();
+            if (record.isCompleted() || !isStale(record)) {
+                return replay(record, requestHash);
+            }
+            // The instance that claimed this key died before committing; take it over
+            LocalDateTime cutoff = LocalDateTime.now().minus(staleClaimTimeout);
+            transactionTemplate.executeWithoutResult(status -> repository.deleteStaleInProgress(key, cutoff));
+        }
+
+        IdempotencyRecord claim = new IdempotencyRecord(key, requestHash, LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(claim));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key between the lookup and the insert
+            return repository.findById(key)
+                    .map(record -> replay(record, requestHash))
+                    .orElseThrow(() -> new ConflictException("A request with this Idempotency-Key is still being processed"));
+        }
+
+        try {
+            Order order = orderService.fromDTO(request);
+            OrderDTO result = transactionTemplate.execute(status -> {
+                Order saved = orderService.saveOrder(order);
+                OrderDTO dto = orderService.toDTO(saved);
+                if (repository.completeClaim(key, claim.getClaimToken(), saved.getId(), write(dto)) == 0) {
+                    // Throwing rolls the order back with the transaction
+                    throw new ConflictException("The claim on this Idempotency-Key was taken over by a retry");
+                }
+                return dto;
+            });
+            created.increment();
+            return result;
+        } catch (RuntimeException e) {
+            // Nothing was created, so let the client retry with the same key
+            transactionTemplate.executeWithoutResult(status -> repository.deleteClaim(key, claim.getClaimToken()));
+            throw e;
+        }
+    }
+
+    private OrderDTO replay(IdempotencyRecord record, String requestHash) {
+        checkSameRequest(record.getRequestHash(), requestHash);
+        if (!record.isCompleted()) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        }
+        replayed.increment();
+        try {
+            return objectMapper.readValue(record.getResponseBody(), OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key is unreadable", e);
+        }
+    }
+
+    private OrderDTO await(CompletableFuture<OrderDTO> result) {
+        try {
+            return result.get(inProgressTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private boolean isStale(IdempotencyRecord record) {
+        return record.getCreatedAt().isBefore(LocalDateTime.now().minus(staleClaimTimeout));
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    String fingerprint(OrderDTO request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint order request", e);
+        }
+    }
+
+    private String write(OrderDTO dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order response", e);
+        }
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderDTO> result) {
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.virtualclothingstore.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderImportResult;
+import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderItem;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Imports orders from an NDJSON or CSV stream for bulk migrations. The input is parsed one
+ * record at a time and handled in chunks: each chunk resolves its customers with one query and
+ * its products with one batched catalog lookup, then commits all valid orders in a single
+ * JDBC-batched transaction. A per-record result is written to the report as each chunk
+ * completes, so neither the input nor the report is ever held in memory.
+ */
+@Service
+public class OrderImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderImportService.class);
+
+    // CSV columns, matched by header name in any order; one row per item, rows sharing an orderRef form one order
+    static final String REF = "orderRef";
+    static final String CUSTOMER_ID = "customerId";
+    static final String ORDER_DATE = "orderDate";
+    static final String STATUS = "status";
+    static final String PRODUCT_ID = "productId";
+    static final String QUANTITY = "quantity";
+    static final String PRICE = "price";
+
+    public record Summary(long created, long failed) {}
+
+    /** One uploaded order: its position in the file, its CSV ref, and the parsed order or why it could not be parsed. */
+    record ImportRecord(long record, String ref, OrderDTO order, String error) {}
+
+    private final OrderService orderService;
+    private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Counter created;
+    private final Counter failed;
+
+    // Constructor injection for better testability
+    public OrderImportService(OrderService orderService,
+                              CustomerService customerService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.import.chunk-size:500}") int chunkSize) {
+        this.orderService = orderService;
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.created = Counter.builder("orders.import.records").tag("result", "created").register(meterRegistry);
+        this.failed = Counter.builder("orders.import.records").tag("result", "failed").register(meterRegistry);
+    }
+
+    public Summary importOrders(InputStream in, OrderExportService.Format format, OutputStream out) throws IOException {
+        return importOrders(open(in, format), out);
+    }
+
+    /**
+     * Starts reading an upload: the CSV header, or the first NDJSON line, is read and checked
+     * here, so a file that cannot be imported at all fails with a BadRequestException before
+     * any part of the report has been sent.
+     */
+    public RecordReader open(InputStream in, OrderExportService.Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return format == OrderExportService.Format.CSV ? new CsvRecordReader(reader) : new NdjsonRecordReader(reader);
+    }
+
+    public Summary importOrders(RecordReader records, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long createdCount = 0;
+        long failedCount = 0;
+        List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+        ImportRecord next;
+        do {
+            next = records.next();
+            if (next != null) {
+                chunk.add(next);
+            }
+            if (chunk.size() == chunkSize || (next == null && !chunk.isEmpty())) {
+                for (OrderImportResult result : importChunk(chunk)) {
+                    if (OrderImportResult.CREATED.equals(result.getStatus())) {
+                        createdCount++;
+                    } else {
+                        failedCount++;
+                    }
+                    writer.write(objectMapper.writeValueAsString(result));
+                    writer.write('\n');
+                }
+                // Let the client follow progress chunk by chunk
+                writer.flush();
+                chunk.clear();
+            }
+        } while (next != null);
+        writer.flush();
+
+        created.increment(createdCount);
+        failed.increment(failedCount);
+        logger.info("Order import finished: {} created, {} failed", createdCount, failedCount);
+        return new Summary(createdCount, failedCount);
+    }
+
+    /** Resolves and commits one chunk; results come back in input order. */
+    List<OrderImportResult> importChunk(List<ImportRecord> chunk) {
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (ImportRecord record : chunk) {
+            if (record.order() != null) {
+                customerIds.add(record.order().getCustomerId());
+                if (record.order().getItems() != null) {
+                    record.order().getItems().forEach(item -> productIds.add(item.getProductId()));
+                }
+            }
+        }
+        customerIds.remove(null);
+        Map<Long, Customer> customers = customerService.getCustomersByIds(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        Map<Long, ProductDTO> products = productIds.isEmpty() ? Map.of() : orderService.findProducts(productIds);
+
+        OrderImportResult[] results = new OrderImportResult[chunk.size()];
+        List<Order> orders = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRecord record = chunk.get(i);
+            if (record.error() != null) {
+                results[i] = failure(record, record.error());
+                continue;
+            }
+            try {
+                orders.add(toOrder(record.order(), customers, products));
+                positions.add(i);
+            } catch (BadRequestException e) {
+                results[i] = failure(record, e.getMessage());
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            try {
+                List<Order> saved = orderService.saveOrders(orders);
+                for (int i = 0; i < positions.size(); i++) {
+                    results[positions.get(i)] = success(chunk.get(positions.get(i)), saved.get(i));
+                }
+            } catch (RuntimeException chunkFailure) {
+                logger.warn("Import chunk of {} orders failed to commit, retrying individually", orders.size(), chunkFailure);
+                for (int i = 0; i < positions.size(); i++) {
+                    ImportRecord record = chunk.get(positions.get(i));
+                    Order order = orders.get(i);
+                    try {
+                        // Drop the ids and version handed out by the rolled-back attempt so the retry inserts again
+                        order.setId(null);
+                        order.setVersion(null);
+                        order.getOrderItems().forEach(item -> item.setId(null));
+                        results[positions.get(i)] = success(record, orderService.saveOrder(order));
+                    } catch (RuntimeException e) {
+                        results[positions.get(i)] = failure(record, "Could not be saved: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private Order toOrder(OrderDTO dto, Map<Long, Customer> customers, Map<Long, ProductDTO> products) {
+        if (dto.getId() != null) {
+            throw new BadRequestException("Imported orders must not have an id");
+        }
+        if (dto.getCustomerId() == null) {
+            throw new BadRequestException("customerId is required");
+        }
+        Customer customer = customers.get(dto.getCustomerId());
+        if (customer == null) {
+            throw new BadRequestException("Customer not found: " + dto.getCustomerId());
+        }
+        if (dto.getItems() == null || dto.getItems().isEmpty()) {
+            throw new BadRequestException("An order needs at least one item");
+        }
+
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setOrderDate(dto.getOrderDate() != null ? dto.getOrderDate() : LocalDateTime.now());
+        try {
+            order.setStatus(dto.getStatus() != null ? OrderStatus.valueOf(dto.getStatus()) : OrderStatus.PENDING);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid order status: " + dto.getStatus());
+        }
+        for (OrderItemDTO itemDTO : dto.getItems()) {
+            if (itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
+                throw new BadRequestException("Item quantity must be positive");
+            }
+            ProductDTO product = itemDTO.getProductId() != null ? products.get(itemDTO.getProductId()) : null;
+            if (product == null) {
+                throw new BadRequestException("Product not found: " + itemDTO.getProductId());
+            }
+            // A migrated order keeps the price it was sold at; the catalog price is the fallback
+            BigDecimal price = itemDTO.getPrice() != null ? itemDTO.getPrice() : product.getPrice();
+            order.getOrderItems().add(new OrderItem(order, product.getId(), product.getName(), itemDTO.getQuantity(), price));
+        }
+        order.setTotal(OrderPricing.total(order.getOrderItems()));
+        return order;
+    }
+
+    private static OrderImportResult success(ImportRecord record, Order order) {
+        return new OrderImportResult(record.record(), record.ref(), OrderImportResult.CREATED, order.getId(), null);
+    }
+
+    private static OrderImportResult failure(ImportRecord record, String message) {
+        return new OrderImportResult(record.record(), record.ref(), OrderImportResult.FAILED, null, message);
+    }
+
+    /** An opened upload; hands out one record per call and returns null at the end of the input. */
+    public interface RecordReader {
+        ImportRecord next() throws IOException;
+    }
+
+    private final class NdjsonRecordReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private ImportRecord first;
+        private long record;
+
+        NdjsonRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            first = read();
+            // A first line that is not JSON means the wrong file or content type, not one bad order
+            if (first != null && first.error() != null) {
+                throw new BadRequestException("First NDJSON line is not an order: " + first.error());
+            }
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            if (first != null) {
+                ImportRecord next = first;
+                first = null;
+                return next;
+            }
+            return read();
+        }
+
+        private ImportRecord read() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            record++;
+            try {
+                return new ImportRecord(record, null, objectMapper.readValue(line, OrderDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRecord(record, null, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRecordReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> pending;
+        private long record;
+
+        CsvRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            // Excel likes to prepend a byte order mark
+            List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            for (String required : List.of(CUSTOMER_ID, PRODUCT_ID, QUANTITY)) {
+                if (!columns.containsKey(required)) {
+                    throw new BadRequestException("CSV header must contain " + required);
+                }
+            }
+            pending = readRow();
+        }
+
+        @Override
+        public ImportRecord next() throws IOException {
+            if (pending == null) {
+                return null;
+            }
+            record++;
+            List<String> first = pending;
+            String ref = value(first, REF);
+            List<List<String>> rows = new ArrayList<>();
+            rows.add(first);
+            pending = readRow();
+            // Consecutive rows with the same non-empty orderRef are the items of one order
+            while (ref != null && pending != null && ref.equals(value(pending, REF))) {
+                rows.add(pending);
+                pending = readRow();
+            }
+            try {
+                OrderDTO order = new OrderDTO();
+                order.setCustomerId(longValue(first, CUSTOMER_ID));
+                String orderDate = value(first, ORDER_DATE);
+                order.setOrderDate(orderDate != null ? LocalDateTime.parse(orderDate) : null);
+                order.setStatus(value(first, STATUS));
+                List<OrderItemDTO> items = new ArrayList<>(rows.size());
+                for (List<String> row : rows) {
+                    OrderItemDTO item = new OrderItemDTO();
+                    item.setProductId(longValue(row, PRODUCT_ID));
+                    String quantity = value(row, QUANTITY);
+                    item.setQuantity(quantity != null ? Integer.valueOf(quantity) : null);
+                    String price = value(row, PRICE);
+                    item.setPrice(price != null ? new BigDecimal(price) : null);
+                    items.add(item);
+                }
+                order.setItems(items);
+                return new ImportRecord(record, ref, order, null);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                return new ImportRecord(record, ref, null, "Invalid value: " + e.getMessage());
+            }
+        }
+
+        private List<String> readRow() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            return parseCsvLine(line);
+        }
+
+        private String value(List<String> row, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= row.size()) {
+                return null;
+            }
+            String value = row.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private Long longValue(List<String> row, String column) {
+            String value = value(row, column);
+            return value != null ? Long.valueOf(value) : null;
+        }
+    }
+
+    /** Splits one CSV line; the reverse of OrderExportService.csv (quoted fields, doubled quotes). */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderIntakeStatus;
+import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ServiceUnavailableException;
+import com.example.virtualclothingstore.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Optional asynchronous intake for POST /api/orders, enabled with
+ * {@code orders.intake.mode=async}. Requests are validated on the HTTP thread and
+ * put on a bounded queue; a single writer thread drains it in micro-batches, resolves
+ * products and commits each batch in one transaction. In the default sync mode the
+ * writer is never started and orders are created inline as before.
+ *
+ * The service starts before and stops after the web server, so the writer is up before the
+ * first request and drains the queue once the server has stopped taking new ones. A submit
+ * that still arrives after {@link #stop()} is refused with 503 rather than queued for a
+ * writer that has already exited.
+ */
+@Service
+public class OrderIntakeService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final OrderService orderService;
+    private final boolean async;
+    private final int batchSize;
+    private final Duration statusRetention;
+    private final BlockingQueue<Ticket> queue;
+    private final Map<String, OrderIntakeStatus> statuses = new ConcurrentHashMap<>();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Timer queueWait;
+    private final Timer prepareLatency;
+    private final Timer commitLatency;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    // Held shared while queueing; stop() takes it exclusively so no ticket lands after the flag flips
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private Thread writer;
+
+    // Constructor injection for better testability
+    public OrderIntakeService(OrderService orderService,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.intake.mode:sync}") String mode,
+                              @Value("${orders.intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${orders.intake.batch-size:50}") int batchSize,
+                              @Value("${orders.intake.status-retention:PT15M}") Duration statusRetention) {
+        this.orderService = orderService;
+        this.async = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.statusRetention = statusRetention;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.accepted = Counter.builder("orders.intake.requests").tag("outcome", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("orders.intake.requests").tag("outcome", "rejected").register(meterRegistry);
+        this.queueWait = Timer.builder("orders.intake.stage.latency").tag("stage", "queue").register(meterRegistry);
+        this.prepareLatency = Timer.builder("orders.intake.stage.latency").tag("stage", "prepare").register(meterRegistry);
+        this.commitLatency = Timer.builder("orders.intake.stage.latency").tag("stage", "commit").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.intake.batch.size").register(meterRegistry);
+        Gauge.builder("orders.intake.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Validates the request and queues it for the writer. Throws
+     * {@link TooManyRequestsException} when the queue is full so callers back off, and
+     * {@link ServiceUnavailableException} once the service has been stopped.
+     */
+    public OrderIntakeStatus submit(OrderDTO request) {
+        validate(request);
+        String ticketId = UUID.randomUUID().toString();
+        OrderIntakeStatus status = new OrderIntakeStatus(ticketId, OrderIntakeStatus.PENDING, null, null, LocalDateTime.now());
+        stopLock.readLock().lock();
+        try {
+            if (stopped) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Order intake is shutting down, retry later");
+            }
+            statuses.put(ticketId, status);
+            if (!queue.offer(new Ticket(ticketId, request, System.nanoTime()))) {
+                statuses.remove(ticketId);
+                rejected.increment();
+                throw new TooManyRequestsException("Order intake queue is full, retry later");
+            }
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        accepted.increment();
+        return status;
+    }
+
+    public Optional<OrderIntakeStatus> getStatus(String ticketId) {
+        return Optional.ofNullable(statuses.get(ticketId));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.intake.status-retention:PT15M}")
+    public void purgeFinishedStatuses() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(statusRetention);
+        statuses.values().removeIf(status -> !OrderIntakeStatus.PENDING.equals(status.getStatus())
+                && status.getAcceptedAt().isBefore(cutoff));
+    }
+
+    @Override
+    public void start() {
+        if (!async || running) {
+            return;
+        }
+        stopped = false;
+        running = true;
+        writer = Thread.ofPlatform().name("order-intake-writer").daemon().start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        stopLock.writeLock().lock();
+        try {
+            stopped = true;
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below both the graceful shutdown and the web server itself, which sits 1024 lower
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void drainLoop() {
+        // Keep draining after stop() until the queue is empty so accepted orders are not lost
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Ticket> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Order intake writer failed on a batch", e);
+            }
+        }
+    }
+
+    /**
+     * Resolves every ticket of the batch, then commits all resolvable orders in one
+     * transaction. If that commit fails the batch is retried order by order so one
+     * bad order does not fail the others.
+     */
+    void writeBatch(List<Ticket> batch) {
+        batchSizes.record(batch.size());
+        long now = System.nanoTime();
+        batch.forEach(ticket -> queueWait.record(now - ticket.enqueuedAt, TimeUnit.NANOSECONDS));
+
+        List<Ticket> prepared = new ArrayList<>(batch.size());
+        List<Order> orders = new ArrayList<>(batch.size());
+        prepareLatency.record(() -> {
+            for (Ticket ticket : batch) {
+                try {
+                    orders.add(orderService.fromDTO(ticket.request));
+                    prepared.add(ticket);
+                } catch (RuntimeException e) {
+                    fail(ticket, e);
+                }
+            }
+        });
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            List<Order> saved = orderService.saveOrders(orders);
+            for (int i = 0; i < prepared.size(); i++) {
+                complete(prepared.get(i), saved.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            logger.warn("Batch commit of {} orders failed, retrying individually", orders.size(), batchFailure);
+            for (int i = 0; i < prepared.size(); i++) {
+                try {
+                    // Drop the ids and version handed out by the rolled-back attempt so the retry inserts again
+                    orders.get(i).setId(null);
+                    orders.get(i).setVersion(null);
+                    orders.get(i).getOrderItems().forEach(item -> item.setId(null));
+                    complete(prepared.get(i), orderService.saveOrder(orders.get(i)));
+                } catch (RuntimeException e) {
+                    fail(prepared.get(i), e);
+                }
+            }
+        } finally {
+            sample.stop(commitLatency);
+        }
+    }
+
+    private void validate(OrderDTO request) {
+        if (request.getId() != null) {
+            throw new BadRequestException("New orders must not have an id");
+        }
+        if (request.getStatus() != null) {
+            try {
+                OrderStatus.valueOf(request.getStatus());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid order status: " + request.getStatus());
+            }
+        }
+        if (request.getItems() != null) {
+            for (OrderItemDTO item : request.getItems()) {
+                if (item.getProductId() == null) {
+                    throw new BadRequestException("Every item needs a productId");
+                }
+                if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                    throw new BadRequestException("Item quantity must be positive");
+                }
+            }
+        }
+    }
+
+    private void complete(Ticket ticket, Order saved) {
+        statuses.computeIfPresent(ticket.id, (id, status) -> new OrderIntakeStatus(
+                id, OrderIntakeStatus.COMPLETED, saved.getId(), null, status.getAcceptedAt()));
+    }
+
+    private void fail(Ticket ticket, RuntimeException e) {
+        statuses.computeIfPresent(ticket.id, (id, status) -> new OrderIntakeStatus(
+                id, OrderIntakeStatus.FAILED, null, e.getMessage(), status.getAcceptedAt()));
+    }
+
+    record Ticket(String id, OrderDTO request, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.virtualclothingstore.entity.Money;
+import com.example.virtualclothingstore.entity.OrderItem;
+import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.repository.OrderItemRepository;
+import com.example.virtualclothingstore.repository.OrderRepository;
+
+/**
+ * Set-based order line changes. Each change first bumps the order's version, which locks the
+ * order row until commit and invalidates its ETag, then touches only the lines of one product
+ * and moves orders.total_amount by the line delta. The items collection is never loaded, so
+ * the number of statements does not depend on how many lines the order has.
+ */
+@Service
+public class OrderLineService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    // Constructor injection for better testability
+    public OrderLineService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /** Adds quantity of the product; when the order already has it, that line's quantity grows at its recorded price. */
+    @Transactional
+    public void addLine(Long orderId, Product product, int quantity) {
+        lockOrder(orderId);
+        List<OrderItem> lines = orderItemRepository.findByOrderIdAndProductIdOrderByIdAsc(orderId, product.getId());
+        Money delta;
+        if (lines.isEmpty()) {
+            OrderItem item = new OrderItem(orderRepository.getReferenceById(orderId), product.getId(),
+                    product.getName(), quantity, product.getPrice());
+            orderItemRepository.save(item);
+            delta = item.getUnitPrice().times(quantity);
+        } else {
+            OrderItem line = lines.get(0);
+            line.setQuantity(Math.addExact(line.getQuantity(), quantity));
+            delta = line.getUnitPrice().times(quantity);
+        }
+        adjustTotal(orderId, delta);
+    }
+
+    /** Sets the product's quantity; 0 removes it. Lines split by older writes are folded into the first one. */
+    @Transactional
+    public void setLineQuantity(Long orderId, Long productId, int quantity) {
+        if (quantity == 0) {
+            removeLines(orderId, productId);
+            return;
+        }
+        lockOrder(orderId);
+        List<OrderItem> lines = orderItemRepository.findByOrderIdAndProductIdOrderByIdAsc(orderId, productId);
+        if (lines.isEmpty()) {
+            throw new ResourceNotFoundException("Product " + productId + " is not part of order " + orderId);
+        }
+        Money before = OrderPricing.total(lines);
+        OrderItem kept = lines.get(0);
+        kept.setQuantity(quantity);
+        if (lines.size() > 1) {
+            orderItemRepository.deleteAllInBatch(lines.subList(1, lines.size()));
+        }
+        adjustTotal(orderId, kept.getUnitPrice().times(quantity).minus(before));
+    }
+
+    /** Deletes every line of the product; a product that is not on the order leaves it unchanged. */
+    @Transactional
+    public void removeLines(Long orderId, Long productId) {
+        lockOrder(orderId);
+        List<OrderItem> lines = orderItemRepository.findByOrderIdAndProductIdOrderByIdAsc(orderId, productId);
+        if (lines.isEmpty()) {
+            return;
+        }
+        orderItemRepository.deleteAllInBatch(lines);
+        adjustTotal(orderId, Money.ZERO.minus(OrderPricing.total(lines)));
+    }
+
+    private void lockOrder(Long orderId) {
+        if (orderRepository.incrementVersion(orderId) == 0) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+    }
+
+    private void adjustTotal(Long orderId, Money delta) {
+        if (!delta.equals(Money.ZERO)) {
+            orderRepository.adjustTotal(orderId, delta.toBigDecimal());
+        }
+    }
+}
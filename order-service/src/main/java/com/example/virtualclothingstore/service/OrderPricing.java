@@ -0,0 +1,25 @@
+package com.example.virtualclothingstore.service;
+
+import java.util.List;
+
+import com.example.virtualclothingstore.entity.Money;
+import com.example.virtualclothingstore.entity.OrderItem;
+
+/**
+ * The one place order totals are computed. Lines are summed as unit price (minor units)
+ * times quantity in long arithmetic; only the final {@link Money} is allocated.
+ */
+public final class OrderPricing {
+
+    private OrderPricing() {
+    }
+
+    public static Money total(List<OrderItem> items) {
+        long minorUnits = 0;
+        for (int i = 0, n = items.size(); i < n; i++) {
+            OrderItem item = items.get(i);
+            minorUnits = Math.addExact(minorUnits, Math.multiplyExact(item.getUnitPrice().minorUnits(), item.getQuantity()));
+        }
+        return Money.ofMinor(minorUnits);
+    }
+}
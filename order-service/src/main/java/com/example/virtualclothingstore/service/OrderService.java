@@ -1,43 +1,71 @@
 package com.example.virtualclothingstore.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.virtualclothingstore.dto.OrderCursorPage;
 import com.example.virtualclothingstore.dto.OrderDTO;
 import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.dto.OrderItemView;
+import com.example.virtualclothingstore.dto.OrderSummaryView;
 import com.example.virtualclothingstore.dto.ProductDTO;
 import com.example.virtualclothingstore.entity.Customer;
 import com.example.virtualclothingstore.entity.Order;
 import com.example.virtualclothingstore.entity.OrderItem;
 import com.example.virtualclothingstore.entity.OrderStatus;
 import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.PreconditionFailedException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
-import com.example.virtualclothingstore.repository.OrderItemRepository;
 import com.example.virtualclothingstore.repository.OrderRepository;
 
 @Service
 public class OrderService {
 
+    // Ids per catalog batch request; larger carts are split and fetched in parallel
+    static final int CATALOG_BATCH_SIZE = 50;
+
     private final OrderRepository orderRepository;
-    private final OrderItemRepository orderItemRepository;
     private final CustomerService customerService;
     private final CatalogClient catalogClient;
+    private final ProductCache productCache;
+    private final AsyncTaskExecutor catalogExecutor;
+    private final OrderLineService orderLineService;
 
     // Constructor injection for better testability
     public OrderService(OrderRepository orderRepository,
-                       OrderItemRepository orderItemRepository,
                        CustomerService customerService,
-                       CatalogClient catalogClient) {
+                       CatalogClient catalogClient,
+                       ProductCache productCache,
+                       @Qualifier("applicationTaskExecutor") AsyncTaskExecutor catalogExecutor,
+                       OrderLineService orderLineService) {
         this.orderRepository = orderRepository;
-        this.orderItemRepository = orderItemRepository;
         this.customerService = customerService;
         this.catalogClient = catalogClient;
+        this.productCache = productCache;
+        this.catalogExecutor = catalogExecutor;
+        this.orderLineService = orderLineService;
     }
 
     // Feign client has its own fallback; no local annotation required
@@ -69,71 +97,102 @@ public class OrderService {
         order.setCustomer(customer);
         order.setOrderDate(LocalDateTime.now());
         order.setStatus(OrderStatus.PENDING);
-        order.setOrderItems(items);
-
-        // Calculate total
-        BigDecimal total = items.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(total);
-
-        // Save order first
-        Order savedOrder = orderRepository.save(order);
-
-        // Set order in items and save
         for (OrderItem item : items) {
-            item.setOrder(savedOrder);
-            orderItemRepository.save(item);
+            item.setOrder(order);
         }
+        order.setOrderItems(items);
+
+        order.setTotal(OrderPricing.total(items));
 
-        return savedOrder;
+        // Items are inserted through the cascade, batched together with the order row
+        return orderRepository.save(order);
     }
 
+    /**
+     * Adds quantity of a product to the order. A product the order already has is merged
+     * into its existing line; only that line and the order total are written.
+     */
     public void addProductToOrder(Long orderId, Long productId, Integer quantity) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Order not found");
+        if (quantity == null || quantity < 1) {
+            throw new BadRequestException("quantity must be at least 1");
         }
-        Order order = orderOpt.get();
-        ProductDTO productDto = catalogClient.getProductById(productId);
-        if (productDto == null) {
-            throw new ResourceNotFoundException("Product not found");
+        // Unknown orders are rejected before the catalog is asked; the product is resolved
+        // outside the line transaction so the order row is not locked during the remote call
+        if (!orderRepository.existsById(orderId)) {
+            throw new ResourceNotFoundException("Order not found");
         }
-        Product product = dtoToProduct(productDto);
-
-        OrderItem item = new OrderItem();
-        item.setOrder(order);
-        item.setProductId(product.getId());
-        item.setProductName(product.getName());
-        item.setQuantity(quantity);
-        item.setPrice(product.getPrice());
-
-        orderItemRepository.save(item);
-        order.getOrderItems().add(item); // Add item to order's collection
+        Product product = dtoToProduct(resolveProducts(List.of(productId)).get(productId));
+        orderLineService.addLine(orderId, product, quantity);
+    }
 
-        // Recalculate total
-        BigDecimal total = order.getOrderItems().stream()
-                .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        order.setTotalAmount(total);
-        orderRepository.save(order);
+    /** Sets the quantity of a product already on the order; 0 removes it. */
+    public void changeProductQuantity(Long orderId, Long productId, Integer quantity) {
+        if (quantity == null || quantity < 0) {
+            throw new BadRequestException("quantity must not be negative");
+        }
+        orderLineService.setLineQuantity(orderId, productId, quantity);
     }
 
     public void removeProductFromOrder(Long orderId, Long productId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Order not found");
+        orderLineService.removeLines(orderId, productId);
+    }
+
+    /**
+     * Replaces an order's fields. With an expected version (from If-Match) the update only
+     * applies to that version; a status change must follow the OrderStatus transition table.
+     */
+    @Transactional
+    public Order updateOrder(Long id, Order changes, Long expectedVersion) {
+        Order current = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new PreconditionFailedException("Order " + id + " has changed since version " + expectedVersion);
+        }
+        if (changes.getStatus() == null) {
+            changes.setStatus(current.getStatus());
+        } else if (changes.getStatus() != current.getStatus() && !current.getStatus().canTransitionTo(changes.getStatus())) {
+            throw new ConflictException("Order " + id + " cannot move from " + current.getStatus() + " to " + changes.getStatus());
+        }
+        LocalDateTime previousDate = current.getOrderDate();
+        changes.setId(id);
+        // Merging with the version that was checked makes a concurrent commit fail this one on flush
+        changes.setVersion(current.getVersion());
+        Order saved = orderRepository.saveAndFlush(changes);
+        if (!Objects.equals(previousDate, saved.getOrderDate())) {
+            orderRepository.updateItemOrderDates(id, saved.getOrderDate());
         }
-        Order order = orderOpt.get();
+        return saved;
+    }
 
-        order.getOrderItems().removeIf(item -> item.getProductId() != null && item.getProductId().equals(productId));
-        orderRepository.save(order);
+    /**
+     * Moves an order to the target status with a single conditional UPDATE, so concurrent
+     * transitions cannot both succeed and no read-modify-write is needed. Throws 404 for a
+     * missing order and 409 when its current status does not allow the move.
+     */
+    @Transactional
+    public void changeStatus(Long id, OrderStatus target) {
+        Set<OrderStatus> from = target.previousStatuses();
+        if (!from.isEmpty() && orderRepository.updateStatus(id, from, target) == 1) {
+            return;
+        }
+        OrderStatus current = orderRepository.findStatusById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        throw new ConflictException("Order " + id + " cannot move from " + current + " to " + target);
     }
 
     public Order saveOrder(Order order) {
         return orderRepository.save(order);
     }
 
+    /**
+     * Persists a micro-batch of new orders in one transaction, so their rows and items
+     * go out in shared JDBC batches. Returns the saved orders in input order.
+     */
+    @Transactional
+    public List<Order> saveOrders(List<Order> orders) {
+        return orderRepository.saveAll(orders);
+    }
+
     public void deleteOrder(Long id) {
         orderRepository.deleteById(id);
     }
@@ -163,6 +222,75 @@ public class OrderService {
         return dto;
     }
 
+    /**
+     * Resolves every distinct product id from the near-cache, fetching the misses
+     * in one batch request to catalog-service.
+     * Throws if any id cannot be resolved, matching the previous per-item behaviour.
+     */
+    private Map<Long, ProductDTO> resolveProducts(Collection<Long> productIds) {
+        if (productIds.stream().anyMatch(Objects::isNull)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+        Map<Long, ProductDTO> byId = findProducts(productIds);
+        if (!byId.keySet().containsAll(productIds)) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+        return byId;
+    }
+
+    /** Like resolveProducts, but returns whatever could be found and leaves it to the caller to judge the gaps. */
+    public Map<Long, ProductDTO> findProducts(Collection<Long> productIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(productIds);
+        distinctIds.remove(null);
+        Map<Long, ProductDTO> byId = new HashMap<>(productCache.getAllPresent(distinctIds));
+        Set<Long> missing = new LinkedHashSet<>(distinctIds);
+        missing.removeAll(byId.keySet());
+        if (!missing.isEmpty()) {
+            long fetchStartedAt = productCache.startFetch();
+            List<ProductDTO> found = fetchProducts(missing);
+            productCache.putAll(found, fetchStartedAt);
+            found.forEach(p -> byId.putIfAbsent(p.getId(), p));
+        }
+        return byId;
+    }
+
+    /**
+     * One catalog request per {@link #CATALOG_BATCH_SIZE} ids. Several batches run concurrently
+     * on the application task executor (virtual threads when spring.threads.virtual.enabled);
+     * the caller waits for all of them and the first failure cancels the rest.
+     */
+    private List<ProductDTO> fetchProducts(Set<Long> ids) {
+        if (ids.size() <= CATALOG_BATCH_SIZE) {
+            return nullToEmpty(catalogClient.getProductsByIds(ids));
+        }
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CATALOG_BATCH_SIZE) {
+            batches.add(all.subList(from, Math.min(from + CATALOG_BATCH_SIZE, all.size())));
+        }
+        List<ProductDTO> found = new ArrayList<>(ids.size());
+        List<Future<List<ProductDTO>>> pending = batches.stream()
+                .map(batch -> catalogExecutor.submit(() -> nullToEmpty(catalogClient.getProductsByIds(batch))))
+                .toList();
+        try {
+            for (Future<List<ProductDTO>> batch : pending) {
+                found.addAll(batch.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading products", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            pending.forEach(batch -> batch.cancel(true));
+        }
+        return found;
+    }
+
+    private static List<ProductDTO> nullToEmpty(List<ProductDTO> products) {
+        return products != null ? products : List.of();
+    }
+
     private Product dtoToProduct(ProductDTO dto) {
         if (dto == null) return null;
         return new Product(dto.getId(), dto.getName(), dto.getPrice());
@@ -184,14 +312,13 @@ public class OrderService {
             order.setCustomer(customer);
         }
 
-        // Set order items
-        if (dto.getItems() != null) {
+        // Set order items; all products are resolved with a single catalog call
+        if (dto.getItems() != null && !dto.getItems().isEmpty()) {
+            Map<Long, ProductDTO> products = resolveProducts(dto.getItems().stream()
+                    .map(OrderItemDTO::getProductId)
+                    .toList());
             for (OrderItemDTO itemDTO : dto.getItems()) {
-                ProductDTO productDto = catalogClient.getProductById(itemDTO.getProductId());
-                if (productDto == null) {
-                    throw new ResourceNotFoundException("Product not found");
-                }
-                Product product = dtoToProduct(productDto);
+                Product product = dtoToProduct(products.get(itemDTO.getProductId()));
                 OrderItem item = new OrderItem();
                 item.setProductId(product.getId());
                 item.setProductName(product.getName());
@@ -203,11 +330,8 @@ public class OrderService {
         }
 
         // Calculate total if not set
-        if (order.getTotalAmount() == null) {
-            BigDecimal total = order.getOrderItems().stream()
-                    .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            order.setTotalAmount(total);
+        if (order.getTotal() == null) {
+            order.setTotal(OrderPricing.total(order.getOrderItems()));
         }
 
         return order;
@@ -228,9 +352,9 @@ public class OrderService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderDTO> getAllOrderDTOs(Pageable pageable) {
-        Page<Order> orders = orderRepository.findAll(pageable);
-        return orders.map(this::toDTO);
+        return toDTOPage(orderRepository.findPageIds(pageable));
     }
 
     public Optional<OrderDTO> getOrderDTOById(Long id) {
@@ -243,9 +367,9 @@ public class OrderService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderDTO> getOrderDTOsByCustomerId(Long customerId, Pageable pageable) {
-        Page<Order> orders = orderRepository.findByCustomerId(customerId, pageable);
-        return orders.map(this::toDTO);
+        return toDTOPage(orderRepository.findPageIdsByCustomerId(customerId, pageable));
     }
 
     public List<OrderDTO> getOrderDTOsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
@@ -254,9 +378,95 @@ public class OrderService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public Page<OrderDTO> getOrderDTOsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        Page<Order> orders = orderRepository.findByOrderDateBetween(startDate, endDate, pageable);
-        return orders.map(this::toDTO);
+        return toDTOPage(orderRepository.findPageIdsByOrderDateBetween(startDate, endDate, pageable));
+    }
+
+    /**
+     * Builds a DTO page from a page of order ids using two flat projection queries (order rows
+     * and their item rows), so list views never hydrate managed entities.
+     * The id page's ordering is preserved; orders deleted in between are skipped.
+     */
+    private Page<OrderDTO> toDTOPage(Page<Long> ids) {
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+        return new PageImpl<>(loadOrderDTOs(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    private List<OrderDTO> loadOrderDTOs(List<Long> orderIds) {
+        Map<Long, OrderSummaryView> byId = new HashMap<>();
+        for (OrderSummaryView order : orderRepository.findSummariesByIdIn(orderIds)) {
+            byId.put(order.id(), order);
+        }
+        return toOrderDTOs(orderIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /** Attaches items from one flat item query, keeping the order of the given summaries. */
+    private List<OrderDTO> toOrderDTOs(List<OrderSummaryView> summaries) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        List<Long> orderIds = summaries.stream().map(OrderSummaryView::id).toList();
+        LocalDateTime fromDate = summaries.stream().map(OrderSummaryView::orderDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime toDate = summaries.stream().map(OrderSummaryView::orderDate).max(Comparator.naturalOrder()).orElseThrow();
+        for (OrderItemView item : orderRepository.findItemViewsByOrderIdIn(orderIds, fromDate, toDate)) {
+            itemsByOrder.computeIfAbsent(item.orderId(), k -> new ArrayList<>())
+                    .add(new OrderItemDTO(item.id(), item.productId(), item.productName(), item.quantity(), item.price()));
+        }
+        return summaries.stream()
+                .map(order -> new OrderDTO(order.id(), order.customerId(), order.customerName(), order.orderDate(),
+                        order.totalAmount(), order.status() != null ? order.status().name() : null,
+                        itemsByOrder.getOrDefault(order.id(), List.of())))
+                .toList();
+    }
+
+    // Keyset (cursor) pagination: one row beyond the requested size is read to know whether a next slice exists
+
+    @Transactional(readOnly = true)
+    public OrderCursorPage getOrderDTOsAfter(String cursor, int size) {
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderSummaryView> rows = after == null
+                ? orderRepository.findFirstSummaries(limit)
+                : orderRepository.findSummariesAfter(after.orderDate(), after.id(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderCursorPage getOrderDTOsByCustomerIdAfter(Long customerId, String cursor, int size) {
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderSummaryView> rows = after == null
+                ? orderRepository.findFirstSummariesByCustomerId(customerId, limit)
+                : orderRepository.findSummariesByCustomerIdAfter(customerId, after.orderDate(), after.id(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderCursorPage getOrderDTOsByDateRangeAfter(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        OrderCursor after = cursor != null ? OrderCursor.decode(cursor) : null;
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderSummaryView> rows = after == null
+                ? orderRepository.findFirstSummariesByOrderDateBetween(startDate, endDate, limit)
+                : orderRepository.findSummariesByOrderDateBetweenAfter(startDate, endDate, after.orderDate(), after.id(), limit);
+        return toCursorPage(rows, size);
+    }
+
+    private OrderCursorPage toCursorPage(List<OrderSummaryView> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<OrderSummaryView> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryView last = slice.get(slice.size() - 1);
+            nextCursor = new OrderCursor(last.orderDate(), last.id()).encode();
+        }
+        return new OrderCursorPage(toOrderDTOs(slice), nextCursor);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.virtualclothingstore.dto.ProductDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-process near-cache of catalog products, keyed by product id.
+ * Entries older than the TTL are no longer served as hits but are kept as
+ * "last known" values so {@link CatalogClientFallback} can still answer
+ * during a catalog-service outage. The size bound evicts in insertion order.
+ *
+ * Callers take {@link #startFetch()} before asking catalog-service and pass it to
+ * {@link #putAll}: a product invalidated after the fetch started is dropped rather than
+ * cached, since the response may predate the change. Invalidation marks are kept for one
+ * TTL; a fetch older than that is cached already expired, so at worst it can serve as a
+ * last known value.
+ */
+@Component
+public class ProductCache {
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Long> insertionOrder = new ConcurrentLinkedQueue<>();
+    // System.nanoTime() of each product's latest invalidation
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    // Never cleared yet: just before any fetch can start
+    private volatile long clearedAt = System.nanoTime() - 1;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${catalog.product-cache.ttl:PT5M}") Duration ttl,
+                        @Value("${catalog.product-cache.max-entries:1000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("catalog.product.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("catalog.product.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("catalog.product.cache.evictions").register(meterRegistry);
+        Gauge.builder("catalog.product.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the fresh (within TTL) entries for the given ids; ids that are
+     * missing or expired are left out and counted as misses.
+     */
+    public Map<Long, ProductDTO> getAllPresent(Collection<Long> ids) {
+        Map<Long, ProductDTO> result = new HashMap<>();
+        long now = System.nanoTime();
+        for (Long id : ids) {
+            Entry entry = id == null ? null : entries.get(id);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                result.put(id, entry.product);
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        return result;
+    }
+
+    /** Last known value regardless of age, used when catalog-service is unavailable. */
+    public Optional<ProductDTO> getLastKnown(Long id) {
+        Entry entry = id == null ? null : entries.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.product);
+    }
+
+    /** Marks the start of a catalog fetch whose results will be passed to {@link #put} or {@link #putAll}. */
+    public long startFetch() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Caches a product fetched from catalog-service, aged from fetchStartedAt, unless it
+     * was invalidated after that.
+     */
+    public void put(ProductDTO product, long fetchStartedAt) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        Entry previous = entries.get(product.getId());
+        // The fallback hands back the cached instance itself; don't let that refresh its age
+        if (previous != null && previous.product == product) {
+            return;
+        }
+        boolean[] added = new boolean[1];
+        // Checked under the entry's lock: invalidate marks before it removes, so a stale put is
+        // either refused here or removed right after
+        entries.compute(product.getId(), (id, current) -> {
+            if (invalidatedSince(id, fetchStartedAt)) {
+                return current;
+            }
+            added[0] = current == null;
+            return new Entry(product, fetchStartedAt);
+        });
+        if (added[0]) {
+            insertionOrder.add(product.getId());
+            evictOverflow();
+        }
+    }
+
+    public void putAll(Collection<ProductDTO> products, long fetchStartedAt) {
+        products.forEach(product -> put(product, fetchStartedAt));
+    }
+
+    public void invalidate(Long id) {
+        long now = System.nanoTime();
+        if (invalidatedAt.size() >= maxEntries) {
+            invalidatedAt.values().removeIf(at -> now - at > ttlNanos);
+        }
+        invalidatedAt.put(id, now);
+        entries.remove(id);
+        insertionOrder.remove(id);
+    }
+
+    public void invalidateAll() {
+        clearedAt = System.nanoTime();
+        entries.clear();
+        insertionOrder.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Ties count as invalidated: nanoTime can repeat, and dropping a fresh value only costs a refetch
+    private boolean invalidatedSince(Long id, long fetchStartedAt) {
+        if (clearedAt - fetchStartedAt >= 0) {
+            return true;
+        }
+        Long at = invalidatedAt.get(id);
+        return at != null && at - fetchStartedAt >= 0;
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxEntries) {
+            Long oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private record Entry(ProductDTO product, long loadedAt) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.virtualclothingstore.dto.ProductDTO;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link CatalogClient#getProductsByIds} for the reactive read
+ * path. Like the Feign fallback, a failing or slow catalog degrades to the last known
+ * products instead of failing the read.
+ */
+@Component
+public class ReactiveCatalogClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveCatalogClient.class);
+
+    private final WebClient webClient;
+    private final ProductCache productCache;
+    private final Duration timeout;
+
+    // Constructor injection for better testability
+    public ReactiveCatalogClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                                 ProductCache productCache,
+                                 @Value("${catalog.reactive.base-url:http://catalog-service}") String baseUrl,
+                                 @Value("${catalog.reactive.timeout:PT2S}") Duration timeout) {
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.productCache = productCache;
+        this.timeout = timeout;
+    }
+
+    public Flux<ProductDTO> getProductsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        // Deferred so the fetch is stamped when it is subscribed to, not when it is assembled
+        return Flux.defer(() -> {
+            long fetchStartedAt = productCache.startFetch();
+            return webClient.get()
+                    .uri(uri -> uri.path("/api/products/batch").queryParam("ids", ids.toArray()).build())
+                    .retrieve()
+                    .bodyToFlux(ProductDTO.class)
+                    .timeout(timeout)
+                    .collectList()
+                    .doOnNext(products -> productCache.putAll(products, fetchStartedAt))
+                    .flatMapIterable(products -> products);
+        }).onErrorResume(e -> {
+            logger.warn("Catalog lookup of {} products failed, using last known values: {}", ids.size(), e.toString());
+            return Flux.fromIterable(ids).mapNotNull(id -> productCache.getLastKnown(id).orElse(null));
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.entity.CustomerRow;
+import com.example.virtualclothingstore.entity.OrderItemRow;
+import com.example.virtualclothingstore.entity.OrderRow;
+import com.example.virtualclothingstore.repository.ReactiveCustomerRepository;
+import com.example.virtualclothingstore.repository.ReactiveOrderItemRepository;
+import com.example.virtualclothingstore.repository.ReactiveOrderRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive, read-only view of order history over R2DBC. Orders are consumed in chunks as
+ * the subscriber requests them; each chunk costs one items query and one customers query,
+ * plus a non-blocking catalog lookup for items stored without a product name.
+ */
+@Service
+public class ReactiveOrderQueryService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final ReactiveOrderItemRepository orderItemRepository;
+    private final ReactiveCustomerRepository customerRepository;
+    private final ReactiveCatalogClient catalogClient;
+    private final ProductCache productCache;
+    private final int chunkSize;
+
+    // Constructor injection for better testability
+    public ReactiveOrderQueryService(ReactiveOrderRepository orderRepository,
+                                     ReactiveOrderItemRepository orderItemRepository,
+                                     ReactiveCustomerRepository customerRepository,
+                                     ReactiveCatalogClient catalogClient,
+                                     ProductCache productCache,
+                                     @Value("${orders.reactive.chunk-size:100}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.customerRepository = customerRepository;
+        this.catalogClient = catalogClient;
+        this.productCache = productCache;
+        this.chunkSize = chunkSize;
+    }
+
+    public Mono<OrderDTO> getOrder(Long id) {
+        return toDTOs(orderRepository.findById(id).flux()).next();
+    }
+
+    /** Every order of the customer, newest first. */
+    public Flux<OrderDTO> streamOrdersByCustomer(Long customerId) {
+        return toDTOs(orderRepository.findByCustomerIdOrderByOrderDateDescIdDesc(customerId));
+    }
+
+    /** Every order with orderDate in [startDate, endDate], oldest first. */
+    public Flux<OrderDTO> streamOrders(LocalDateTime startDate, LocalDateTime endDate) {
+        return toDTOs(orderRepository.findByOrderDateBetweenOrderByOrderDateAscIdAsc(startDate, endDate));
+    }
+
+    // concatMap keeps the source order and only asks for the next chunk once this one is emitted
+    private Flux<OrderDTO> toDTOs(Flux<OrderRow> orders) {
+        return orders.buffer(chunkSize).concatMap(this::toDTOs);
+    }
+
+    private Flux<OrderDTO> toDTOs(List<OrderRow> chunk) {
+        LocalDateTime fromDate = chunk.stream().map(OrderRow::orderDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime toDate = chunk.stream().map(OrderRow::orderDate).max(Comparator.naturalOrder()).orElseThrow();
+        Mono<Map<Long, List<OrderItemDTO>>> items = orderItemRepository
+                .findByOrderIdInAndOrderDateBetweenOrderByIdAsc(chunk.stream().map(OrderRow::id).toList(), fromDate, toDate)
+                .collectList()
+                .flatMap(this::withProductNames);
+        Mono<Map<Long, String>> customerNames = customerRepository.findAllById(chunk.stream().map(OrderRow::customerId).distinct().toList())
+                .collectMap(CustomerRow::id, customer -> customer.firstName() + " " + customer.lastName());
+        return Mono.zip(items, customerNames).flatMapIterable(loaded -> chunk.stream()
+                .map(order -> new OrderDTO(order.id(), order.customerId(), loaded.getT2().get(order.customerId()),
+                        order.orderDate(), order.totalAmount(), order.status(),
+                        loaded.getT1().getOrDefault(order.id(), List.of())))
+                .toList());
+    }
+
+    // Items saved without a product name get the current catalog name
+    private Mono<Map<Long, List<OrderItemDTO>>> withProductNames(List<OrderItemRow> rows) {
+        Set<Long> unnamed = new LinkedHashSet<>();
+        rows.stream().filter(row -> row.productName() == null).forEach(row -> unnamed.add(row.productId()));
+        Map<Long, ProductDTO> known = new HashMap<>(productCache.getAllPresent(unnamed));
+        Set<Long> missing = new LinkedHashSet<>(unnamed);
+        missing.removeAll(known.keySet());
+        Flux<ProductDTO> fetched = missing.isEmpty() ? Flux.empty() : catalogClient.getProductsByIds(missing);
+        return fetched
+                .doOnNext(product -> known.putIfAbsent(product.getId(), product))
+                .then(Mono.fromSupplier(() -> {
+                    Map<Long, List<OrderItemDTO>> byOrder = new HashMap<>();
+                    for (OrderItemRow row : rows) {
+                        String name = row.productName();
+                        if (name == null && known.containsKey(row.productId())) {
+                            name = known.get(row.productId()).getName();
+                        }
+                        byOrder.computeIfAbsent(row.orderId(), k -> new ArrayList<>())
+                                .add(new OrderItemDTO(row.id(), row.productId(), name, row.quantity(), row.price()));
+                    }
+                    return byOrder;
+                }));
+    }
+}
@@ -0,0 +1,14 @@
+-- PostgreSQL indexes behind GET /api/customers/search. Hibernate creates the plain
+-- phone index itself; these are functional and have to be created by hand, e.g.:
+--   psql -h localhost -U postgres -d clothingstore -f customer-search-indexes.sql
+--
+-- The prefix searches compare LOWER(column) LIKE 'prefix%'. varchar_pattern_ops lets
+-- a btree serve LIKE prefixes whatever the database collation is. Exact email lookups
+-- use the unique constraint on email.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_email_lower
+    ON customers (LOWER(email) varchar_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_first_name_lower
+    ON customers (LOWER(first_name) varchar_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_customers_last_name_lower
+    ON customers (LOWER(last_name) varchar_pattern_ops);
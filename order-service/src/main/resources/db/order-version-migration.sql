@@ -0,0 +1,8 @@
+-- One-off PostgreSQL migration adding the optimistic-lock column to orders. Run it once,
+-- before starting a build with Order.version, e.g.:
+--   psql -h localhost -U postgres -d clothingstore -f order-version-migration.sql
+--
+-- Existing rows start at version 0. Without the default, Hibernate's schema update would
+-- add a NULL column, and rows with a NULL version cannot be updated optimistically.
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,126 @@
+-- One-off PostgreSQL (15+) migration that range-partitions orders and order_items by month
+-- on order_date. Run it once, after pooled-sequences-migration.sql and
+-- order-version-migration.sql and with the service stopped, e.g.:
+--   psql -h localhost -U postgres -d clothingstore -f orders-partitioning.sql
+--
+-- order_items gets its own copy of order_date (OrderItem.orderDate), so an order's items
+-- sit in the partition for the same month as the order and the foreign key becomes
+-- (order_id, order_date). PostgreSQL requires the partition key in every unique constraint,
+-- so both primary keys become (id, order_date); ids still come from the pooled sequences.
+--
+-- The two functions are called by OrderArchiveJob (orders.archive.enabled=true).
+-- create_order_partitions adds the partitions for the coming months.
+-- archive_order_partitions moves months older than the hot window to the archive
+-- tablespace. Archived partitions stay attached, so every query still sees them.
+-- PostgreSQL does not compress heap pages itself, so put that tablespace on compressed
+-- storage, e.g. a ZFS dataset with compression=lz4. Create the tablespace beforehand:
+--   CREATE TABLESPACE orders_archive LOCATION '/srv/postgres/orders_archive';
+
+BEGIN;
+
+-- Creates the monthly partitions of orders and order_items from from_month to to_month
+-- (inclusive, truncated to the month) that do not exist yet; returns how many months were added.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_month date, to_month date) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    m date := date_trunc('month', from_month);
+    suffix text;
+    created integer := 0;
+BEGIN
+    WHILE m <= date_trunc('month', to_month) LOOP
+        suffix := to_char(m, 'YYYY_MM');
+        IF to_regclass('orders_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                    'orders_' || suffix, m, (m + interval '1 month')::date);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                    'order_items_' || suffix, m, (m + interval '1 month')::date);
+            created := created + 1;
+        END IF;
+        m := m + interval '1 month';
+    END LOOP;
+    RETURN created;
+END $$;
+
+CREATE TABLE IF NOT EXISTS order_archive_log (
+    partition_month DATE PRIMARY KEY,
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Moves the order and item partitions of every month that ended more than hot_months ago,
+-- indexes included, to archive_tablespace; returns how many months were moved.
+CREATE OR REPLACE FUNCTION archive_order_partitions(hot_months integer, archive_tablespace text) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    cutoff date := date_trunc('month', now()) - make_interval(months => hot_months);
+    part record;
+    tbl text;
+    idx record;
+    archived integer := 0;
+BEGIN
+    FOR part IN
+        SELECT to_date(substr(c.relname, 8), 'YYYY_MM') AS month, substr(c.relname, 8) AS suffix
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass AND c.relname ~ '^orders_[0-9]{4}_[0-9]{2}$'
+        ORDER BY 1
+    LOOP
+        CONTINUE WHEN part.month >= cutoff
+                OR EXISTS (SELECT 1 FROM order_archive_log WHERE partition_month = part.month);
+        FOREACH tbl IN ARRAY ARRAY['orders_' || part.suffix, 'order_items_' || part.suffix] LOOP
+            -- archived months are no longer updated, so pages can be packed full
+            EXECUTE format('ALTER TABLE %I SET (fillfactor = 100)', tbl);
+            EXECUTE format('ALTER TABLE %I SET TABLESPACE %I', tbl, archive_tablespace);
+            FOR idx IN SELECT indexrelid::regclass::text AS name FROM pg_index WHERE indrelid = tbl::regclass LOOP
+                EXECUTE format('ALTER INDEX %s SET TABLESPACE %I', idx.name, archive_tablespace);
+            END LOOP;
+        END LOOP;
+        INSERT INTO order_archive_log (partition_month) VALUES (part.month);
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END $$;
+
+-- Items take the partition key from their order
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS order_date TIMESTAMP(6);
+UPDATE order_items i SET order_date = o.order_date FROM orders o WHERE o.id = i.order_id AND i.order_date IS NULL;
+ALTER TABLE order_items ALTER COLUMN order_date SET NOT NULL;
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+
+CREATE TABLE orders (
+    LIKE orders_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, order_date),
+    FOREIGN KEY (customer_id) REFERENCES customers (id)
+) PARTITION BY RANGE (order_date);
+
+-- ON UPDATE CASCADE moves the items along when an order is re-dated into another month
+CREATE TABLE order_items (
+    LIKE order_items_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, order_date),
+    FOREIGN KEY (order_id, order_date) REFERENCES orders (id, order_date) ON UPDATE CASCADE
+) PARTITION BY RANGE (order_date);
+
+SELECT create_order_partitions(
+        COALESCE((SELECT min(order_date) FROM orders_unpartitioned)::date, CURRENT_DATE),
+        (CURRENT_DATE + interval '3 months')::date);
+
+-- Safety net for dates outside the created months; OrderArchiveJob keeps it empty by
+-- creating partitions ahead of time (a new month cannot be created while its rows are here)
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+INSERT INTO order_items SELECT * FROM order_items_unpartitioned;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Same names as the indexes declared on Order and OrderItem, so Hibernate's schema update finds them
+CREATE INDEX idx_orders_order_date_id ON orders (order_date, id);
+CREATE INDEX idx_orders_customer_order_date_id ON orders (customer_id, order_date, id);
+CREATE INDEX idx_order_items_order_id ON order_items (order_id, order_date);
+
+COMMIT;
+
+ANALYZE orders;
+ANALYZE order_items;
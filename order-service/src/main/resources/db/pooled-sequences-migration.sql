@@ -0,0 +1,28 @@
+-- One-off PostgreSQL migration for databases created while orders, order_items and
+-- customers still used IDENTITY ids. Run it once, before starting a build that uses
+-- the pooled sequences, e.g.:
+--   psql -h localhost -U postgres -d clothingstore -f pooled-sequences-migration.sql
+--
+-- Hibernate's pooled optimizer reserves blocks of 50 ids per nextval(), so each
+-- sequence must use INCREMENT BY 50 (matching allocationSize) and must be positioned
+-- past the current maximum id.
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS customers_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+SELECT setval('customers_seq', COALESCE((SELECT MAX(id) FROM customers), 0) + 50, false);
+SELECT setval('orders_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 50, false);
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 50, false);
+
+-- ids are now assigned by the application; drop the identity/serial defaults
+ALTER TABLE customers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE customers ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE orders ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE order_items ALTER COLUMN id DROP DEFAULT;
+
+COMMIT;
@@ -0,0 +1,148 @@
+package com.example.virtualclothingstore.config;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.repository.CustomerRepository;
+import com.example.virtualclothingstore.repository.OrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// Every repository call commits on its own so cache puts and evictions happen as in production
+@DataJpaTest(properties = {
+        "jpa.second-level-cache.regions.customers.max-entries=100",
+        "jpa.second-level-cache.regions.customers.ttl=PT5M",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("SecondLevelCacheConfig Tests")
+class SecondLevelCacheConfigTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        customerRepository.deleteAll();
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+    }
+
+    private CacheRegionStatistics customersRegion() {
+        return sessionFactory.getStatistics().getDomainDataRegionStatistics("customers");
+    }
+
+    @Test
+    @DisplayName("a customer read twice is served from the cache the second time")
+    void findById_secondReadHitsCache() {
+        // Arrange
+        Long id = customerRepository.save(new Customer("Ada", "Lovelace", "ada@example.com", "123")).getId();
+
+        // Act
+        customerRepository.findById(id);
+        customerRepository.findById(id);
+
+        // Assert
+        assertEquals(2, customersRegion().getHitCount());
+        assertEquals(0, sessionFactory.getStatistics().getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("region statistics are published as meters")
+    void metrics_reportRegionHits() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new SecondLevelCacheMetrics(sessionFactory, List.of("customers")).bindTo(meterRegistry);
+        Long id = customerRepository.save(new Customer("Ada", "Lovelace", "ada@example.com", "123")).getId();
+
+        // Act
+        customerRepository.findById(id);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", "customers", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("hibernate.second.level.cache.puts").tag("region", "customers").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("updating a customer replaces the cached state")
+    void save_updatesCachedCustomer() {
+        // Arrange
+        Customer customer = customerRepository.save(new Customer("Ada", "Lovelace", "ada@example.com", "123"));
+
+        // Act
+        customer.setLastName("King");
+        customerRepository.save(customer);
+
+        // Assert
+        assertEquals("King", customerRepository.findById(customer.getId()).orElseThrow().getLastName());
+        assertEquals(0, sessionFactory.getStatistics().getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("deleting a customer evicts it")
+    void deleteById_evictsCustomer() {
+        // Arrange
+        Long id = customerRepository.save(new Customer("Ada", "Lovelace", "ada@example.com", "123")).getId();
+        assertTrue(sessionFactory.getCache().containsEntity(Customer.class, id));
+
+        // Act
+        customerRepository.deleteById(id);
+        long hitsBefore = customersRegion().getHitCount();
+
+        // Assert: the lookup misses the cache instead of returning the deleted row
+        assertTrue(customerRepository.findById(id).isEmpty());
+        assertEquals(hitsBefore, customersRegion().getHitCount());
+    }
+
+    @Test
+    @DisplayName("Order.customer is resolved from the cache")
+    void orderCustomer_resolvedFromCache() {
+        // Arrange
+        Customer customer = customerRepository.save(new Customer("Ada", "Lovelace", "ada@example.com", "123"));
+        Long orderId = orderRepository.save(new Order(customer, LocalDateTime.now(), BigDecimal.TEN, OrderStatus.PENDING)).getId();
+        sessionFactory.getStatistics().clear();
+
+        // Act
+        String firstName = transactionTemplate.execute(status ->
+                orderRepository.findById(orderId).orElseThrow().getCustomer().getFirstName());
+
+        // Assert
+        assertEquals("Ada", firstName);
+        assertEquals(1, customersRegion().getHitCount());
+        assertEquals(1, sessionFactory.getStatistics().getEntityLoadCount());
+    }
+}
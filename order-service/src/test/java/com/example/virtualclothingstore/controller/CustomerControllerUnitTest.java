@@ -15,10 +15,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 
+import com.example.virtualclothingstore.dto.CustomerCursorPage;
 import com.example.virtualclothingstore.dto.CustomerDTO;
 import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 import com.example.virtualclothingstore.service.CustomerService;
 
@@ -47,11 +53,36 @@ class CustomerControllerUnitTest {
 
     @Test
     @DisplayName("getAllCustomers returns list")
+    @SuppressWarnings("deprecation")
     void getAllCustomers_returnsList() {
         when(customerService.getAllCustomerDTOs()).thenReturn(List.of(dto));
         var result = controller.getAllCustomers();
-        assertEquals(1, result.size());
-        assertEquals(dto, result.get(0));
+        assertEquals(1, result.getBody().size());
+        assertEquals(dto, result.getBody().get(0));
+        assertEquals("true", result.getHeaders().getFirst("Deprecation"));
+    }
+
+    @Test
+    @DisplayName("getCustomerPage returns the requested page ordered by id")
+    void getCustomerPage_returnsPage() {
+        when(customerService.getCustomerDTOPage(PageRequest.of(2, 10, Sort.by("id")))).thenReturn(new PageImpl<>(List.of(dto)));
+        Page<CustomerDTO> result = controller.getCustomerPage(2, 10);
+        assertEquals(List.of(dto), result.getContent());
+    }
+
+    @Test
+    @DisplayName("searchCustomers delegates to the service")
+    void searchCustomers_delegates() {
+        CustomerCursorPage page = new CustomerCursorPage(List.of(dto), "next");
+        when(customerService.searchCustomers(null, "jo", null, null, null, 20)).thenReturn(page);
+        assertEquals(page, controller.searchCustomers(null, "jo", null, null, null, 20));
+    }
+
+    @Test
+    @DisplayName("searchCustomers rejects an out-of-range size")
+    void searchCustomers_invalidSize() {
+        assertThrows(BadRequestException.class, () -> controller.searchCustomers("a@b.c", null, null, null, null, 101));
+        assertThrows(BadRequestException.class, () -> controller.getCustomerPage(0, 0));
     }
 
     @Test
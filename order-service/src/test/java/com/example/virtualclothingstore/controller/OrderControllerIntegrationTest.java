@@ -1,11 +1,15 @@
 package com.example.virtualclothingstore.controller;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,8 +17,11 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -22,16 +29,34 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.virtualclothingstore.dto.OrderCursorPage;
 import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderIntakeStatus;
 import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.PreconditionFailedException;
+import com.example.virtualclothingstore.exception.TooManyRequestsException;
+import com.example.virtualclothingstore.service.OrderExportService;
+import com.example.virtualclothingstore.service.OrderIdempotencyService;
+import com.example.virtualclothingstore.service.OrderImportService;
+import com.example.virtualclothingstore.service.OrderIntakeService;
 import com.example.virtualclothingstore.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -48,6 +73,18 @@ class OrderControllerIntegrationTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @MockBean
+    private OrderIntakeService orderIntakeService;
+
+    @MockBean
+    private OrderExportService orderExportService;
+
+    @MockBean
+    private OrderImportService orderImportService;
+
     private OrderDTO testOrderDTO;
 
     @BeforeEach
@@ -81,33 +118,93 @@ class OrderControllerIntegrationTest {
         verify(orderService).getAllOrderDTOs(any());
     }
 
+    @Test
+    @DisplayName("GET /api/orders/scroll should return a slice with next cursor and no total")
+    void scrollOrders_returnsSliceWithCursor() throws Exception {
+        // Arrange
+        when(orderService.getOrderDTOsAfter("abc", 1))
+                .thenReturn(new OrderCursorPage(Arrays.asList(testOrderDTO), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/scroll")
+                .param("cursor", "abc")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/scroll with date range uses date range seek")
+    void scrollOrders_withDateRange_usesDateRangeSeek() throws Exception {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 3, 31, 23, 59);
+        when(orderService.getOrderDTOsByDateRangeAfter(start, end, null, 10))
+                .thenReturn(new OrderCursorPage(Collections.emptyList(), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/scroll")
+                .param("startDate", "2026-03-01T00:00:00")
+                .param("endDate", "2026-03-31T23:59:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(orderService).getOrderDTOsByDateRangeAfter(start, end, null, 10);
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/scroll rejects a date range with only one bound")
+    void scrollOrders_withOneDateBound_returns400() throws Exception {
+        mockMvc.perform(get("/api/orders/scroll")
+                .param("startDate", "2026-03-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/customer/{customerId}/scroll rejects invalid size")
+    void scrollOrdersByCustomer_invalidSize_returns400() throws Exception {
+        mockMvc.perform(get("/api/orders/customer/1/scroll")
+                .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/orders/{id} should return order when found")
     void getOrderById_whenExists_returnsOrder() throws Exception {
         // Arrange
-        when(orderService.getOrderDTOById(1L)).thenReturn(Optional.of(testOrderDTO));
+        Order order = new Order();
+        order.setId(1L);
+        order.setVersion(0L);
+        when(orderService.getOrderById(1L)).thenReturn(Optional.of(order));
+        when(orderService.toDTO(order)).thenReturn(testOrderDTO);
 
         // Act & Assert
         mockMvc.perform(get("/api/orders/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.customerName").value("John Doe"))
                 .andExpect(jsonPath("$.totalAmount").value(100.00));
 
-        verify(orderService).getOrderDTOById(1L);
+        verify(orderService).getOrderById(1L);
     }
 
     @Test
     @DisplayName("GET /api/orders/{id} should return 404 when not found")
     void getOrderById_whenNotExists_returns404() throws Exception {
         // Arrange
-        when(orderService.getOrderDTOById(99L)).thenReturn(Optional.empty());
+        when(orderService.getOrderById(99L)).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/api/orders/99"))
                 .andExpect(status().isNotFound());
 
-        verify(orderService).getOrderDTOById(99L);
+        verify(orderService).getOrderById(99L);
     }
 
     @Test
@@ -150,6 +247,169 @@ class OrderControllerIntegrationTest {
         verify(orderService).toDTO(any(Order.class));
     }
 
+    @Test
+    @DisplayName("POST /api/orders with Idempotency-Key should go through the idempotency store")
+    void createOrder_withIdempotencyKey_usesIdempotencyService() throws Exception {
+        // Arrange
+        when(orderIdempotencyService.createOrder(eq("retry-1"), any(OrderDTO.class))).thenReturn(testOrderDTO);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(orderIdempotencyService).createOrder(eq("retry-1"), any(OrderDTO.class));
+        verify(orderService, never()).saveOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/orders while the same key is in progress should return 409")
+    void createOrder_keyInProgress_returnsConflict() throws Exception {
+        // Arrange
+        when(orderIdempotencyService.createOrder(eq("retry-2"), any(OrderDTO.class)))
+                .thenThrow(new ConflictException("A request with this Idempotency-Key is still being processed"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /api/orders in async intake mode should return 202 with a status URL")
+    void createOrder_asyncMode_returnsAccepted() throws Exception {
+        // Arrange
+        when(orderIntakeService.isAsync()).thenReturn(true);
+        when(orderIntakeService.submit(any(OrderDTO.class))).thenReturn(
+                new OrderIntakeStatus("t-1", OrderIntakeStatus.PENDING, null, null, LocalDateTime.of(2026, 3, 1, 10, 0)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/orders/intake/t-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(orderService, never()).saveOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/orders should return 429 when the intake queue is full")
+    void createOrder_queueFull_returnsTooManyRequests() throws Exception {
+        // Arrange
+        when(orderIntakeService.isAsync()).thenReturn(true);
+        when(orderIntakeService.submit(any(OrderDTO.class)))
+                .thenThrow(new TooManyRequestsException("Order intake queue is full, retry later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/export should stream the export as CSV")
+    void exportOrders_streamsCsv() throws Exception {
+        // Arrange
+        when(orderExportService.exportOrders(any(), any(), eq(OrderExportService.Format.CSV), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("orderId\n1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/orders/export")
+                .param("startDate", "2026-01-01T00:00:00")
+                .param("endDate", "2026-01-31T23:59:59")
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string("orderId\n1\n"));
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/import should read CSV and stream the report as NDJSON")
+    void importOrders_csv_streamsReport() throws Exception {
+        // Arrange
+        String csv = "orderRef,customerId,productId,quantity\nA-1,1,10,2\n";
+        OrderImportService.RecordReader records = mock(OrderImportService.RecordReader.class);
+        when(orderImportService.open(any(), eq(OrderExportService.Format.CSV))).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(0);
+            assertEquals(csv, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            return records;
+        });
+        when(orderImportService.importOrders(eq(records), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"record\":1,\"ref\":\"A-1\",\"status\":\"CREATED\",\"orderId\":7}\n".getBytes(StandardCharsets.UTF_8));
+            return new OrderImportService.Summary(1, 0);
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/orders/import")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(jsonPath("$.orderId").value(7));
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/import should answer 400 for an unusable CSV header before streaming")
+    void importOrders_badHeader_returns400() throws Exception {
+        // Arrange
+        when(orderImportService.open(any(), eq(OrderExportService.Format.CSV)))
+                .thenThrow(new BadRequestException("CSV header must contain productId"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/orders/import")
+                .contentType("text/csv")
+                .content("orderRef,customerId\nA-1,1\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("CSV header must contain productId"));
+        verify(orderImportService, never()).importOrders(any(OrderImportService.RecordReader.class), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/orders/import should reject other content types")
+    void importOrders_unsupportedType_returns415() throws Exception {
+        mockMvc.perform(post("/api/orders/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/intake/{ticketId} should return the intake status")
+    void getIntakeStatus_returnsStatus() throws Exception {
+        // Arrange
+        when(orderIntakeService.getStatus("t-2")).thenReturn(Optional.of(
+                new OrderIntakeStatus("t-2", OrderIntakeStatus.COMPLETED, 42L, null, LocalDateTime.of(2026, 3, 1, 10, 0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/orders/intake/t-2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.orderId").value(42));
+    }
+
     @Test
     @DisplayName("POST /api/orders/{orderId}/products should add product to order")
     void addProductToOrder_addsProduct() throws Exception {
@@ -200,20 +460,67 @@ class OrderControllerIntegrationTest {
         // Arrange
         Order mockOrder = new Order();
         mockOrder.setId(1L);
-        
-        when(orderService.getOrderById(1L)).thenReturn(Optional.of(mockOrder));
+        mockOrder.setVersion(3L);
+
         when(orderService.fromDTO(any(OrderDTO.class))).thenReturn(mockOrder);
-        when(orderService.saveOrder(any(Order.class))).thenReturn(mockOrder);
+        when(orderService.updateOrder(1L, mockOrder, 2L)).thenReturn(mockOrder);
         when(orderService.toDTO(any(Order.class))).thenReturn(testOrderDTO);
 
         // Act & Assert
         mockMvc.perform(put("/api/orders/1")
+                .header("If-Match", "\"2\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(testOrderDTO)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.id").value(1));
 
-        verify(orderService).getOrderById(1L);
-        verify(orderService).saveOrder(any(Order.class));
+        verify(orderService).updateOrder(1L, mockOrder, 2L);
+    }
+
+    @Test
+    @DisplayName("PUT /api/orders/{id} should return 412 when If-Match is stale")
+    void updateOrder_staleIfMatch_returns412() throws Exception {
+        // Arrange
+        Order mockOrder = new Order();
+        when(orderService.fromDTO(any(OrderDTO.class))).thenReturn(mockOrder);
+        when(orderService.updateOrder(1L, mockOrder, 1L))
+                .thenThrow(new PreconditionFailedException("Order 1 has changed since version 1"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/orders/1")
+                .header("If-Match", "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PUT /api/orders/{id} should return 409 when a concurrent update wins")
+    void updateOrder_concurrentUpdate_returns409() throws Exception {
+        // Arrange
+        Order mockOrder = new Order();
+        when(orderService.fromDTO(any(OrderDTO.class))).thenReturn(mockOrder);
+        when(orderService.updateOrder(1L, mockOrder, null))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Order.class, 1L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/orders/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testOrderDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/orders/{id}/status should return 409 for a disallowed transition")
+    void changeStatus_disallowed_returns409() throws Exception {
+        // Arrange
+        doThrow(new ConflictException("Order 1 cannot move from DELIVERED to CANCELLED"))
+                .when(orderService).changeStatus(1L, OrderStatus.CANCELLED);
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/orders/1/status").param("status", "CANCELLED"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Order 1 cannot move from DELIVERED to CANCELLED"));
     }
 }
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
@@ -25,9 +26,16 @@ import org.springframework.data.domain.Pageable;
 import java.util.Arrays;
 
 import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderIntakeStatus;
 import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
 import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.PreconditionFailedException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.service.OrderExportService;
+import com.example.virtualclothingstore.service.OrderIdempotencyService;
+import com.example.virtualclothingstore.service.OrderImportService;
+import com.example.virtualclothingstore.service.OrderIntakeService;
 import com.example.virtualclothingstore.service.OrderService;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +45,18 @@ class OrderControllerUnitTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Mock
+    private OrderIntakeService orderIntakeService;
+
+    @Mock
+    private OrderExportService orderExportService;
+
+    @Mock
+    private OrderImportService orderImportService;
+
     @InjectMocks
     private OrderController controller;
 
@@ -53,20 +73,23 @@ class OrderControllerUnitTest {
     }
 
     @Test
-    @DisplayName("getOrderById returns 200 when found")
+    @DisplayName("getOrderById returns 200 with the version as ETag when found")
     void getOrderById_whenFound_returnsOk() {
-        when(orderService.getOrderDTOById(1L)).thenReturn(Optional.of(sampleDto));
+        sampleOrder.setVersion(4L);
+        when(orderService.getOrderById(1L)).thenReturn(Optional.of(sampleOrder));
+        when(orderService.toDTO(sampleOrder)).thenReturn(sampleDto);
 
         ResponseEntity<OrderDTO> response = controller.getOrderById(1L);
 
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(sampleDto, response.getBody());
+        assertEquals("\"4\"", response.getHeaders().getETag());
     }
 
     @Test
     @DisplayName("getOrderById throws ResourceNotFoundException when missing")
     void getOrderById_whenMissing_throwsNotFound() {
-        when(orderService.getOrderDTOById(2L)).thenReturn(Optional.empty());
+        when(orderService.getOrderById(2L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> controller.getOrderById(2L));
     }
@@ -149,12 +172,50 @@ class OrderControllerUnitTest {
         when(orderService.saveOrder(order)).thenReturn(order);
         when(orderService.toDTO(order)).thenReturn(sampleDto);
 
-        OrderDTO result = controller.createOrder(sampleDto);
-        assertEquals(sampleDto, result);
+        ResponseEntity<?> result = controller.createOrder(null, sampleDto);
+        assertEquals(sampleDto, result.getBody());
         verify(orderService).fromDTO(sampleDto);
         verify(orderService).saveOrder(order);
     }
 
+    @Test
+    @DisplayName("createOrder with Idempotency-Key delegates to the idempotency service")
+    void createOrder_withIdempotencyKey_delegates() {
+        when(orderIdempotencyService.createOrder("abc", sampleDto)).thenReturn(sampleDto);
+
+        ResponseEntity<?> result = controller.createOrder("abc", sampleDto);
+        assertEquals(sampleDto, result.getBody());
+        verify(orderService, never()).fromDTO(any(OrderDTO.class));
+    }
+
+    @Test
+    @DisplayName("createOrder in async intake mode returns 202 with a status URL")
+    void createOrder_asyncMode_returnsAccepted() {
+        OrderIntakeStatus status = new OrderIntakeStatus("t-1", OrderIntakeStatus.PENDING, null, null, LocalDateTime.now());
+        when(orderIntakeService.isAsync()).thenReturn(true);
+        when(orderIntakeService.submit(sampleDto)).thenReturn(status);
+
+        ResponseEntity<?> result = controller.createOrder(null, sampleDto);
+        assertEquals(202, result.getStatusCode().value());
+        assertEquals("/api/orders/intake/t-1", result.getHeaders().getLocation().toString());
+        assertEquals(status, result.getBody());
+        verify(orderService, never()).saveOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("exportOrders rejects an unknown format")
+    void exportOrders_unknownFormat_throws() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        assertThrows(BadRequestException.class, () -> controller.exportOrders(start, start.plusDays(1), "xml"));
+    }
+
+    @Test
+    @DisplayName("getIntakeStatus throws when the ticket is unknown")
+    void getIntakeStatus_unknown_throws() {
+        when(orderIntakeService.getStatus("missing")).thenReturn(Optional.empty());
+        assertThrows(ResourceNotFoundException.class, () -> controller.getIntakeStatus("missing"));
+    }
+
     @Test
     @DisplayName("addProductToOrder success returns ok")
     void addProductToOrder_success_returnsOk() {
@@ -172,24 +233,74 @@ class OrderControllerUnitTest {
     }
 
     @Test
-    @DisplayName("updateOrder when exists updates and returns DTO")
-    void updateOrder_whenExists_updates() {
-        when(orderService.getOrderById(1L)).thenReturn(Optional.of(sampleOrder));
-        when(orderService.fromDTO(sampleDto)).thenReturn(new Order());
-        Order testOrder = new Order();
-        testOrder.setId(2L);
-        when(orderService.saveOrder(any(Order.class))).thenReturn(testOrder);
-        when(orderService.toDTO(testOrder)).thenReturn(sampleDto);
+    @DisplayName("updateOrder passes the If-Match version and returns the new ETag")
+    void updateOrder_withIfMatch_updates() {
+        Order changes = new Order();
+        when(orderService.fromDTO(sampleDto)).thenReturn(changes);
+        Order saved = new Order();
+        saved.setId(1L);
+        saved.setVersion(3L);
+        when(orderService.updateOrder(1L, changes, 2L)).thenReturn(saved);
+        when(orderService.toDTO(saved)).thenReturn(sampleDto);
+
+        ResponseEntity<OrderDTO> resp = controller.updateOrder(1L, "\"2\"", sampleDto);
 
-        ResponseEntity<OrderDTO> resp = controller.updateOrder(1L, sampleDto);
         assertEquals(200, resp.getStatusCodeValue());
         assertEquals(sampleDto, resp.getBody());
+        assertEquals("\"3\"", resp.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("updateOrder without If-Match updates unconditionally")
+    void updateOrder_withoutIfMatch_updates() {
+        when(orderService.fromDTO(sampleDto)).thenReturn(sampleOrder);
+        when(orderService.updateOrder(1L, sampleOrder, null)).thenReturn(sampleOrder);
+
+        controller.updateOrder(1L, null, sampleDto);
+
+        verify(orderService).updateOrder(1L, sampleOrder, null);
     }
 
     @Test
     @DisplayName("updateOrder when missing throws NotFound")
     void updateOrder_whenMissing_throwsNotFound() {
-        when(orderService.getOrderById(1L)).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> controller.updateOrder(1L, sampleDto));
+        when(orderService.fromDTO(sampleDto)).thenReturn(sampleOrder);
+        when(orderService.updateOrder(1L, sampleOrder, null))
+                .thenThrow(new ResourceNotFoundException("Order not found with id: 1"));
+        assertThrows(ResourceNotFoundException.class, () -> controller.updateOrder(1L, null, sampleDto));
+    }
+
+    @Test
+    @DisplayName("parseIfMatch accepts strong tags and wildcards, rejects weak or foreign tags")
+    void parseIfMatch_formats() {
+        assertEquals(7L, OrderController.parseIfMatch("\"7\""));
+        assertEquals(null, OrderController.parseIfMatch("*"));
+        assertEquals(null, OrderController.parseIfMatch(null));
+        assertThrows(PreconditionFailedException.class, () -> OrderController.parseIfMatch("W/\"7\""));
+        assertThrows(PreconditionFailedException.class, () -> OrderController.parseIfMatch("\"abc\""));
+    }
+
+    @Test
+    @DisplayName("changeProductQuantity delegates and returns no content")
+    void changeProductQuantity_returns204() {
+        ResponseEntity<Void> resp = controller.changeProductQuantity(1L, 2L, 5);
+
+        assertEquals(204, resp.getStatusCodeValue());
+        verify(orderService).changeProductQuantity(1L, 2L, 5);
+    }
+
+    @Test
+    @DisplayName("changeStatus parses the status and delegates")
+    void changeStatus_delegates() {
+        ResponseEntity<Void> resp = controller.changeStatus(1L, "shipped");
+
+        assertEquals(204, resp.getStatusCodeValue());
+        verify(orderService).changeStatus(1L, OrderStatus.SHIPPED);
+    }
+
+    @Test
+    @DisplayName("changeStatus rejects unknown statuses")
+    void changeStatus_unknown_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> controller.changeStatus(1L, "lost"));
     }
 }
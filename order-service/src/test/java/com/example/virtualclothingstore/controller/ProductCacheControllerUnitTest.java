@@ -0,0 +1,43 @@
+package com.example.virtualclothingstore.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import com.example.virtualclothingstore.service.ProductCache;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductCacheController Unit Tests")
+class ProductCacheControllerUnitTest {
+
+    @Mock
+    private ProductCache productCache;
+
+    @InjectMocks
+    private ProductCacheController controller;
+
+    @Test
+    @DisplayName("invalidateProduct evicts the product and returns 204")
+    void invalidateProduct_returns204() {
+        ResponseEntity<Void> response = controller.invalidateProduct(3L);
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(productCache).invalidate(3L);
+    }
+
+    @Test
+    @DisplayName("invalidateAll clears the cache and returns 204")
+    void invalidateAll_returns204() {
+        ResponseEntity<Void> response = controller.invalidateAll();
+
+        assertEquals(204, response.getStatusCode().value());
+        verify(productCache).invalidateAll();
+    }
+}
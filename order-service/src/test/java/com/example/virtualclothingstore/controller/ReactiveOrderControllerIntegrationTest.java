@@ -0,0 +1,130 @@
+package com.example.virtualclothingstore.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.service.ReactiveOrderQueryService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebMvcTest(ReactiveOrderController.class)
+@DisplayName("ReactiveOrderController Integration Tests")
+class ReactiveOrderControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveOrderQueryService queryService;
+
+    private OrderDTO order(long id) {
+        return new OrderDTO(id, 1L, "Ada Lovelace", LocalDateTime.of(2026, 1, 1, 12, 0), new BigDecimal("20.00"), "PENDING", List.of());
+    }
+
+    @Test
+    @DisplayName("GET /api/v2/orders/{id} should return the order")
+    void getOrderById_found() throws Exception {
+        // Arrange
+        when(queryService.getOrder(7L)).thenReturn(Mono.just(order(7L)));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v2/orders/7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.customerName").value("Ada Lovelace"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v2/orders/{id} should return 404 for an unknown order")
+    void getOrderById_notFound() throws Exception {
+        // Arrange
+        when(queryService.getOrder(99L)).thenReturn(Mono.empty());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v2/orders/99"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Order not found with id: 99"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v2/orders/customer/{customerId} should collect orders into a JSON array")
+    void getOrdersByCustomer_json() throws Exception {
+        // Arrange
+        when(queryService.streamOrdersByCustomer(1L)).thenReturn(Flux.just(order(2L), order(1L)));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v2/orders/customer/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/v2/orders/customer/{customerId} should stream NDJSON when asked")
+    void getOrdersByCustomer_ndjson() throws Exception {
+        // Arrange
+        when(queryService.streamOrdersByCustomer(1L)).thenReturn(Flux.just(order(2L), order(1L)));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v2/orders/customer/1").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":2,"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v2/orders should reject an inverted date range")
+    void getOrders_invertedRange_returns400() throws Exception {
+        mockMvc.perform(get("/api/v2/orders")
+                        .param("startDate", "2026-02-01T00:00:00")
+                        .param("endDate", "2026-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+        verify(queryService, never()).streamOrders(any(), any());
+    }
+}
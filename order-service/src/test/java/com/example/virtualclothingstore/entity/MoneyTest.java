@@ -0,0 +1,57 @@
+package com.example.virtualclothingstore.entity;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("of converts to minor units and back without changing the value")
+    void of_roundTripsScaleTwoAmounts() {
+        Money money = Money.of(new BigDecimal("19.99"));
+        assertEquals(1999, money.minorUnits());
+        assertEquals(new BigDecimal("19.99"), money.toBigDecimal());
+        assertEquals(new BigDecimal("5.00"), Money.of(new BigDecimal("5")).toBigDecimal());
+    }
+
+    @Test
+    @DisplayName("of rounds extra decimals HALF_UP like the numeric(10, 2) column")
+    void of_roundsHalfUp() {
+        assertEquals(1000, Money.of(new BigDecimal("9.995")).minorUnits());
+        assertEquals(999, Money.of(new BigDecimal("9.994")).minorUnits());
+    }
+
+    @Test
+    @DisplayName("arithmetic works in minor units")
+    void arithmetic() {
+        Money price = Money.of(new BigDecimal("2.50"));
+        assertEquals(new BigDecimal("7.50"), price.times(3).toBigDecimal());
+        assertEquals(new BigDecimal("5.00"), price.plus(price).toBigDecimal());
+        assertSame(Money.ZERO, price.minus(price));
+    }
+
+    @Test
+    @DisplayName("overflow fails instead of wrapping")
+    void overflow_throws() {
+        Money large = Money.ofMinor(Long.MAX_VALUE / 2 + 1);
+        assertThrows(ArithmeticException.class, () -> large.times(2));
+        assertThrows(ArithmeticException.class, () -> large.plus(large));
+    }
+
+    @Test
+    @DisplayName("converter maps to and from BigDecimal, keeping nulls")
+    void converter_mapsBothWays() {
+        MoneyConverter converter = new MoneyConverter();
+        assertEquals(new BigDecimal("12.30"), converter.convertToDatabaseColumn(Money.ofMinor(1230)));
+        assertEquals(Money.ofMinor(1230), converter.convertToEntityAttribute(new BigDecimal("12.3")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -4,8 +4,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -174,4 +176,18 @@ class OrderEntityTest {
         assertEquals(OrderStatus.DELIVERED, OrderStatus.valueOf("DELIVERED"));
         assertEquals(OrderStatus.CANCELLED, OrderStatus.valueOf("CANCELLED"));
     }
+
+    @Test
+    @DisplayName("OrderStatus transitions follow the lifecycle and final states stay final")
+    void orderStatus_transitionTable() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CONFIRMED));
+        assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.CANCELLED));
+        assertTrue(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.SHIPPED));
+        assertFalse(OrderStatus.SHIPPED.canTransitionTo(OrderStatus.CANCELLED));
+        assertTrue(OrderStatus.DELIVERED.nextStatuses().isEmpty());
+        assertTrue(OrderStatus.CANCELLED.nextStatuses().isEmpty());
+        assertEquals(Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED), OrderStatus.CANCELLED.previousStatuses());
+        assertTrue(OrderStatus.PENDING.previousStatuses().isEmpty());
+    }
 }
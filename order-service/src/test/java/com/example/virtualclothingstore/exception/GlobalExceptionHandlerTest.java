@@ -42,6 +42,33 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
     }
 
+    @Test
+    @DisplayName("handleConflict returns 409")
+    void handleConflict() {
+        ConflictException ex = new ConflictException("busy");
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> resp = handler.handleConflictException(ex, request);
+        assertEquals(HttpStatus.CONFLICT, resp.getStatusCode());
+        assertEquals("busy", resp.getBody().getMessage());
+    }
+
+    @Test
+    @DisplayName("handleTooManyRequests returns 429 with Retry-After")
+    void handleTooManyRequests() {
+        TooManyRequestsException ex = new TooManyRequestsException("full");
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> resp = handler.handleTooManyRequestsException(ex, request);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, resp.getStatusCode());
+        assertNotNull(resp.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("handleServiceUnavailable returns 503 with Retry-After")
+    void handleServiceUnavailable() {
+        ServiceUnavailableException ex = new ServiceUnavailableException("stopping");
+        ResponseEntity<GlobalExceptionHandler.ErrorResponse> resp = handler.handleServiceUnavailableException(ex, request);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resp.getStatusCode());
+        assertNotNull(resp.getHeaders().getFirst("Retry-After"));
+    }
+
     @Test
     @DisplayName("handleGlobalException returns 500")
     void handleGlobal() {
@@ -0,0 +1,74 @@
+package com.example.virtualclothingstore.repository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.virtualclothingstore.entity.Customer;
+
+@DataJpaTest
+@DisplayName("CustomerRepository Integration Tests")
+class CustomerRepositoryIntegrationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer ada;
+    private Customer alan;
+    private Customer grace;
+
+    @BeforeEach
+    void setUp() {
+        ada = entityManager.persist(new Customer("Ada", "Lovelace", "Ada.Lovelace@example.com", "+441234"));
+        alan = entityManager.persist(new Customer("Alan", "Turing", "alan_t@example.com", "+445678"));
+        grace = entityManager.persist(new Customer("Grace", "Adams", "grace@example.com", "+441234"));
+        entityManager.flush();
+    }
+
+    private List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).toList();
+    }
+
+    @Test
+    @DisplayName("name prefix matches first or last name, ignoring case")
+    void findByNamePrefixAfter_matchesFirstOrLastName() {
+        List<Customer> result = customerRepository.findByNamePrefixAfter("ad%", 0L, PageRequest.of(0, 10));
+
+        assertEquals(List.of(ada.getId(), grace.getId()), ids(result));
+    }
+
+    @Test
+    @DisplayName("name prefix search seeks past the cursor and honours the limit")
+    void findByNamePrefixAfter_seeksAndLimits() {
+        assertEquals(List.of(ada.getId()), ids(customerRepository.findByNamePrefixAfter("a%", 0L, PageRequest.of(0, 1))));
+        assertEquals(List.of(alan.getId(), grace.getId()),
+                ids(customerRepository.findByNamePrefixAfter("a%", ada.getId(), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("email prefix ignores case and matches escaped wildcards literally")
+    void findByEmailPrefixAfter_escapesWildcards() {
+        assertEquals(List.of(ada.getId()), ids(customerRepository.findByEmailPrefixAfter("ada.%", 0L, PageRequest.of(0, 10))));
+        assertEquals(List.of(alan.getId()), ids(customerRepository.findByEmailPrefixAfter("alan\\_%", 0L, PageRequest.of(0, 10))));
+        assertEquals(List.of(), ids(customerRepository.findByEmailPrefixAfter("a\\_a%", 0L, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("exact email and phone lookups")
+    void exactLookups() {
+        assertEquals(List.of(alan.getId()),
+                ids(customerRepository.findByEmailAndIdGreaterThanOrderByIdAsc("alan_t@example.com", 0L, PageRequest.of(0, 10))));
+        assertEquals(List.of(ada.getId(), grace.getId()),
+                ids(customerRepository.findByPhoneAndIdGreaterThanOrderByIdAsc("+441234", 0L, PageRequest.of(0, 10))));
+    }
+}
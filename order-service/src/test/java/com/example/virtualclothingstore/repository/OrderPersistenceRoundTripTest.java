@@ -0,0 +1,71 @@
+package com.example.virtualclothingstore.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderItem;
+import com.example.virtualclothingstore.entity.OrderStatus;
+
+/**
+ * Measures JDBC statements needed to persist an order, using Hibernate statistics.
+ * With pooled sequence ids and insert batching the count must not grow with the
+ * number of order lines.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Order persistence round trips")
+class OrderPersistenceRoundTripTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Customer customer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer("Round", "Trip", "roundtrip@example.com", "123");
+        entityManager.persist(customer);
+        entityManager.flush();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private long statementsToPersist(int lines) {
+        Order order = new Order(customer, LocalDateTime.now(), BigDecimal.ZERO, OrderStatus.PENDING);
+        for (int i = 0; i < lines; i++) {
+            order.getOrderItems().add(new OrderItem(order, (long) i + 1, "Line " + i, 1, new BigDecimal("1.00")));
+        }
+        statistics.clear();
+        orderRepository.save(order);
+        entityManager.flush();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(lines + 1L);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("statement count is independent of the number of order lines")
+    void persistOrder_constantRoundTrips() {
+        // One insert for the order, one batched insert for all items, plus at most one
+        // nextval per sequence (each call reserves 50 ids). With IDENTITY this was 1 + lines.
+        long single = statementsToPersist(1);
+        long thirty = statementsToPersist(30);
+
+        assertThat(single).isLessThanOrEqualTo(4);
+        assertThat(thirty).isLessThanOrEqualTo(4);
+    }
+}
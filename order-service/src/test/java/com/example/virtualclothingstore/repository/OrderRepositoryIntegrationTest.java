@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,9 +15,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import com.example.virtualclothingstore.dto.OrderItemView;
+import com.example.virtualclothingstore.dto.OrderSummaryView;
 import com.example.virtualclothingstore.entity.Customer;
 import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderItem;
 import com.example.virtualclothingstore.entity.OrderStatus;
 
 @DataJpaTest
@@ -172,4 +177,172 @@ class OrderRepositoryIntegrationTest {
         // Assert
         assertThat(allOrders).hasSizeGreaterThanOrEqualTo(2);
     }
+
+    @Test
+    @DisplayName("findPageIdsByCustomerId pages ids and counts total")
+    void findPageIdsByCustomerId_returnsPagedIds() {
+        // Act
+        Page<Long> page = orderRepository.findPageIdsByCustomerId(testCustomer.getId(), PageRequest.of(0, 1));
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("findPageIdsByOrderDateBetween filters ids by date range")
+    void findPageIdsByOrderDateBetween_filtersCorrectly() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 3, 3, 23, 59);
+
+        // Act
+        Page<Long> page = orderRepository.findPageIdsByOrderDateBetween(start, end, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(page.getContent()).containsExactly(testOrder1.getId());
+    }
+
+    @Test
+    @DisplayName("summary and item projections return the columns list views need")
+    void projections_returnListViewColumns() {
+        // Arrange
+        entityManager.persist(new OrderItem(testOrder1, 1L, "Shirt", 2, new BigDecimal("25.00")));
+        entityManager.persist(new OrderItem(testOrder1, 2L, "Hat", 1, new BigDecimal("100.00")));
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = orderRepository.findPageIds(PageRequest.of(0, 10)).getContent();
+
+        // Act
+        List<OrderSummaryView> summaries = orderRepository.findSummariesByIdIn(ids);
+        List<OrderItemView> items = orderRepository.findItemViewsByOrderIdIn(ids,
+                testOrder1.getOrderDate(), testOrder2.getOrderDate());
+
+        // Assert
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries).allMatch(o -> "Alice Wonder".equals(o.customerName()));
+        OrderSummaryView first = summaries.stream().filter(o -> o.id().equals(testOrder1.getId())).findFirst().orElseThrow();
+        assertThat(first.status()).isEqualTo(OrderStatus.PENDING);
+        assertThat(first.totalAmount()).isEqualByComparingTo(new BigDecimal("150.00"));
+        assertThat(items).hasSize(2);
+        assertThat(items).allMatch(i -> i.orderId().equals(testOrder1.getId()));
+        assertThat(items).extracting(OrderItemView::productName).containsExactly("Shirt", "Hat");
+    }
+
+    @Test
+    @DisplayName("items take their order's date and item lookups stay within the date bounds")
+    void itemViews_boundedByOrderDate() {
+        // Arrange
+        OrderItem item = new OrderItem(testOrder2, 3L, "Scarf", 1, new BigDecimal("15.00"));
+        entityManager.persist(item);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = List.of(testOrder1.getId(), testOrder2.getId());
+
+        // Act
+        List<OrderItemView> march = orderRepository.findItemViewsByOrderIdIn(ids,
+                LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 31, 23, 59));
+        List<OrderItemView> firstDays = orderRepository.findItemViewsByOrderIdIn(ids,
+                LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 2, 0, 0));
+
+        // Assert
+        assertThat(entityManager.find(OrderItem.class, item.getId()).getOrderDate()).isEqualTo(testOrder2.getOrderDate());
+        assertThat(march).extracting(OrderItemView::productName).containsExactly("Scarf");
+        assertThat(firstDays).isEmpty();
+    }
+
+    @Test
+    @DisplayName("updateItemOrderDates moves an order's items to its new date")
+    void updateItemOrderDates_followsOrder() {
+        // Arrange
+        OrderItem item = new OrderItem(testOrder1, 1L, "Shirt", 2, new BigDecimal("25.00"));
+        entityManager.persist(item);
+        entityManager.flush();
+        LocalDateTime moved = LocalDateTime.of(2026, 4, 2, 9, 0);
+
+        // Act
+        int updated = orderRepository.updateItemOrderDates(testOrder1.getId(), moved);
+        entityManager.clear();
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(entityManager.find(OrderItem.class, item.getId()).getOrderDate()).isEqualTo(moved);
+    }
+
+    @Test
+    @DisplayName("seek queries walk orders by (orderDate, id) without offsets")
+    void seekQueries_walkByOrderDateAndId() {
+        // Arrange
+        Order sameTime = new Order();
+        sameTime.setCustomer(testCustomer);
+        sameTime.setOrderDate(testOrder1.getOrderDate());
+        sameTime.setStatus(OrderStatus.PENDING);
+        sameTime.setTotalAmount(new BigDecimal("10.00"));
+        entityManager.persist(sameTime);
+        entityManager.flush();
+
+        // Act
+        List<OrderSummaryView> first = orderRepository.findFirstSummaries(PageRequest.of(0, 2));
+        OrderSummaryView last = first.get(first.size() - 1);
+        List<OrderSummaryView> rest = orderRepository.findSummariesAfter(last.orderDate(), last.id(), PageRequest.of(0, 2));
+
+        // Assert
+        assertThat(first).extracting(OrderSummaryView::id).containsExactly(testOrder1.getId(), sameTime.getId());
+        assertThat(rest).extracting(OrderSummaryView::id).containsExactly(testOrder2.getId());
+    }
+
+    @Test
+    @DisplayName("customer and date range seek queries apply their filters")
+    void seekQueries_applyFilters() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 3, 31, 23, 59);
+
+        // Act
+        List<OrderSummaryView> byCustomer = orderRepository.findSummariesByCustomerIdAfter(testCustomer.getId(),
+                testOrder1.getOrderDate(), testOrder1.getId(), PageRequest.of(0, 10));
+        List<OrderSummaryView> byDate = orderRepository.findFirstSummariesByOrderDateBetween(start, end, PageRequest.of(0, 1));
+
+        // Assert
+        assertThat(byCustomer).extracting(OrderSummaryView::id).containsExactly(testOrder2.getId());
+        assertThat(byDate).extracting(OrderSummaryView::id).containsExactly(testOrder1.getId());
+        assertThat(orderRepository.findFirstSummariesByCustomerId(testCustomer.getId(), PageRequest.of(0, 10))).hasSize(2);
+        assertThat(orderRepository.findSummariesByOrderDateBetweenAfter(start, end,
+                testOrder2.getOrderDate(), testOrder2.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("updateStatus moves an order only from an allowed status and bumps its version")
+    void updateStatus_isConditional() {
+        // Arrange
+        Long version = testOrder1.getVersion();
+
+        // Act
+        int confirmed = orderRepository.updateStatus(testOrder1.getId(), OrderStatus.CONFIRMED.previousStatuses(), OrderStatus.CONFIRMED);
+        int cancelled = orderRepository.updateStatus(testOrder2.getId(), OrderStatus.CANCELLED.previousStatuses(), OrderStatus.CANCELLED);
+
+        // Assert
+        assertThat(confirmed).isEqualTo(1);
+        assertThat(cancelled).isZero();
+        Order reloaded = orderRepository.findById(testOrder1.getId()).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(reloaded.getVersion()).isEqualTo(version + 1);
+        assertThat(orderRepository.findStatusById(testOrder2.getId())).contains(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    @DisplayName("saving a stale copy of an order fails the version check")
+    void save_staleVersion_throwsOptimisticLockingFailure() {
+        // Arrange: another writer commits first and bumps the version
+        Order stale = new Order(testCustomer, testOrder1.getOrderDate(), new BigDecimal("1.00"), OrderStatus.PENDING);
+        stale.setId(testOrder1.getId());
+        stale.setVersion(testOrder1.getVersion());
+        testOrder1.setTotalAmount(new BigDecimal("175.00"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
 }
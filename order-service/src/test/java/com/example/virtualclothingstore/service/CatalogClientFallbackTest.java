@@ -2,16 +2,23 @@ package com.example.virtualclothingstore.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.List;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.example.virtualclothingstore.dto.ProductDTO;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @DisplayName("CatalogClientFallback Tests")
 class CatalogClientFallbackTest {
 
-    private final CatalogClientFallback fallback = new CatalogClientFallback();
+    private final ProductCache productCache = new ProductCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 10);
+    private final CatalogClientFallback fallback = new CatalogClientFallback(productCache);
 
     @Test
     @DisplayName("getAllProducts returns empty list")
@@ -24,4 +31,22 @@ class CatalogClientFallbackTest {
     void getProductById_null() {
         assertNull(fallback.getProductById(123L));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getProductsByIds returns empty list")
+    void getProductsByIds_empty() {
+        assertEquals(0, fallback.getProductsByIds(List.of(1L, 2L)).size());
+    }
+
+    @Test
+    @DisplayName("last known product is served while catalog is down")
+    void lastKnownProduct_served() {
+        ProductDTO product = new ProductDTO();
+        product.setId(7L);
+        product.setName("Denim Jacket");
+        productCache.put(product, productCache.startFetch());
+
+        assertSame(product, fallback.getProductById(7L));
+        assertEquals(List.of(product), fallback.getProductsByIds(List.of(7L, 8L)));
+    }
+}
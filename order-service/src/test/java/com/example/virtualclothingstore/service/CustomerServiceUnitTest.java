@@ -8,6 +8,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -19,9 +20,12 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
+import com.example.virtualclothingstore.dto.CustomerCursorPage;
 import com.example.virtualclothingstore.dto.CustomerDTO;
 import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.repository.CustomerRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -149,6 +153,7 @@ class CustomerServiceUnitTest {
 
     @Test
     @DisplayName("getAllCustomerDTOs should map all customers to DTOs")
+    @SuppressWarnings("deprecation")
     void getAllCustomerDTOs_mapsAllCustomers() {
         // Arrange
         List<Customer> customers = Arrays.asList(testCustomer);
@@ -184,4 +189,47 @@ class CustomerServiceUnitTest {
 
         assertFalse(result.isPresent());
     }
+
+    @Test
+    @DisplayName("searchCustomers requires exactly one criterion")
+    void searchCustomers_criteriaCount() {
+        assertThrows(BadRequestException.class, () -> customerService.searchCustomers(null, null, " ", null, null, 10));
+        assertThrows(BadRequestException.class, () -> customerService.searchCustomers("a@b.c", null, "jane", null, null, 10));
+    }
+
+    @Test
+    @DisplayName("searchCustomers returns a next cursor when more rows exist")
+    void searchCustomers_prefix_returnsNextCursor() {
+        // Arrange
+        Customer second = new Customer("Janet", "Doe", "janet@example.com", null);
+        second.setId(2L);
+        when(customerRepository.findByNamePrefixAfter("jan%", 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(testCustomer, second));
+
+        // Act
+        CustomerCursorPage page = customerService.searchCustomers(null, null, "Jan", null, null, 1);
+
+        // Assert
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertEquals(1L, CustomerCursor.decode(page.getNextCursor()).id());
+    }
+
+    @Test
+    @DisplayName("searchCustomers continues after the cursor")
+    void searchCustomers_exactEmail_afterCursor() {
+        when(customerRepository.findByEmailAndIdGreaterThanOrderByIdAsc("jane@example.com", 5L, PageRequest.of(0, 11)))
+                .thenReturn(List.of());
+
+        CustomerCursorPage page = customerService.searchCustomers(" jane@example.com ", null, null, null, new CustomerCursor(5L).encode(), 10);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    @DisplayName("likePrefix lower-cases and escapes LIKE wildcards")
+    void likePrefix_escapesWildcards() {
+        assertEquals("jo\\_h\\%n%", CustomerService.likePrefix(" Jo_H%n"));
+    }
 }
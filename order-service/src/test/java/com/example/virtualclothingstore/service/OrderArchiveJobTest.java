@@ -0,0 +1,69 @@
+package com.example.virtualclothingstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderArchiveJob Unit Tests")
+class OrderArchiveJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderArchiveJob job(boolean enabled) {
+        return new OrderArchiveJob(jdbcTemplate, meterRegistry, enabled, 12, 3, "orders_archive");
+    }
+
+    @Test
+    @DisplayName("run does nothing while archiving is disabled")
+    void run_disabled_skipsDatabase() {
+        // Act
+        job(false).run();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("run creates upcoming partitions, then archives old months and counts them")
+    void run_enabled_createsThenArchives() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(3))).thenReturn(1);
+        when(jdbcTemplate.queryForObject("SELECT archive_order_partitions(?, ?)", Integer.class, 12, "orders_archive"))
+                .thenReturn(2);
+
+        // Act
+        job(true).run();
+
+        // Assert
+        verify(jdbcTemplate).queryForObject(
+                "SELECT create_order_partitions(CURRENT_DATE, (CURRENT_DATE + make_interval(months => ?))::date)",
+                Integer.class, 3);
+        assertEquals(2.0, meterRegistry.counter("orders.archive.partitions").count());
+    }
+
+    @Test
+    @DisplayName("archiveOldPartitions treats a null result as nothing archived")
+    void archiveOldPartitions_nullResult_returnsZero() {
+        // Act
+        int archived = job(true).archiveOldPartitions();
+
+        // Assert
+        assertEquals(0, archived);
+        assertEquals(0.0, meterRegistry.counter("orders.archive.partitions").count());
+    }
+}
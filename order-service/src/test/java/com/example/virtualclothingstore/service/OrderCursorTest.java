@@ -0,0 +1,30 @@
+package com.example.virtualclothingstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.virtualclothingstore.exception.BadRequestException;
+
+@DisplayName("OrderCursor Tests")
+class OrderCursorTest {
+
+    @Test
+    @DisplayName("encode and decode round-trip the seek position")
+    void encodeDecode_roundTrip() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2026, 3, 1, 10, 0, 5, 123_000_000), 42L);
+
+        assertEquals(cursor, OrderCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    @DisplayName("decode rejects garbage tokens")
+    void decode_invalid_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> OrderCursor.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> OrderCursor.decode("bm9zZXBhcmF0b3I"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.virtualclothingstore.service;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderItem;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest
+@DisplayName("OrderExportService Tests")
+class OrderExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OrderExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        // Small chunks so the test crosses several persistence-context clears
+        exportService = new OrderExportService(orderRepository, entityManager.getEntityManager(), objectMapper, 2);
+
+        Customer customer = new Customer("Ada", "Lovelace, Countess", "ada@example.com", "123");
+        entityManager.persist(customer);
+        for (int day = 1; day <= 5; day++) {
+            Order order = new Order(customer, LocalDateTime.of(2026, 1, day, 12, 0), new BigDecimal("20.00"), OrderStatus.PENDING);
+            order.getOrderItems().add(new OrderItem(order, 100L + day, "Shirt \"" + day + "\"", 2, new BigDecimal("10.00")));
+            entityManager.persist(order);
+        }
+        // Outside the exported range
+        entityManager.persist(new Order(customer, LocalDateTime.of(2026, 2, 1, 12, 0), BigDecimal.ZERO, OrderStatus.PENDING));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String export(OrderExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.exportOrders(LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 31, 23, 59), format, out);
+        assertEquals(5, count);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("NDJSON export writes one order per line in date order with items")
+    void exportOrders_ndjson_writesOneOrderPerLine() throws Exception {
+        // Act
+        List<String> lines = export(OrderExportService.Format.NDJSON).lines().toList();
+
+        // Assert
+        assertEquals(5, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            OrderDTO dto = objectMapper.readValue(lines.get(i), OrderDTO.class);
+            assertEquals(LocalDateTime.of(2026, 1, i + 1, 12, 0), dto.getOrderDate());
+            assertEquals("Ada Lovelace, Countess", dto.getCustomerName());
+            assertEquals(1, dto.getItems().size());
+            assertEquals(101L + i, dto.getItems().get(0).getProductId());
+        }
+    }
+
+    @Test
+    @DisplayName("CSV export writes a header and escaped item rows")
+    void exportOrders_csv_writesEscapedRows() throws Exception {
+        // Act
+        List<String> lines = export(OrderExportService.Format.CSV).lines().toList();
+
+        // Assert
+        assertEquals(OrderExportService.CSV_HEADER, lines.get(0));
+        assertEquals(6, lines.size());
+        assertThat(lines.get(1)).contains("\"Ada Lovelace, Countess\"").contains("\"Shirt \"\"1\"\"\"").endsWith(",2,10.00");
+    }
+
+    @Test
+    @DisplayName("export leaves no managed entities behind")
+    void exportOrders_clearsPersistenceContext() throws Exception {
+        // Act
+        export(OrderExportService.Format.NDJSON);
+
+        // Assert
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        assertEquals(0, session.getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("csv quotes only values that need it")
+    void csv_quotesWhenNeeded() {
+        assertEquals("plain", OrderExportService.csv("plain"));
+        assertEquals("\"a,b\"", OrderExportService.csv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", OrderExportService.csv("say \"hi\""));
+        assertEquals("", OrderExportService.csv(null));
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.entity.IdempotencyRecord;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Runs without the test-managed transaction so the service's own commits and unique-key failures are real
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("OrderIdempotencyService Tests")
+class OrderIdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderService orderService;
+    private OrderIdempotencyService service;
+    private OrderDTO request;
+    private OrderDTO response;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        service = new OrderIdempotencyService(orderService, repository, new ObjectMapper().findAndRegisterModules(),
+                transactionManager, new SimpleMeterRegistry(), Duration.ofHours(24), Duration.ofSeconds(30),
+                Duration.ofMinutes(1));
+
+        request = new OrderDTO();
+        request.setCustomerId(1L);
+        order = new Order();
+        order.setId(10L);
+        response = new OrderDTO(10L, 1L, "John Doe", LocalDateTime.of(2024, 1, 1, 10, 0),
+                new BigDecimal("59.98"), "PENDING", List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    private void stubCreation() {
+        when(orderService.fromDTO(any(OrderDTO.class))).thenReturn(order);
+        when(orderService.saveOrder(order)).thenReturn(order);
+        when(orderService.toDTO(order)).thenReturn(response);
+    }
+
+    @Test
+    @DisplayName("retry with the same key returns the stored response without creating again")
+    void createOrder_retry_replaysStoredResponse() {
+        // Arrange
+        stubCreation();
+
+        // Act
+        OrderDTO first = service.createOrder("key-1", request);
+        OrderDTO retry = service.createOrder("key-1", request);
+
+        // Assert
+        assertEquals(10L, first.getId());
+        assertEquals(10L, retry.getId());
+        assertEquals(new BigDecimal("59.98"), retry.getTotalAmount());
+        assertEquals(response.getOrderDate(), retry.getOrderDate());
+        verify(orderService, times(1)).fromDTO(any(OrderDTO.class));
+        verify(orderService, times(1)).saveOrder(order);
+        IdempotencyRecord record = repository.findById("key-1").orElseThrow();
+        assertThat(record.isCompleted()).isTrue();
+        assertEquals(10L, record.getOrderId());
+    }
+
+    @Test
+    @DisplayName("reusing a key with a different payload is rejected")
+    void createOrder_differentPayload_throwsBadRequest() {
+        // Arrange
+        stubCreation();
+        service.createOrder("key-2", request);
+        OrderDTO other = new OrderDTO();
+        other.setCustomerId(2L);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> service.createOrder("key-2", other));
+    }
+
+    @Test
+    @DisplayName("a failed creation releases the key so the client can retry")
+    void createOrder_failure_releasesKey() {
+        // Arrange
+        when(orderService.fromDTO(any(OrderDTO.class)))
+                .thenThrow(new ResourceNotFoundException("Product not found"))
+                .thenReturn(order);
+        when(orderService.saveOrder(order)).thenReturn(order);
+        when(orderService.toDTO(order)).thenReturn(response);
+
+        // Act
+        assertThrows(ResourceNotFoundException.class, () -> service.createOrder("key-3", request));
+        assertThat(repository.findById("key-3")).isEmpty();
+        OrderDTO retry = service.createOrder("key-3", request);
+
+        // Assert
+        assertEquals(10L, retry.getId());
+    }
+
+    @Test
+    @DisplayName("a key claimed by another instance and still running returns conflict")
+    void createOrder_inProgressElsewhere_throwsConflict() {
+        // Arrange
+        repository.save(new IdempotencyRecord("key-4", service.fingerprint(request), LocalDateTime.now()));
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> service.createOrder("key-4", request));
+        verify(orderService, times(0)).saveOrder(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("a stale in-progress claim is taken over")
+    void createOrder_staleClaim_isTakenOver() {
+        // Arrange
+        stubCreation();
+        repository.save(new IdempotencyRecord("key-5", service.fingerprint(request), LocalDateTime.now().minusMinutes(5)));
+
+        // Act
+        OrderDTO result = service.createOrder("key-5", request);
+
+        // Assert
+        assertEquals(10L, result.getId());
+        assertThat(repository.findById("key-5").orElseThrow().isCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("a request whose claim was taken over fails and leaves the new claim alone")
+    void createOrder_claimTakenOver_failsWithoutTouchingNewClaim() {
+        // Arrange
+        when(orderService.fromDTO(any(OrderDTO.class))).thenAnswer(invocation -> {
+            // A retry on another instance takes the claim over while this request is running
+            repository.deleteAll();
+            repository.save(new IdempotencyRecord("key-7", service.fingerprint(request), LocalDateTime.now()));
+            return order;
+        });
+        when(orderService.saveOrder(order)).thenReturn(order);
+        when(orderService.toDTO(order)).thenReturn(response);
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> service.createOrder("key-7", request));
+        IdempotencyRecord record = repository.findById("key-7").orElseThrow();
+        assertThat(record.isCompleted()).isFalse();
+        assertThat(record.getOrderId()).isNull();
+    }
+
+    @Test
+    @DisplayName("concurrent duplicates on this instance wait for the first request")
+    void createOrder_concurrentDuplicate_joinsInFlightRequest() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.fromDTO(any(OrderDTO.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return order;
+        });
+        when(orderService.saveOrder(order)).thenReturn(order);
+        when(orderService.toDTO(order)).thenReturn(response);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<OrderDTO> first = executor.submit(() -> service.createOrder("key-6", request));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<OrderDTO> duplicate = executor.submit(() -> service.createOrder("key-6", request));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            assertEquals(10L, first.get(5, TimeUnit.SECONDS).getId());
+            assertEquals(10L, duplicate.get(5, TimeUnit.SECONDS).getId());
+            verify(orderService, times(1)).fromDTO(any(OrderDTO.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("blank or oversized keys are rejected")
+    void createOrder_invalidKey_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> service.createOrder(" ", request));
+        assertThrows(BadRequestException.class, () -> service.createOrder("k".repeat(256), request));
+    }
+
+    @Test
+    @DisplayName("purgeExpired deletes keys older than the TTL")
+    void purgeExpired_deletesOldKeys() {
+        // Arrange
+        repository.save(new IdempotencyRecord("old", "hash", LocalDateTime.now().minusDays(2)));
+        repository.save(new IdempotencyRecord("fresh", "hash", LocalDateTime.now()));
+
+        // Act
+        service.purgeExpired();
+
+        // Assert
+        assertThat(repository.findById("old")).isEmpty();
+        assertThat(repository.findById("fresh")).isPresent();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.virtualclothingstore.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.virtualclothingstore.dto.OrderImportResult;
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.repository.CustomerRepository;
+import com.example.virtualclothingstore.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@DisplayName("OrderImportService Tests")
+class OrderImportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private CatalogClient catalogClient;
+    private OrderImportService importService;
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        catalogClient = mock(CatalogClient.class);
+        when(catalogClient.getProductsByIds(any())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            // Product 404 does not exist in the catalog
+            return ids.stream().filter(id -> id != 404L)
+                    .map(id -> new ProductDTO(id, "Product " + id, null, BigDecimal.valueOf(id), 10, null, null))
+                    .toList();
+        });
+        ProductCache productCache = new ProductCache(new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+        CustomerService customerService = new CustomerService(customerRepository);
+        OrderService orderService = new OrderService(orderRepository, customerService, catalogClient, productCache, null, null);
+        // Chunks of 2 so the tests cross several commits
+        importService = new OrderImportService(orderService, customerService, objectMapper, new SimpleMeterRegistry(), 2);
+
+        Customer customer = new Customer("Mia", "Market", "mia@example.com", null);
+        entityManager.persist(customer);
+        entityManager.flush();
+        customerId = customer.getId();
+    }
+
+    private List<OrderImportResult> run(String body, OrderExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importOrders(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, out);
+        List<OrderImportResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).lines().toList()) {
+            results.add(objectMapper.readValue(line, OrderImportResult.class));
+        }
+        return results;
+    }
+
+    @Test
+    @DisplayName("NDJSON import creates valid orders and reports failures per record")
+    void importOrders_ndjson_reportsEachRecord() throws Exception {
+        // Arrange
+        String body = String.join("\n",
+                "{\"customerId\":" + customerId + ",\"orderDate\":\"2025-12-24T10:00:00\",\"status\":\"DELIVERED\","
+                        + "\"items\":[{\"productId\":5,\"quantity\":2,\"price\":4.50},{\"productId\":6,\"quantity\":1}]}",
+                "{\"customerId\":999999,\"items\":[{\"productId\":5,\"quantity\":1}]}",
+                "not json",
+                "",
+                "{\"customerId\":" + customerId + ",\"items\":[{\"productId\":404,\"quantity\":1}]}",
+                "{\"customerId\":" + customerId + ",\"items\":[{\"productId\":7,\"quantity\":3}]}");
+
+        // Act
+        List<OrderImportResult> results = run(body, OrderExportService.Format.NDJSON);
+
+        // Assert
+        assertThat(results).extracting(OrderImportResult::getRecord).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(results).extracting(OrderImportResult::getStatus).containsExactly(
+                OrderImportResult.CREATED, OrderImportResult.FAILED, OrderImportResult.FAILED,
+                OrderImportResult.FAILED, OrderImportResult.CREATED);
+        assertEquals("Customer not found: 999999", results.get(1).getMessage());
+        assertThat(results.get(2).getMessage()).startsWith("Invalid JSON");
+        assertEquals("Product not found: 404", results.get(3).getMessage());
+
+        Order migrated = orderRepository.findById(results.get(0).getOrderId()).orElseThrow();
+        assertEquals(LocalDateTime.of(2025, 12, 24, 10, 0), migrated.getOrderDate());
+        assertEquals(OrderStatus.DELIVERED, migrated.getStatus());
+        // Imported price wins over the catalog price (6.00 for product 6)
+        assertEquals(new BigDecimal("15.00"), migrated.getTotalAmount());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    @DisplayName("CSV import groups consecutive rows by orderRef and batches catalog lookups per chunk")
+    void importOrders_csv_groupsRowsByRef() throws Exception {
+        // Arrange
+        String body = String.join("\n",
+                "orderRef,customerId,orderDate,status,productId,quantity,price",
+                "A-1," + customerId + ",2026-01-02T08:00:00,CONFIRMED,1,1,",
+                "A-1," + customerId + ",2026-01-02T08:00:00,CONFIRMED,2,2,\"1,000.00\"",
+                "A-2," + customerId + ",,,3,1,",
+                "A-3," + customerId + ",,,3,x,",
+                "A-4," + customerId + ",,,4,4,");
+
+        // Act
+        List<OrderImportResult> results = run(body, OrderExportService.Format.CSV);
+
+        // Assert
+        assertThat(results).extracting(OrderImportResult::getRef).containsExactly("A-1", "A-2", "A-3", "A-4");
+        // "1,000.00" is not a number, so A-1 fails as a whole; A-3 has a bad quantity
+        assertThat(results).extracting(OrderImportResult::getStatus).containsExactly(
+                OrderImportResult.FAILED, OrderImportResult.CREATED, OrderImportResult.FAILED, OrderImportResult.CREATED);
+        assertNull(results.get(0).getOrderId());
+        Order a4 = orderRepository.findById(results.get(3).getOrderId()).orElseThrow();
+        assertEquals(new BigDecimal("16.00"), a4.getTotalAmount());
+        // One catalog call per chunk of two orders
+        verify(catalogClient, times(2)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("CSV import requires the item columns in the header")
+    void importOrders_csvWithoutRequiredColumns_throws() {
+        assertThrows(BadRequestException.class, () -> run("orderRef,customerId\nA,1\n", OrderExportService.Format.CSV));
+    }
+
+    @Test
+    @DisplayName("NDJSON import checks the first line when the upload is opened")
+    void open_ndjsonWithNonJsonFirstLine_throws() {
+        InputStream in = new ByteArrayInputStream("orderRef,customerId\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(BadRequestException.class, () -> importService.open(in, OrderExportService.Format.NDJSON));
+    }
+
+    @Test
+    @DisplayName("parseCsvLine handles quotes and doubled quotes")
+    void parseCsvLine_quotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), OrderImportService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.OrderIntakeStatus;
+import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.exception.ServiceUnavailableException;
+import com.example.virtualclothingstore.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("OrderIntakeService Tests")
+class OrderIntakeServiceTest {
+
+    private OrderService orderService;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderIntakeService intake;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        intake = new OrderIntakeService(orderService, meterRegistry, "async", 2, 50, Duration.ofMinutes(15));
+    }
+
+    private OrderDTO request(long customerId) {
+        OrderDTO dto = new OrderDTO();
+        dto.setCustomerId(customerId);
+        return dto;
+    }
+
+    private Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+
+    private OrderIntakeService.Ticket ticket(OrderIntakeStatus status, OrderDTO request) {
+        return new OrderIntakeService.Ticket(status.getTicketId(), request, System.nanoTime());
+    }
+
+    @Test
+    @DisplayName("submit queues the request and reports it as pending")
+    void submit_queuesPendingTicket() {
+        // Act
+        OrderIntakeStatus status = intake.submit(request(1L));
+
+        // Assert
+        assertEquals(OrderIntakeStatus.PENDING, status.getStatus());
+        assertEquals(1, intake.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("orders.intake.queue.depth").gauge().value());
+        assertTrue(intake.getStatus(status.getTicketId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("submit rejects with 429 when the queue is full")
+    void submit_queueFull_throwsTooManyRequests() {
+        // Arrange
+        intake.submit(request(1L));
+        intake.submit(request(2L));
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> intake.submit(request(3L)));
+        assertEquals(2, intake.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("orders.intake.requests").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("submit validates items before queueing")
+    void submit_invalidItem_throwsBadRequest() {
+        // Arrange
+        OrderDTO dto = request(1L);
+        OrderItemDTO item = new OrderItemDTO();
+        item.setProductId(5L);
+        item.setQuantity(0);
+        dto.setItems(List.of(item));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> intake.submit(dto));
+        assertEquals(0, intake.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("writeBatch commits all orders of the batch in one call")
+    void writeBatch_commitsBatchTogether() {
+        // Arrange
+        OrderDTO first = request(1L);
+        OrderDTO second = request(2L);
+        OrderIntakeStatus s1 = intake.submit(first);
+        OrderIntakeStatus s2 = intake.submit(second);
+        Order o1 = order(null);
+        Order o2 = order(null);
+        when(orderService.fromDTO(first)).thenReturn(o1);
+        when(orderService.fromDTO(second)).thenReturn(o2);
+        when(orderService.saveOrders(List.of(o1, o2))).thenReturn(List.of(order(10L), order(11L)));
+
+        // Act
+        intake.writeBatch(List.of(ticket(s1, first), ticket(s2, second)));
+
+        // Assert
+        verify(orderService, times(1)).saveOrders(anyList());
+        verify(orderService, never()).saveOrder(any(Order.class));
+        assertEquals(10L, intake.getStatus(s1.getTicketId()).orElseThrow().getOrderId());
+        assertEquals(OrderIntakeStatus.COMPLETED, intake.getStatus(s2.getTicketId()).orElseThrow().getStatus());
+        assertEquals(11L, intake.getStatus(s2.getTicketId()).orElseThrow().getOrderId());
+        assertEquals(2.0, meterRegistry.get("orders.intake.stage.latency").tag("stage", "queue").timer().count());
+        assertEquals(1.0, meterRegistry.get("orders.intake.stage.latency").tag("stage", "commit").timer().count());
+    }
+
+    @Test
+    @DisplayName("writeBatch fails only the orders that cannot be resolved")
+    void writeBatch_unresolvableOrder_failsOnlyThatTicket() {
+        // Arrange
+        OrderDTO good = request(1L);
+        OrderDTO bad = request(2L);
+        OrderIntakeStatus goodStatus = intake.submit(good);
+        OrderIntakeStatus badStatus = intake.submit(bad);
+        Order o1 = order(null);
+        when(orderService.fromDTO(good)).thenReturn(o1);
+        when(orderService.fromDTO(bad)).thenThrow(new ResourceNotFoundException("Product not found"));
+        when(orderService.saveOrders(List.of(o1))).thenReturn(List.of(order(10L)));
+
+        // Act
+        intake.writeBatch(List.of(ticket(goodStatus, good), ticket(badStatus, bad)));
+
+        // Assert
+        assertEquals(OrderIntakeStatus.COMPLETED, intake.getStatus(goodStatus.getTicketId()).orElseThrow().getStatus());
+        OrderIntakeStatus failed = intake.getStatus(badStatus.getTicketId()).orElseThrow();
+        assertEquals(OrderIntakeStatus.FAILED, failed.getStatus());
+        assertEquals("Product not found", failed.getMessage());
+    }
+
+    @Test
+    @DisplayName("writeBatch retries order by order when the batch commit fails")
+    void writeBatch_commitFailure_retriesIndividually() {
+        // Arrange
+        OrderDTO first = request(1L);
+        OrderDTO second = request(2L);
+        OrderIntakeStatus s1 = intake.submit(first);
+        OrderIntakeStatus s2 = intake.submit(second);
+        Order o1 = order(null);
+        Order o2 = order(null);
+        when(orderService.fromDTO(first)).thenReturn(o1);
+        when(orderService.fromDTO(second)).thenReturn(o2);
+        when(orderService.saveOrders(anyList())).thenThrow(new IllegalStateException("constraint violated"));
+        when(orderService.saveOrder(o1)).thenReturn(order(10L));
+        when(orderService.saveOrder(o2)).thenThrow(new IllegalStateException("constraint violated"));
+
+        // Act
+        intake.writeBatch(List.of(ticket(s1, first), ticket(s2, second)));
+
+        // Assert
+        assertEquals(OrderIntakeStatus.COMPLETED, intake.getStatus(s1.getTicketId()).orElseThrow().getStatus());
+        assertEquals(OrderIntakeStatus.FAILED, intake.getStatus(s2.getTicketId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("the writer drains queued requests once started")
+    void start_writerDrainsQueue() throws Exception {
+        // Arrange
+        OrderDTO dto = request(1L);
+        Order o1 = order(null);
+        when(orderService.fromDTO(dto)).thenReturn(o1);
+        when(orderService.saveOrders(List.of(o1))).thenReturn(List.of(order(10L)));
+        OrderIntakeStatus status = intake.submit(dto);
+
+        // Act
+        intake.start();
+        try {
+            for (int i = 0; i < 50 && OrderIntakeStatus.PENDING.equals(intake.getStatus(status.getTicketId()).orElseThrow().getStatus()); i++) {
+                Thread.sleep(20);
+            }
+        } finally {
+            intake.stop();
+        }
+
+        // Assert
+        assertEquals(OrderIntakeStatus.COMPLETED, intake.getStatus(status.getTicketId()).orElseThrow().getStatus());
+        assertFalse(intake.isRunning());
+    }
+
+    @Test
+    @DisplayName("submit after stop is refused instead of queued for an exited writer")
+    void submit_afterStop_refused() {
+        // Arrange
+        intake.start();
+        intake.stop();
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> intake.submit(request(1L)));
+        assertEquals(0, intake.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("orders.intake.requests").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("the service stops only after the web server has stopped taking requests")
+    void phase_belowWebServer() {
+        assertTrue(intake.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    @Test
+    @DisplayName("sync mode never starts the writer")
+    void start_syncMode_doesNothing() {
+        OrderIntakeService sync = new OrderIntakeService(orderService, meterRegistry, "sync", 2, 50, Duration.ofMinutes(15));
+        sync.start();
+        assertFalse(sync.isAsync());
+        assertFalse(sync.isRunning());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.virtualclothingstore.entity.Customer;
+import com.example.virtualclothingstore.entity.Order;
+import com.example.virtualclothingstore.entity.OrderItem;
+import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
+import com.example.virtualclothingstore.repository.OrderItemRepository;
+import com.example.virtualclothingstore.repository.OrderRepository;
+
+@DataJpaTest
+@DisplayName("OrderLineService Tests")
+class OrderLineServiceTest {
+
+    private static final int LINES = 300;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private OrderLineService lineService;
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        lineService = new OrderLineService(orderRepository, orderItemRepository);
+
+        Customer customer = new Customer("Bulk", "Buyer", "bulk@example.com", null);
+        entityManager.persist(customer);
+        // A large B2B order: product i costs i.00 and is ordered once
+        Order order = new Order(customer, LocalDateTime.of(2026, 5, 1, 9, 0), BigDecimal.ZERO, OrderStatus.PENDING);
+        for (long i = 1; i <= LINES; i++) {
+            order.getOrderItems().add(new OrderItem(order, i, "Item " + i, 1, BigDecimal.valueOf(i)));
+        }
+        order.setTotal(OrderPricing.total(order.getOrderItems()));
+        entityManager.persist(order);
+        entityManager.flush();
+        entityManager.clear();
+        orderId = order.getId();
+    }
+
+    private Order reload() {
+        entityManager.flush();
+        entityManager.clear();
+        return orderRepository.findById(orderId).orElseThrow();
+    }
+
+    private long statements(Runnable change) {
+        Statistics statistics = entityManager.getEntityManager().unwrap(Session.class).getSessionFactory().getStatistics();
+        statistics.clear();
+        change.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("adding a new product inserts one line and moves the total by its amount")
+    void addLine_newProduct_insertsLine() {
+        // Act
+        long statements = statements(() -> lineService.addLine(orderId, new Product(999L, "Coat", new BigDecimal("80.00")), 2));
+
+        // Assert
+        Order order = reload();
+        assertEquals(new BigDecimal("45310.00"), order.getTotalAmount()); // 45150 + 2 * 80
+        assertEquals(LINES + 1, order.getOrderItems().size());
+        assertEquals(1L, order.getVersion());
+        // version bump, line lookup, sequence, insert, total: independent of the line count
+        assertThat(statements).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("adding a product twice merges into its line at the recorded price")
+    void addLine_sameProduct_mergesQuantity() {
+        // Act: the catalog price changed, but the existing line keeps its price
+        long statements = statements(() -> lineService.addLine(orderId, new Product(7L, "Item 7", new BigDecimal("9.99")), 3));
+
+        // Assert
+        Order order = reload();
+        assertEquals(new BigDecimal("45171.00"), order.getTotalAmount()); // 45150 + 3 * 7
+        List<OrderItem> lines = orderItemRepository.findByOrderIdAndProductIdOrderByIdAsc(orderId, 7L);
+        assertEquals(1, lines.size());
+        assertEquals(4, lines.get(0).getQuantity());
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("changing a quantity adjusts the total by the line delta and folds duplicate lines")
+    void setLineQuantity_adjustsTotal() {
+        // Arrange: an older write left the product split over two lines
+        entityManager.persist(new OrderItem(orderRepository.getReferenceById(orderId), 10L, "Item 10", 2, BigDecimal.TEN));
+        orderRepository.adjustTotal(orderId, new BigDecimal("20.00"));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        lineService.setLineQuantity(orderId, 10L, 5);
+
+        // Assert
+        Order order = reload();
+        assertEquals(new BigDecimal("45190.00"), order.getTotalAmount()); // 45150 - 10 + 50
+        List<OrderItem> lines = orderItemRepository.findByOrderIdAndProductIdOrderByIdAsc(orderId, 10L);
+        assertEquals(1, lines.size());
+        assertEquals(5, lines.get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("removing a product deletes its line and subtracts it from the total")
+    void removeLines_deletesAndAdjustsTotal() {
+        // Act
+        long statements = statements(() -> lineService.removeLines(orderId, 300L));
+
+        // Assert
+        Order order = reload();
+        assertEquals(new BigDecimal("44850.00"), order.getTotalAmount());
+        assertEquals(LINES - 1, order.getOrderItems().size());
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("quantity 0 removes the product; a product not on the order is rejected")
+    void setLineQuantity_zeroRemoves_missingRejected() {
+        // Act
+        lineService.setLineQuantity(orderId, 1L, 0);
+
+        // Assert
+        assertEquals(new BigDecimal("45149.00"), reload().getTotalAmount());
+        assertThrows(ResourceNotFoundException.class, () -> lineService.setLineQuantity(orderId, 1L, 2));
+    }
+
+    @Test
+    @DisplayName("changes to an unknown order fail without touching any line")
+    void unknownOrder_throwsNotFound() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> lineService.addLine(-1L, new Product(1L, "Item 1", BigDecimal.ONE), 1));
+        assertThrows(ResourceNotFoundException.class, () -> lineService.removeLines(-1L, 1L));
+    }
+}
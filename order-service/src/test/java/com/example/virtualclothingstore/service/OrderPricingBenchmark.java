@@ -0,0 +1,83 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.virtualclothingstore.entity.Money;
+import com.example.virtualclothingstore.entity.OrderItem;
+
+/**
+ * Compares the old per-line BigDecimal stream reduction with {@link OrderPricing#total}.
+ * Not part of the test run; start it with
+ * {@code mvn -pl order-service test-compile exec:java -Dexec.mainClass=com.example.virtualclothingstore.service.OrderPricingBenchmark -Dexec.classpathScope=test}
+ * and compare the score and gc.alloc.rate.norm (bytes per call) columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int lines;
+
+    // Same cart in the shape the entities had before (BigDecimal price) and after (Money)
+    private List<LegacyLine> legacyLines;
+    private List<OrderItem> items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        legacyLines = new ArrayList<>(lines);
+        items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            int quantity = 1 + random.nextInt(5);
+            legacyLines.add(new LegacyLine(price, quantity));
+            items.add(new OrderItem(null, (long) i, "p" + i, quantity, price));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalStream() {
+        return legacyLines.stream()
+                .map(line -> line.price().multiply(BigDecimal.valueOf(line.quantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        return OrderPricing.total(items);
+    }
+
+    private record LegacyLine(BigDecimal price, Integer quantity) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderPricingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
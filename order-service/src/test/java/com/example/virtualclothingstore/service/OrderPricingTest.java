@@ -0,0 +1,53 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.virtualclothingstore.entity.Money;
+import com.example.virtualclothingstore.entity.OrderItem;
+
+@DisplayName("OrderPricing Tests")
+class OrderPricingTest {
+
+    // The reduction OrderService used before totals moved to Money
+    private static BigDecimal bigDecimalTotal(List<OrderItem> items) {
+        return items.stream()
+                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Test
+    @DisplayName("empty cart totals zero")
+    void total_emptyCart_isZero() {
+        assertEquals(Money.ZERO, OrderPricing.total(List.of()));
+    }
+
+    @Test
+    @DisplayName("total matches the BigDecimal reduction exactly for random carts")
+    void total_matchesBigDecimalReduction() {
+        // Arrange
+        Random random = new Random(42);
+        for (int cart = 0; cart < 500; cart++) {
+            int lines = 1 + random.nextInt(200);
+            List<OrderItem> items = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000), 2);
+                items.add(new OrderItem(null, (long) i, "p" + i, 1 + random.nextInt(20), price));
+            }
+
+            // Act
+            Money total = OrderPricing.total(items);
+
+            // Assert
+            BigDecimal expected = bigDecimalTotal(items);
+            assertEquals(0, expected.compareTo(total.toBigDecimal()), "cart " + cart);
+            assertEquals(expected.setScale(Money.SCALE), total.toBigDecimal());
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.example.virtualclothingstore.service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -19,23 +22,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import com.example.virtualclothingstore.dto.OrderCursorPage;
 import com.example.virtualclothingstore.dto.OrderDTO;
 import com.example.virtualclothingstore.dto.OrderItemDTO;
+import com.example.virtualclothingstore.dto.OrderItemView;
+import com.example.virtualclothingstore.dto.OrderSummaryView;
 import com.example.virtualclothingstore.dto.ProductDTO;
 import com.example.virtualclothingstore.entity.Customer;
 import com.example.virtualclothingstore.entity.Order;
 import com.example.virtualclothingstore.entity.OrderItem;
 import com.example.virtualclothingstore.entity.OrderStatus;
+import com.example.virtualclothingstore.exception.BadRequestException;
 import com.example.virtualclothingstore.exception.ResourceNotFoundException;
-import com.example.virtualclothingstore.repository.OrderItemRepository;
 import com.example.virtualclothingstore.repository.OrderRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,7 +56,7 @@ class OrderServiceDtoConversionTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private OrderItemRepository orderItemRepository;
+    private OrderLineService orderLineService;
 
     @Mock
     private CustomerService customerService;
@@ -54,6 +64,9 @@ class OrderServiceDtoConversionTest {
     @Mock
     private CatalogClient catalogClient;
 
+    @Mock
+    private ProductCache productCache;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -83,6 +96,12 @@ class OrderServiceDtoConversionTest {
         testOrderItem.setOrder(testOrder);
     }
 
+    private OrderSummaryView summaryOf(Order order) {
+        return new OrderSummaryView(order.getId(), order.getCustomer().getId(),
+                order.getCustomer().getFirstName() + " " + order.getCustomer().getLastName(),
+                order.getOrderDate(), order.getTotalAmount(), order.getStatus());
+    }
+
     // -----------------------------------------------------------------------
     // getOrdersByDateRange
     // -----------------------------------------------------------------------
@@ -106,38 +125,12 @@ class OrderServiceDtoConversionTest {
     // -----------------------------------------------------------------------
 
     @Test
-    @DisplayName("removeProductFromOrder throws when order not found")
-    void removeProductFromOrder_orderNotFound_throws() {
-        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
-
-        assertThrows(ResourceNotFoundException.class,
-                () -> orderService.removeProductFromOrder(99L, 1L));
-    }
-
-    @Test
-    @DisplayName("removeProductFromOrder removes matching item and saves")
-    void removeProductFromOrder_removesItemAndSaves() {
-        testOrder.getOrderItems().add(testOrderItem); // productId = 100L
-        when(orderRepository.findById(5L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-
+    @DisplayName("removeProductFromOrder deletes the product's lines through the line service")
+    void removeProductFromOrder_delegatesToLineService() {
         orderService.removeProductFromOrder(5L, 100L);
 
-        assertTrue(testOrder.getOrderItems().isEmpty());
-        verify(orderRepository).save(testOrder);
-    }
-
-    @Test
-    @DisplayName("removeProductFromOrder keeps items with non-matching productId")
-    void removeProductFromOrder_keepsNonMatchingItems() {
-        testOrder.getOrderItems().add(testOrderItem); // productId = 100L
-        when(orderRepository.findById(5L)).thenReturn(Optional.of(testOrder));
-        when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
-
-        orderService.removeProductFromOrder(5L, 999L); // different product
-
-        assertEquals(1, testOrder.getOrderItems().size());
-        verify(orderRepository).save(testOrder);
+        verify(orderLineService).removeLines(5L, 100L);
+        verifyNoInteractions(orderRepository);
     }
 
     // -----------------------------------------------------------------------
@@ -284,7 +277,7 @@ class OrderServiceDtoConversionTest {
         productDTO.setName("Red Hat");
         productDTO.setPrice(new BigDecimal("20.00"));
 
-        when(catalogClient.getProductById(100L)).thenReturn(productDTO);
+        when(catalogClient.getProductsByIds(any())).thenReturn(List.of(productDTO));
 
         Order result = orderService.fromDTO(dto);
 
@@ -294,6 +287,117 @@ class OrderServiceDtoConversionTest {
         assertNotNull(result.getTotalAmount());
     }
 
+    @Test
+    @DisplayName("fromDTO resolves all products with one batch catalog call")
+    void fromDTO_multipleItems_singleBatchLookup() {
+        OrderItemDTO first = new OrderItemDTO();
+        first.setProductId(100L);
+        first.setQuantity(2);
+        OrderItemDTO second = new OrderItemDTO();
+        second.setProductId(200L);
+        second.setQuantity(1);
+        OrderItemDTO repeat = new OrderItemDTO();
+        repeat.setProductId(100L);
+        repeat.setQuantity(1);
+
+        OrderDTO dto = new OrderDTO();
+        dto.setStatus("PENDING");
+        dto.setOrderDate(LocalDateTime.now());
+        dto.setItems(List.of(first, second, repeat));
+
+        ProductDTO hat = new ProductDTO();
+        hat.setId(100L);
+        hat.setName("Red Hat");
+        hat.setPrice(new BigDecimal("20.00"));
+        ProductDTO scarf = new ProductDTO();
+        scarf.setId(200L);
+        scarf.setName("Wool Scarf");
+        scarf.setPrice(new BigDecimal("15.00"));
+
+        when(catalogClient.getProductsByIds(any())).thenReturn(List.of(hat, scarf));
+
+        Order result = orderService.fromDTO(dto);
+
+        assertEquals(3, result.getOrderItems().size());
+        assertEquals("Wool Scarf", result.getOrderItems().get(1).getProductName());
+        assertEquals(new BigDecimal("75.00"), result.getTotalAmount());
+        verify(catalogClient).getProductsByIds(Set.of(100L, 200L));
+        verify(catalogClient, never()).getProductById(any());
+    }
+
+    private OrderDTO largeCart(int products) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (long id = 1; id <= products; id++) {
+            OrderItemDTO item = new OrderItemDTO();
+            item.setProductId(id);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        OrderDTO dto = new OrderDTO();
+        dto.setOrderDate(LocalDateTime.now());
+        dto.setItems(items);
+        return dto;
+    }
+
+    // Catalog stub answering every requested id with a 1.00 product
+    private static List<ProductDTO> echoProducts(Collection<Long> ids) {
+        List<ProductDTO> found = new ArrayList<>();
+        for (Long id : ids) {
+            ProductDTO product = new ProductDTO();
+            product.setId(id);
+            product.setName("Product " + id);
+            product.setPrice(new BigDecimal("1.00"));
+            found.add(product);
+        }
+        return found;
+    }
+
+    @Test
+    @DisplayName("fromDTO splits large carts into catalog batches")
+    void fromDTO_largeCart_splitsIntoBatches() {
+        when(catalogClient.getProductsByIds(any())).thenAnswer(invocation -> echoProducts(invocation.getArgument(0)));
+        OrderService batched = new OrderService(orderRepository, customerService,
+                catalogClient, productCache, new SimpleAsyncTaskExecutor(), orderLineService);
+
+        Order result = batched.fromDTO(largeCart(120));
+
+        assertEquals(120, result.getOrderItems().size());
+        assertEquals(new BigDecimal("120.00"), result.getTotalAmount());
+        verify(catalogClient, times(3)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("fromDTO fetches catalog batches in parallel on virtual threads")
+    void fromDTO_largeCart_fetchesBatchesInParallel() {
+        Set<Boolean> virtualCallers = ConcurrentHashMap.newKeySet();
+        when(catalogClient.getProductsByIds(any())).thenAnswer(invocation -> {
+            virtualCallers.add(Thread.currentThread().isVirtual());
+            return echoProducts(invocation.getArgument(0));
+        });
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        OrderService parallel = new OrderService(orderRepository, customerService,
+                catalogClient, productCache, executor, orderLineService);
+
+        Order result = parallel.fromDTO(largeCart(120));
+
+        assertEquals(120, result.getOrderItems().size());
+        assertEquals(120L, result.getOrderItems().get(119).getProductId());
+        assertEquals(Set.of(true), virtualCallers);
+        verify(catalogClient, times(3)).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("fromDTO surfaces a failed parallel catalog batch")
+    void fromDTO_parallelBatchFails_throws() {
+        when(catalogClient.getProductsByIds(any())).thenThrow(new IllegalStateException("catalog down"));
+        OrderService parallel = new OrderService(orderRepository, customerService,
+                catalogClient, productCache, new SimpleAsyncTaskExecutor(), orderLineService);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> parallel.fromDTO(largeCart(60)));
+        assertEquals("catalog down", e.getMessage());
+    }
+
     @Test
     @DisplayName("fromDTO throws when product not found via catalogClient")
     void fromDTO_productNotFound_throws() {
@@ -306,7 +410,7 @@ class OrderServiceDtoConversionTest {
         dto.setOrderDate(LocalDateTime.now());
         dto.setItems(List.of(itemDTO));
 
-        when(catalogClient.getProductById(777L)).thenReturn(null);
+        when(catalogClient.getProductsByIds(any())).thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class, () -> orderService.fromDTO(dto));
     }
@@ -343,8 +447,9 @@ class OrderServiceDtoConversionTest {
     @DisplayName("getAllOrderDTOs with Pageable returns paged DTOs")
     void getAllOrderDTOs_pageable_returnsPagedDtos() {
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Order> page = new PageImpl<>(List.of(testOrder));
-        when(orderRepository.findAll(pageable)).thenReturn(page);
+        Page<Long> ids = new PageImpl<>(List.of(5L), pageable, 1);
+        when(orderRepository.findPageIds(pageable)).thenReturn(ids);
+        when(orderRepository.findSummariesByIdIn(List.of(5L))).thenReturn(List.of(summaryOf(testOrder)));
 
         Page<OrderDTO> result = orderService.getAllOrderDTOs(pageable);
 
@@ -352,6 +457,56 @@ class OrderServiceDtoConversionTest {
         assertEquals(5L, result.getContent().get(0).getId());
     }
 
+    @Test
+    @DisplayName("getAllOrderDTOs with Pageable keeps id page order and skips vanished orders")
+    void getAllOrderDTOs_pageable_preservesIdOrder() {
+        OrderSummaryView other = new OrderSummaryView(6L, 10L, "Alice Smith", LocalDateTime.of(2024, 6, 2, 9, 0),
+                new BigDecimal("10.00"), OrderStatus.PENDING);
+        Pageable pageable = PageRequest.of(0, 3);
+        Page<Long> ids = new PageImpl<>(List.of(6L, 5L, 7L), pageable, 3);
+        when(orderRepository.findPageIds(pageable)).thenReturn(ids);
+        when(orderRepository.findSummariesByIdIn(List.of(6L, 5L, 7L))).thenReturn(List.of(summaryOf(testOrder), other));
+
+        Page<OrderDTO> result = orderService.getAllOrderDTOs(pageable);
+
+        assertEquals(2, result.getContent().size());
+        assertEquals(6L, result.getContent().get(0).getId());
+        assertEquals(5L, result.getContent().get(1).getId());
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("getAllOrderDTOs with Pageable assembles items from the flat item projection")
+    void getAllOrderDTOs_pageable_groupsItemsByOrder() {
+        Pageable pageable = PageRequest.of(0, 5);
+        when(orderRepository.findPageIds(pageable)).thenReturn(new PageImpl<>(List.of(5L), pageable, 1));
+        when(orderRepository.findSummariesByIdIn(List.of(5L))).thenReturn(List.of(summaryOf(testOrder)));
+        when(orderRepository.findItemViewsByOrderIdIn(List.of(5L), testOrder.getOrderDate(), testOrder.getOrderDate())).thenReturn(List.of(
+                new OrderItemView(5L, 20L, 100L, "Blue Shirt", 3, new BigDecimal("33.33")),
+                new OrderItemView(5L, 21L, 101L, "Red Hat", 1, new BigDecimal("0.00"))));
+
+        OrderDTO dto = orderService.getAllOrderDTOs(pageable).getContent().get(0);
+
+        assertEquals("Alice Smith", dto.getCustomerName());
+        assertEquals("CONFIRMED", dto.getStatus());
+        assertEquals(2, dto.getItems().size());
+        assertEquals("Blue Shirt", dto.getItems().get(0).getProductName());
+        assertEquals(101L, dto.getItems().get(1).getProductId());
+    }
+
+    @Test
+    @DisplayName("getAllOrderDTOs with Pageable skips detail query for empty page")
+    void getAllOrderDTOs_pageable_emptyPage() {
+        Pageable pageable = PageRequest.of(2, 5);
+        when(orderRepository.findPageIds(pageable)).thenReturn(new PageImpl<>(List.of(), pageable, 4));
+
+        Page<OrderDTO> result = orderService.getAllOrderDTOs(pageable);
+
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(4, result.getTotalElements());
+        verify(orderRepository, never()).findSummariesByIdIn(any());
+    }
+
     // -----------------------------------------------------------------------
     // getOrderDTOById
     // -----------------------------------------------------------------------
@@ -396,8 +551,8 @@ class OrderServiceDtoConversionTest {
     @DisplayName("getOrderDTOsByCustomerId with Pageable returns paged DTOs")
     void getOrderDTOsByCustomerId_pageable_returnsPagedDtos() {
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Order> page = new PageImpl<>(List.of(testOrder));
-        when(orderRepository.findByCustomerId(10L, pageable)).thenReturn(page);
+        when(orderRepository.findPageIdsByCustomerId(10L, pageable)).thenReturn(new PageImpl<>(List.of(5L), pageable, 1));
+        when(orderRepository.findSummariesByIdIn(List.of(5L))).thenReturn(List.of(summaryOf(testOrder)));
 
         Page<OrderDTO> result = orderService.getOrderDTOsByCustomerId(10L, pageable);
 
@@ -426,11 +581,67 @@ class OrderServiceDtoConversionTest {
         LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2024, 12, 31, 23, 59);
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Order> page = new PageImpl<>(List.of(testOrder));
-        when(orderRepository.findByOrderDateBetween(start, end, pageable)).thenReturn(page);
+        when(orderRepository.findPageIdsByOrderDateBetween(start, end, pageable)).thenReturn(new PageImpl<>(List.of(5L), pageable, 1));
+        when(orderRepository.findSummariesByIdIn(List.of(5L))).thenReturn(List.of(summaryOf(testOrder)));
 
         Page<OrderDTO> result = orderService.getOrderDTOsByDateRange(start, end, pageable);
 
         assertEquals(1, result.getTotalElements());
     }
+
+    // -----------------------------------------------------------------------
+    // keyset (cursor) pagination
+    // -----------------------------------------------------------------------
+
+    @Test
+    @DisplayName("getOrderDTOsAfter without cursor reads size + 1 rows and returns next cursor")
+    void getOrderDTOsAfter_firstSlice_returnsNextCursor() {
+        OrderSummaryView second = new OrderSummaryView(6L, 10L, "Alice Smith", LocalDateTime.of(2024, 6, 2, 9, 0),
+                new BigDecimal("10.00"), OrderStatus.PENDING);
+        when(orderRepository.findFirstSummaries(PageRequest.of(0, 2))).thenReturn(List.of(summaryOf(testOrder), second));
+
+        OrderCursorPage result = orderService.getOrderDTOsAfter(null, 1);
+
+        assertEquals(1, result.getContent().size());
+        assertEquals(5L, result.getContent().get(0).getId());
+        assertTrue(result.isHasNext());
+        OrderCursor next = OrderCursor.decode(result.getNextCursor());
+        assertEquals(testOrder.getOrderDate(), next.orderDate());
+        assertEquals(5L, next.id());
+        verify(orderRepository).findItemViewsByOrderIdIn(List.of(5L), testOrder.getOrderDate(), testOrder.getOrderDate());
+    }
+
+    @Test
+    @DisplayName("getOrderDTOsByCustomerIdAfter seeks past the cursor and ends without next cursor")
+    void getOrderDTOsByCustomerIdAfter_lastSlice_noNextCursor() {
+        String cursor = new OrderCursor(LocalDateTime.of(2024, 5, 1, 0, 0), 4L).encode();
+        when(orderRepository.findSummariesByCustomerIdAfter(10L, LocalDateTime.of(2024, 5, 1, 0, 0), 4L, PageRequest.of(0, 6)))
+                .thenReturn(List.of(summaryOf(testOrder)));
+
+        OrderCursorPage result = orderService.getOrderDTOsByCustomerIdAfter(10L, cursor, 5);
+
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+        assertFalse(result.isHasNext());
+    }
+
+    @Test
+    @DisplayName("getOrderDTOsByDateRangeAfter returns empty slice without querying items")
+    void getOrderDTOsByDateRangeAfter_empty() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 12, 31, 23, 59);
+        when(orderRepository.findFirstSummariesByOrderDateBetween(start, end, PageRequest.of(0, 11))).thenReturn(List.of());
+
+        OrderCursorPage result = orderService.getOrderDTOsByDateRangeAfter(start, end, null, 10);
+
+        assertTrue(result.getContent().isEmpty());
+        assertNull(result.getNextCursor());
+        verify(orderRepository, never()).findItemViewsByOrderIdIn(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("malformed cursor is rejected as bad request")
+    void getOrderDTOsAfter_malformedCursor_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> orderService.getOrderDTOsAfter("not-a-cursor", 10));
+    }
 }
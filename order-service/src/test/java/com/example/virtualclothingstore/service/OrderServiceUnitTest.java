@@ -5,7 +5,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -19,10 +21,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -34,7 +38,11 @@ import com.example.virtualclothingstore.entity.Customer;
 import com.example.virtualclothingstore.entity.Order;
 import com.example.virtualclothingstore.entity.OrderItem;
 import com.example.virtualclothingstore.entity.OrderStatus;
-import com.example.virtualclothingstore.repository.OrderItemRepository;
+import com.example.virtualclothingstore.entity.Product;
+import com.example.virtualclothingstore.exception.BadRequestException;
+import com.example.virtualclothingstore.exception.ConflictException;
+import com.example.virtualclothingstore.exception.PreconditionFailedException;
+import com.example.virtualclothingstore.exception.ResourceNotFoundException;
 import com.example.virtualclothingstore.repository.OrderRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +53,7 @@ class OrderServiceUnitTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private OrderItemRepository orderItemRepository;
+    private OrderLineService orderLineService;
 
     @Mock
     private CustomerService customerService;
@@ -53,6 +61,9 @@ class OrderServiceUnitTest {
     @Mock
     private CatalogClient catalogClient;
 
+    @Mock
+    private ProductCache productCache;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -197,13 +208,17 @@ class OrderServiceUnitTest {
         assertEquals(OrderStatus.PENDING, savedOrder.getStatus());
         assertEquals(testCustomer, savedOrder.getCustomer());
         assertNotNull(savedOrder.getOrderDate());
+        // Items are persisted through the cascade, not one save per item
+        assertSame(savedOrder, item1.getOrder());
+        assertSame(savedOrder, item2.getOrder());
+        verifyNoInteractions(orderLineService);
     }
 
     @Test
     @DisplayName("addProductToOrder should throw exception when order not found")
     void addProductToOrder_whenOrderNotFound_throwsException() {
         // Arrange
-        when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+        when(orderRepository.existsById(99L)).thenReturn(false);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -211,54 +226,166 @@ class OrderServiceUnitTest {
         });
         assertEquals("Order not found", exception.getMessage());
         verifyNoInteractions(catalogClient);
-        verifyNoInteractions(orderItemRepository);
+        verifyNoInteractions(orderLineService);
     }
 
     @Test
     @DisplayName("addProductToOrder should throw exception when product not found")
     void addProductToOrder_whenProductNotFound_throwsException() {
         // Arrange
-        testOrder.setOrderItems(new ArrayList<>());
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(catalogClient.getProductById(99L)).thenReturn(null);
+        when(orderRepository.existsById(1L)).thenReturn(true);
+        when(catalogClient.getProductsByIds(any())).thenReturn(List.of());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             orderService.addProductToOrder(1L, 99L, 1);
         });
         assertEquals("Product not found", exception.getMessage());
-        verify(catalogClient).getProductById(99L);
-        verifyNoInteractions(orderItemRepository);
+        verify(catalogClient).getProductsByIds(Set.of(99L));
+        verifyNoInteractions(orderLineService);
+    }
+
+    @Test
+    @DisplayName("addProductToOrder should reject non-positive quantities")
+    void addProductToOrder_invalidQuantity_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> orderService.addProductToOrder(1L, 1L, 0));
+        verifyNoInteractions(orderRepository, catalogClient, orderLineService);
     }
 
     @Test
-    @DisplayName("addProductToOrder should add item and recalculate total")
-    void addProductToOrder_addsItemAndRecalculatesTotal() {
+    @DisplayName("addProductToOrder should hand the resolved product to the line service")
+    void addProductToOrder_addsLineWithCatalogPrice() {
         // Arrange
-        testOrder.setOrderItems(new ArrayList<>());
-        testOrder.setTotalAmount(BigDecimal.ZERO);
-        
         ProductDTO productDto = new ProductDTO();
         productDto.setId(1L);
         productDto.setName("Product A");
         productDto.setPrice(new BigDecimal("25.00"));
-        
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
-        when(catalogClient.getProductById(1L)).thenReturn(productDto);
-        when(orderItemRepository.save(any(OrderItem.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        when(orderRepository.existsById(1L)).thenReturn(true);
+        when(catalogClient.getProductsByIds(any())).thenReturn(List.of(productDto));
 
         // Act
         orderService.addProductToOrder(1L, 1L, 3);
 
         // Assert
-        verify(orderItemRepository).save(any(OrderItem.class));
-        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
-        
-        Order updatedOrder = orderCaptor.getValue();
-        // Total should be 25 * 3 = 75
-        assertEquals(new BigDecimal("75.00"), updatedOrder.getTotalAmount());
+        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
+        verify(orderLineService).addLine(eq(1L), productCaptor.capture(), eq(3));
+        assertEquals(1L, productCaptor.getValue().getId());
+        assertEquals("Product A", productCaptor.getValue().getName());
+        assertEquals(new BigDecimal("25.00"), productCaptor.getValue().getPrice());
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("addProductToOrder should use cached product without calling catalog")
+    void addProductToOrder_cachedProduct_skipsCatalog() {
+        // Arrange
+        ProductDTO productDto = new ProductDTO();
+        productDto.setId(1L);
+        productDto.setName("Product A");
+        productDto.setPrice(new BigDecimal("25.00"));
+
+        when(orderRepository.existsById(1L)).thenReturn(true);
+        when(productCache.getAllPresent(any())).thenReturn(Map.of(1L, productDto));
+
+        // Act
+        orderService.addProductToOrder(1L, 1L, 2);
+
+        // Assert
+        verifyNoInteractions(catalogClient);
+        verify(orderLineService).addLine(eq(1L), any(Product.class), eq(2));
+    }
+
+    @Test
+    @DisplayName("changeProductQuantity validates and delegates to the line service")
+    void changeProductQuantity_delegates() {
+        // Act
+        orderService.changeProductQuantity(1L, 7L, 0);
+
+        // Assert
+        verify(orderLineService).setLineQuantity(1L, 7L, 0);
+        assertThrows(BadRequestException.class, () -> orderService.changeProductQuantity(1L, 7L, -1));
+    }
+
+    @Test
+    @DisplayName("updateOrder rejects a stale If-Match version")
+    void updateOrder_staleVersion_throwsPreconditionFailed() {
+        // Arrange
+        testOrder.setVersion(3L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> orderService.updateOrder(1L, new Order(), 2L));
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    @DisplayName("updateOrder rejects a status change the transition table does not allow")
+    void updateOrder_invalidTransition_throwsConflict() {
+        // Arrange
+        testOrder.setStatus(OrderStatus.DELIVERED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        Order changes = new Order();
+        changes.setStatus(OrderStatus.PENDING);
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> orderService.updateOrder(1L, changes, null));
+    }
+
+    @Test
+    @DisplayName("updateOrder merges the changes with the checked version")
+    void updateOrder_matchingVersion_saves() {
+        // Arrange
+        testOrder.setVersion(2L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(testOrder));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+        Order changes = new Order();
+        changes.setStatus(OrderStatus.CONFIRMED);
+
+        // Act
+        Order saved = orderService.updateOrder(1L, changes, 2L);
+
+        // Assert
+        assertEquals(1L, saved.getId());
+        assertEquals(2L, saved.getVersion());
+        assertEquals(OrderStatus.CONFIRMED, saved.getStatus());
+    }
+
+    @Test
+    @DisplayName("changeStatus issues one conditional update from the allowed predecessors")
+    void changeStatus_allowed_updatesOnce() {
+        // Arrange
+        when(orderRepository.updateStatus(1L, Set.of(OrderStatus.CONFIRMED), OrderStatus.SHIPPED)).thenReturn(1);
+
+        // Act
+        orderService.changeStatus(1L, OrderStatus.SHIPPED);
+
+        // Assert
+        verify(orderRepository).updateStatus(1L, Set.of(OrderStatus.CONFIRMED), OrderStatus.SHIPPED);
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("changeStatus reports 409 when the current status does not allow the move")
+    void changeStatus_disallowed_throwsConflict() {
+        // Arrange
+        when(orderRepository.updateStatus(1L, Set.of(OrderStatus.SHIPPED), OrderStatus.DELIVERED)).thenReturn(0);
+        when(orderRepository.findStatusById(1L)).thenReturn(Optional.of(OrderStatus.PENDING));
+
+        // Act & Assert
+        ConflictException e = assertThrows(ConflictException.class, () -> orderService.changeStatus(1L, OrderStatus.DELIVERED));
+        assertEquals("Order 1 cannot move from PENDING to DELIVERED", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("changeStatus reports 404 for a missing order")
+    void changeStatus_missing_throwsNotFound() {
+        // Arrange
+        when(orderRepository.updateStatus(99L, Set.of(OrderStatus.PENDING), OrderStatus.CONFIRMED)).thenReturn(0);
+        when(orderRepository.findStatusById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> orderService.changeStatus(99L, OrderStatus.CONFIRMED));
     }
 
     @Test
@@ -0,0 +1,130 @@
+package com.example.virtualclothingstore.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.virtualclothingstore.dto.ProductDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ProductCache Tests")
+class ProductCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCache(meterRegistry, Duration.ofMinutes(5), 2);
+    }
+
+    private ProductDTO product(long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setName("Product " + id);
+        dto.setPrice(new BigDecimal("10.00"));
+        return dto;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("catalog.product.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("getAllPresent returns cached products and counts hits and misses")
+    void getAllPresent_countsHitsAndMisses() {
+        cache.put(product(1L), cache.startFetch());
+
+        Map<Long, ProductDTO> result = cache.getAllPresent(List.of(1L, 2L));
+
+        assertEquals(1, result.size());
+        assertTrue(result.containsKey(1L));
+        assertEquals(1.0, requests("hit"));
+        assertEquals(1.0, requests("miss"));
+    }
+
+    @Test
+    @DisplayName("expired entries are misses but remain available as last known")
+    void expiredEntry_missButLastKnown() {
+        ProductCache expiring = new ProductCache(meterRegistry, Duration.ZERO, 10);
+        expiring.put(product(1L), expiring.startFetch());
+
+        assertTrue(expiring.getAllPresent(List.of(1L)).isEmpty());
+        assertTrue(expiring.getLastKnown(1L).isPresent());
+    }
+
+    @Test
+    @DisplayName("size bound evicts the oldest entry")
+    void sizeBound_evictsOldest() {
+        cache.put(product(1L), cache.startFetch());
+        cache.put(product(2L), cache.startFetch());
+        cache.put(product(3L), cache.startFetch());
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.getLastKnown(1L).isPresent());
+        assertEquals(1.0, meterRegistry.get("catalog.product.cache.evictions").counter().count());
+        assertEquals(2.0, meterRegistry.get("catalog.product.cache.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("invalidate removes single product and invalidateAll clears the cache")
+    void invalidate_removesEntries() {
+        cache.put(product(1L), cache.startFetch());
+        cache.put(product(2L), cache.startFetch());
+
+        cache.invalidate(1L);
+        assertFalse(cache.getLastKnown(1L).isPresent());
+        assertTrue(cache.getLastKnown(2L).isPresent());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("a fetch started before an invalidation does not cache its result")
+    void putAfterInvalidate_dropsInFlightFetch() {
+        cache.put(product(1L), cache.startFetch());
+        long inFlight = cache.startFetch();
+
+        cache.invalidate(1L);
+        cache.put(product(1L), inFlight);
+        assertFalse(cache.getLastKnown(1L).isPresent());
+
+        cache.put(product(1L), cache.startFetch());
+        assertTrue(cache.getLastKnown(1L).isPresent());
+    }
+
+    @Test
+    @DisplayName("a fetch started before invalidateAll does not cache its result")
+    void putAfterInvalidateAll_dropsInFlightFetch() {
+        long inFlight = cache.startFetch();
+
+        cache.invalidateAll();
+        cache.putAll(List.of(product(1L), product(2L)), inFlight);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("re-putting the cached instance does not refresh a stale entry")
+    void putSameInstance_doesNotRefresh() {
+        ProductCache expiring = new ProductCache(meterRegistry, Duration.ZERO, 10);
+        ProductDTO stale = product(1L);
+        expiring.put(stale, expiring.startFetch());
+
+        expiring.put(expiring.getLastKnown(1L).orElseThrow(), expiring.startFetch());
+
+        assertTrue(expiring.getAllPresent(List.of(1L)).isEmpty());
+    }
+}
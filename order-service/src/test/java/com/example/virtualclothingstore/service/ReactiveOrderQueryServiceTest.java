@@ -0,0 +1,161 @@
+package com.example.virtualclothingstore.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.example.virtualclothingstore.dto.OrderDTO;
+import com.example.virtualclothingstore.dto.ProductDTO;
+import com.example.virtualclothingstore.repository.ReactiveCustomerRepository;
+import com.example.virtualclothingstore.repository.ReactiveOrderItemRepository;
+import com.example.virtualclothingstore.repository.ReactiveOrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+// In-memory H2 instead of the PostgreSQL URL from application.properties
+@DataR2dbcTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactiveorders?options=DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@DisplayName("ReactiveOrderQueryService Tests")
+class ReactiveOrderQueryServiceTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveOrderRepository orderRepository;
+
+    @Autowired
+    private ReactiveOrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ReactiveCustomerRepository customerRepository;
+
+    private ReactiveCatalogClient catalogClient;
+    private ReactiveOrderQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        catalogClient = mock(ReactiveCatalogClient.class);
+        ProductCache productCache = new ProductCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+        // Small chunks so the streams cross several chunk boundaries
+        queryService = new ReactiveOrderQueryService(orderRepository, orderItemRepository, customerRepository,
+                catalogClient, productCache, 2);
+
+        // Same shape as the tables Hibernate creates for the JPA entities
+        sql("DROP TABLE IF EXISTS order_items");
+        sql("DROP TABLE IF EXISTS orders");
+        sql("DROP TABLE IF EXISTS customers");
+        sql("CREATE TABLE customers (id BIGINT PRIMARY KEY, first_name VARCHAR(255), last_name VARCHAR(255))");
+        sql("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT, order_date TIMESTAMP, "
+                + "total_amount NUMERIC(10, 2), status VARCHAR(20))");
+        sql("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT, order_date TIMESTAMP, product_id BIGINT, "
+                + "product_name VARCHAR(255), quantity INT, price NUMERIC(10, 2))");
+
+        sql("INSERT INTO customers VALUES (1, 'Ada', 'Lovelace'), (2, 'Alan', 'Turing')");
+        for (int day = 1; day <= 5; day++) {
+            sql("INSERT INTO orders VALUES (" + day + ", 1, TIMESTAMP '2026-01-0" + day + " 12:00:00', 20.00, 'PENDING')");
+            sql("INSERT INTO order_items VALUES (" + (10 + day) + ", " + day + ", TIMESTAMP '2026-01-0" + day + " 12:00:00', "
+                    + (100 + day) + ", 'Shirt " + day + "', 2, 10.00)");
+        }
+        sql("INSERT INTO orders VALUES (6, 2, TIMESTAMP '2026-02-01 12:00:00', 5.00, 'SHIPPED')");
+        // Stored before product names were copied onto items
+        sql("INSERT INTO order_items VALUES (16, 6, TIMESTAMP '2026-02-01 12:00:00', 200, NULL, 1, 5.00)");
+    }
+
+    private void sql(String statement) {
+        databaseClient.sql(statement).then().block();
+    }
+
+    @Test
+    @DisplayName("streamOrdersByCustomer emits the customer's orders newest first with items")
+    void streamOrdersByCustomer_newestFirst() {
+        StepVerifier.create(queryService.streamOrdersByCustomer(1L).map(OrderDTO::getId))
+                .expectNext(5L, 4L, 3L, 2L, 1L)
+                .verifyComplete();
+
+        OrderDTO first = queryService.streamOrdersByCustomer(1L).blockFirst();
+        assertEquals("Ada Lovelace", first.getCustomerName());
+        assertEquals(0, new BigDecimal("20.00").compareTo(first.getTotalAmount()));
+        assertEquals(1, first.getItems().size());
+        assertEquals("Shirt 5", first.getItems().get(0).getProductName());
+        verify(catalogClient, never()).getProductsByIds(any());
+    }
+
+    @Test
+    @DisplayName("streamOrders emits orders in the date range oldest first")
+    void streamOrders_dateRange() {
+        StepVerifier.create(queryService.streamOrders(LocalDateTime.of(2026, 1, 2, 0, 0), LocalDateTime.of(2026, 1, 4, 23, 59))
+                        .map(OrderDTO::getId))
+                .expectNext(2L, 3L, 4L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("items are looked up only within the chunk's order dates")
+    void streamOrders_itemsBoundedByOrderDates() {
+        // An item whose date lies outside its chunk's orders is in a partition the lookup must not touch
+        sql("INSERT INTO order_items VALUES (17, 1, TIMESTAMP '2025-12-01 12:00:00', 300, 'Stray', 1, 1.00)");
+
+        OrderDTO order = queryService.getOrder(1L).block();
+
+        assertEquals(1, order.getItems().size());
+        assertEquals("Shirt 1", order.getItems().get(0).getProductName());
+    }
+
+    @Test
+    @DisplayName("streaming honours the subscriber's demand")
+    void streamOrdersByCustomer_backpressure() {
+        StepVerifier.create(queryService.streamOrdersByCustomer(1L), 1)
+                .expectNextMatches(order -> order.getId() == 5L)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    @DisplayName("getOrder fills missing product names from the catalog")
+    void getOrder_enrichesUnnamedItems() {
+        // Arrange
+        ProductDTO product = new ProductDTO();
+        product.setId(200L);
+        product.setName("Scarf");
+        when(catalogClient.getProductsByIds(anyCollection())).thenReturn(Flux.just(product));
+
+        // Act
+        OrderDTO order = queryService.getOrder(6L).block();
+
+        // Assert
+        assertEquals("Alan Turing", order.getCustomerName());
+        assertEquals("SHIPPED", order.getStatus());
+        assertEquals("Scarf", order.getItems().get(0).getProductName());
+        verify(catalogClient).getProductsByIds(Set.of(200L));
+    }
+
+    @Test
+    @DisplayName("getOrder is empty for an unknown id")
+    void getOrder_unknownId_isEmpty() {
+        assertNull(queryService.getOrder(99L).block());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.virtualclothingstore.service;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("VirtualThreadPinningMonitor Tests")
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    // Sleeping inside synchronized pins the virtual thread to its carrier on JDK 21
+    private void pinnedWork() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("pinned virtual threads are recorded with their application frame")
+    void pinnedVirtualThread_isRecorded() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(10));
+        monitor.start();
+
+        try {
+            // Act
+            Thread.ofVirtual().start(this::pinnedWork).join();
+
+            // Assert: JFR delivers streamed events in periodic flushes
+            Timer pinned = null;
+            for (int i = 0; i < 100 && pinned == null; i++) {
+                pinned = meterRegistry.find("jvm.threads.virtual.pinned").timer();
+                if (pinned == null) {
+                    Thread.sleep(100);
+                }
+            }
+            assertTrue(pinned != null && pinned.count() >= 1, "expected a pinned event");
+            assertEquals(getClass().getName() + ".pinnedWork", pinned.getId().getTag("site"));
+        } finally {
+            monitor.stop();
+        }
+        assertFalse(monitor.isRunning());
+    }
+
+    @Test
+    @DisplayName("siteOf handles a missing stack trace")
+    void siteOf_noStackTrace() {
+        assertEquals("unknown", VirtualThreadPinningMonitor.siteOf(null));
+    }
+}